@@ -0,0 +1,95 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import cmdparser4j.limits.UnboundIntegerLimit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of parses from many threads at once, using a single shared specification.
+ * <p/>
+ * Usage: {@code ConcurrentParseBenchmark}
+ * <p/>
+ * Runs the benchmark with 1, 2, 4... threads, up to the number of processors, and prints the throughput
+ * of each compared to a single thread.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+public class ConcurrentParseBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int maxThreads = Math.max(4, Runtime.getRuntime().availableProcessors());
+		double single = 0;
+
+		for (int threads = 1; threads <= maxThreads; threads *= 2) {
+			RunResult result = new Runner(new OptionsBuilder()
+					.include(ConcurrentParseBenchmark.class.getName())
+					.threads(threads)
+					.build()).runSingle();
+
+			double throughput = result.getPrimaryResult().getScore();
+			if (threads == 1) {
+				single = throughput;
+			}
+			System.out.println(String.format("%d thread(s): %.0f parses/s, %.2fx single thread", threads, throughput, throughput / single));
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class Shared {
+		ParserSpec mySpec;
+		XMLConfigurationReader myReader;
+
+		@Setup
+		public void setUp() {
+			CmdParser4J p = new CmdParser4J(new SystemOutputParseResult());
+			p.accept("--id").asInteger(1).setMandatory();
+			p.accept("--name").asString(1).withAlias("-n");
+			p.accept("--values").asInteger(1, Constructor.NO_PARAMETER_LIMIT, new UnboundIntegerLimit());
+			p.accept("--verbose").asSingleBoolean().blockedBy("--quiet");
+			p.accept("--quiet").asSingleBoolean();
+			p.accept("--flags").asBoolean(2).dependsOn("--name");
+			mySpec = p.compile();
+
+			myReader = new XMLConfigurationReader("<Settings><Name>fromConfig</Name></Settings>", new SystemOutputParseResult());
+			myReader.setMatcher("--name", new XMLConfigurationReader.NodeMatcher("/Settings/Name"));
+		}
+	}
+
+	/**
+	 * Cycles through a successful parse, a failing one and one reading the configuration.
+	 */
+	@State(Scope.Thread)
+	public static class Counter {
+		int myCount = 0;
+	}
+
+	@Benchmark
+	public ParseSession parse(Shared shared, Counter counter) {
+		String id = Integer.toString(counter.myCount);
+		ParseSession res;
+
+		switch (counter.myCount++ % 3) {
+			case 0:
+				res = shared.mySpec.parse(new SystemOutputParseResult(), "--id", id, "-n", "name" + id, "--flags", "1", "false", "--values", "1", "2", id);
+				break;
+			case 1:
+				res = shared.mySpec.parse(new SystemOutputParseResult(), "--id", id, "--verbose", "--quiet");
+				break;
+			default:
+				res = shared.mySpec.parse(new SystemOutputParseResult(), shared.myReader, "--id", id, "--verbose");
+				break;
+		}
+
+		return res;
+	}
+}
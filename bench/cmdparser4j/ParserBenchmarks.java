@@ -0,0 +1,256 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import cmdparser4j.limits.UnboundIntegerLimit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of the parser hot paths.
+ * <p/>
+ * Usage: {@code ParserBenchmarks [output file] [name filter]}
+ * <p/>
+ * The results are written as JMH JSON to the output file, {@code bench_output.json} by default.
+ * Only benchmarks matching the filter (a regular expression) are run. Any other JMH option can be given by
+ * running {@code org.openjdk.jmh.Main} instead.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+public class ParserBenchmarks {
+
+	public static void main(String[] args) throws Exception {
+		String output = args.length > 0 ? args[0] : "bench_output.json";
+		String filter = args.length > 1 ? args[1] : "";
+
+		new Runner(new OptionsBuilder()
+				.include(ParserBenchmarks.class.getName() + ".*" + filter)
+				.resultFormat(ResultFormatType.JSON)
+				.result(output)
+				.build()).run();
+	}
+
+	/**
+	 * Creates a parser with {@code argumentCount} integer arguments, named -a0, -a1...
+	 */
+	static CmdParser4J createParser(int argumentCount) {
+		CmdParser4J p = new CmdParser4J(new SystemOutputParseResult());
+		for (int i = 0; i < argumentCount; ++i) {
+			p.accept("-a" + i).asInteger(1, 1, new UnboundIntegerLimit()).describedAs("Argument number " + i);
+		}
+		return p;
+	}
+
+	/**
+	 * Creates a command line of (at most) {@code tokenCount} tokens, giving each of the
+	 * arguments one parameter, spread evenly over the specification.
+	 */
+	static String[] createCommandLine(int argumentCount, int tokenCount) {
+		int used = Math.min(argumentCount, tokenCount / 2);
+		String[] res = new String[used * 2];
+		for (int i = 0; i < used; ++i) {
+			int arg = (int) ((long) i * argumentCount / used);
+			res[i * 2] = "-a" + arg;
+			res[i * 2 + 1] = Integer.toString(i);
+		}
+		return res;
+	}
+
+	@State(Scope.Benchmark)
+	public static class CommandLine {
+		@Param({"10", "100", "1000", "10000"})
+		public int specSize;
+
+		@Param({"10", "100", "1000"})
+		public int tokenCount;
+
+		CmdParser4J myParser;
+		ParserSpec mySpec;
+		String[] myArgs;
+		List<String> myArgList;
+
+		@Setup
+		public void setUp() {
+			myParser = createParser(specSize);
+			mySpec = myParser.compile();
+			myArgs = createCommandLine(specSize, tokenCount);
+			myArgList = Arrays.asList(myArgs);
+			if (!myParser.parse(myArgs)) {
+				throw new IllegalStateException(myParser.getMessageParser().getParseResult());
+			}
+		}
+	}
+
+	@Benchmark
+	public boolean parse(CommandLine state) {
+		return state.myParser.parse(state.myArgs);
+	}
+
+	@Benchmark
+	public int getIndexesAndCheckConstraints(CommandLine state) {
+		ArgumentIndexes indexes = state.mySpec.GetIndexes(state.myArgList);
+		return state.mySpec.checkConstraints(indexes, new SystemOutputParseResult()) ? indexes.size() : 0;
+	}
+
+	/**
+	 * A specification of {@code errorCount} mandatory arguments, none of which are given.
+	 */
+	@State(Scope.Thread)
+	public static class FailingParse {
+		@Param({"1", "10", "100"})
+		public int errorCount;
+
+		ParserSpec mySpec;
+		SystemOutputParseResult myResult;
+
+		@Setup
+		public void setUp() {
+			CmdParser4J p = new CmdParser4J(new SystemOutputParseResult());
+			for (int i = 0; i < errorCount; ++i) {
+				p.accept("-a" + i).asInteger(1).setMandatory();
+			}
+			mySpec = p.compile();
+			myResult = new SystemOutputParseResult();
+		}
+	}
+
+	/**
+	 * Only checks the outcome of the parse, leaving the messages unformatted.
+	 */
+	@Benchmark
+	public boolean failedParse(FailingParse state) {
+		state.myResult.clear();
+		return state.mySpec.parse(state.myResult).isSuccessFullyParsed();
+	}
+
+	@State(Scope.Benchmark)
+	public static class Configuration {
+		@Param({"10", "100", "1000"})
+		public int entryCount;
+
+		XMLConfigurationReader myReader;
+		ParseSession mySession;
+		Argument myArgument;
+
+		@Setup
+		public void setUp() {
+			CmdParser4J p = createParser(entryCount);
+			StringBuilder xml = new StringBuilder("<Settings>");
+			for (int i = 0; i < entryCount; ++i) {
+				xml.append("<Arg").append(i).append(" Value=\"").append(i).append("\"/>");
+			}
+			xml.append("</Settings>");
+
+			IParseResult result = new SystemOutputParseResult();
+			myReader = new XMLConfigurationReader(xml.toString(), result);
+			for (int i = 0; i < entryCount; ++i) {
+				myReader.setMatcher("-a" + i, new XMLConfigurationReader.NodeMatcher("/Settings/Arg" + i, "Value"));
+			}
+
+			ParserSpec spec = p.compile();
+			mySession = spec.parse(result);
+			// The last entry, so that the whole document has to be searched
+			myArgument = spec.getArguments().get("-a" + (entryCount - 1));
+		}
+	}
+
+	@Benchmark
+	public boolean fillFromConfiguration(Configuration state) {
+		return state.myReader.fillFromConfiguration(state.mySession, state.myArgument);
+	}
+
+	@State(Scope.Benchmark)
+	public static class Usage {
+		@Param({"10", "100", "1000"})
+		public int argumentCount;
+
+		CmdParser4J myParser;
+		SystemOutputUsageFormatter myUsage;
+		Writer myOut;
+
+		@Setup
+		public void setUp() {
+			myParser = createParser(argumentCount);
+			myUsage = new SystemOutputUsageFormatter("Benchmark", 80);
+			myParser.getUsage(myUsage);
+			// Discards the output, like a fast console would
+			myOut = new Writer() {
+				@Override
+				public void write(char[] cbuf, int off, int len) {
+				}
+
+				@Override
+				public void flush() {
+				}
+
+				@Override
+				public void close() {
+				}
+			};
+		}
+	}
+
+	@Benchmark
+	public String getUsage(Usage state) {
+		SystemOutputUsageFormatter usage = new SystemOutputUsageFormatter("Benchmark");
+		state.myParser.getUsage(usage);
+		return usage.toString();
+	}
+
+	@Benchmark
+	public void writeUsage(Usage state) throws IOException {
+		state.myUsage.writeTo(state.myOut);
+	}
+
+	@State(Scope.Benchmark)
+	public static class Session {
+		@Param({"10", "100", "1000"})
+		public int argumentCount;
+
+		ParseSession mySession;
+		String[] myNames;
+		IntArg[] myHandles;
+
+		@Setup
+		public void setUp() {
+			CmdParser4J p = new CmdParser4J(new SystemOutputParseResult());
+			myNames = new String[argumentCount];
+			myHandles = new IntArg[argumentCount];
+			for (int i = 0; i < argumentCount; ++i) {
+				myNames[i] = "-a" + i;
+				myHandles[i] = p.accept(myNames[i]).asInteger(1, 1, new UnboundIntegerLimit()).intArg();
+			}
+			mySession = p.compile().parse(new SystemOutputParseResult(), createCommandLine(argumentCount, argumentCount * 2));
+		}
+	}
+
+	@Benchmark
+	public int readByName(Session state) {
+		int sum = 0;
+		for (String name : state.myNames) {
+			sum += state.mySession.getInteger(name);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int readByHandle(Session state) {
+		int sum = 0;
+		for (IntArg handle : state.myHandles) {
+			sum += handle.get(state.mySession);
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,77 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.ClassloaderProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what a freshly started process pays for its first parse, with and without a configuration reader.
+ * Each measurement is a single shot in a new fork, so no parser class is loaded or compiled beforehand;
+ * the class loading profiler reports the number of classes loaded by the parse.
+ * <p/>
+ * Usage: {@code StartupBenchmark [output file]}
+ * <p/>
+ * The results are written as JMH JSON to the output file, {@code startup_output.json} by default.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+	private static final String XML = "<Settings><Value>42</Value></Settings>";
+
+	@Param({"noReader", "unusedXmlReader", "xmlReader", "streamingXmlReader"})
+	public String scenario;
+
+	public static void main(String[] args) throws Exception {
+		String output = args.length > 0 ? args[0] : "startup_output.json";
+
+		new Runner(new OptionsBuilder()
+				.include(StartupBenchmark.class.getName())
+				.addProfiler(ClassloaderProfiler.class)
+				.resultFormat(ResultFormatType.JSON)
+				.result(output)
+				.build()).run();
+	}
+
+	@Benchmark
+	public boolean firstParse() {
+		CmdParser4J p = new CmdParser4J(new SystemOutputParseResult());
+		p.accept("-name").asString(1).setMandatory();
+		p.accept("-count").asInteger(1);
+		p.accept("-value").asInteger(1);
+
+		boolean res;
+		if (scenario.equals("noReader")) {
+			res = p.parse("-name", "x", "-count", "1");
+		} else if (scenario.equals("unusedXmlReader")) {
+			// All arguments are given, so the configuration is never read
+			XMLConfigurationReader cfg = new XMLConfigurationReader(XML, p.getMessageParser());
+			cfg.setMatcher("-count", new XMLConfigurationReader.NodeMatcher("/Settings/Value"));
+			res = p.parse(cfg, "-name", "x", "-count", "1", "-value", "2");
+		} else if (scenario.equals("xmlReader")) {
+			XMLConfigurationReader cfg = new XMLConfigurationReader(XML, p.getMessageParser());
+			cfg.setMatcher("-value", new XMLConfigurationReader.NodeMatcher("/Settings/Value"));
+			res = p.parse(cfg, "-name", "x", "-count", "1");
+		} else {
+			StreamingXMLConfigurationReader cfg = new StreamingXMLConfigurationReader(XML, p.getMessageParser());
+			cfg.setMatcher("-value", new XMLConfigurationReader.NodeMatcher("/Settings/Value"));
+			res = p.parse(cfg, "-name", "x", "-count", "1");
+		}
+
+		if (!res) {
+			throw new IllegalStateException(p.getMessageParser().getParseResult());
+		}
+
+		return res;
+	}
+}
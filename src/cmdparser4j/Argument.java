@@ -5,65 +5,90 @@ package cmdparser4j;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * The definition of an argument. All state produced while parsing is kept in a {@code ParseSession}
+ * so that a compiled argument can be shared between any number of parses.
+ */
 class Argument {
 	private final ArrayList<String> myNames = new ArrayList<String>();
 	private final ArrayList<String> myDependencies = new ArrayList<String>();
 	private final ArrayList<String> myBlocks = new ArrayList<String>();
 	private boolean myIsMandatory = false;
-	private boolean myExistsOnCommandLine = false;
 	private BaseType myType = null;
 	private String myDescription = "";
-	private IParseResult myResult;
 	private boolean myIsHidden = false;
 	private boolean myIsHelpCommand = false;
+	private int myIndex = -1;
 
 
-	public Argument(String argumentName, IParseResult result) {
+	public Argument(String argumentName) {
+		this(argumentName, -1);
+	}
+
+	/**
+	 * Creates a definition that is to be placed at {@code index} when compiled.
+	 */
+	Argument(String argumentName, int index) {
 		myNames.add(argumentName);
-		myResult = result;
+		myIndex = index;
 	}
 
-	public boolean parse(List<String> args) {
+	/**
+	 * Creates a copy of {@code other}, placed at {@code index} in a compiled specification.
+	 */
+	Argument(Argument other, int index) {
+		myNames.addAll(other.myNames);
+		myDependencies.addAll(other.myDependencies);
+		myBlocks.addAll(other.myBlocks);
+		myIsMandatory = other.myIsMandatory;
+		myType = other.myType;
+		myDescription = other.myDescription;
+		myIsHidden = other.myIsHidden;
+		myIsHelpCommand = other.myIsHelpCommand;
+		myIndex = index;
+	}
+
+	public boolean parse(ParseSession session, List<? extends CharSequence> args) {
 
 		boolean result = true;
 
 		// Can we find the argument?
-		Changeable<Integer> hits = new Changeable<Integer>(0);
-		int argumentIx = findArgument(args, hits);
+		int argumentIx = findArgument(args);
 
 		if (argumentIx >= 0) {
 			// Argument found, parse it
-			myExistsOnCommandLine = true;
-			result = myType.parse(args, argumentIx);
+			result = parse(session, args, argumentIx, args.size()) >= 0;
 		}
 
 		return result;
 	}
 
 	/**
-	 * Searches for this argument in the provided list.
+	 * Parses the argument located at {@code argumentIx} and the parameters following it, up to {@code end}.
+	 *
+	 * @return The position after the last parameter taken, or -1 if the parse failed.
+	 */
+	int parse(ParseSession session, List<? extends CharSequence> args, int argumentIx, int end) {
+		return myType.parse(session, this, args, argumentIx, end);
+	}
+
+	/**
+	 * Searches for the first occurrence of this argument, by any of its names, in the provided list.
 	 */
-	int findArgument(List<String> args, Changeable<Integer> hitCount) {
+	int findArgument(List<? extends CharSequence> args) {
 		int ix = -1;
-		int count = 0;
 
-		for (String myName : myNames) {
-			for (String arg : args) {
-				if (myName.equals(arg)) {
-					if (ix == -1) {
-						ix = args.indexOf(myName);
-					}
-					// Count number of hits
-					++count;
+		for (int i = 0; ix == -1 && i < args.size(); ++i) {
+			for (int n = 0; ix == -1 && n < myNames.size(); ++n) {
+				if (myNames.get(n).contentEquals(args.get(i))) {
+					ix = i;
 				}
 			}
 		}
 
-		hitCount.set(count);
-
 		return ix;
 	}
 
@@ -77,6 +102,10 @@ class Argument {
 		myType = type;
 	}
 
+	BaseType getType() {
+		return myType;
+	}
+
 	void setMandatory() {
 		myIsMandatory = true;
 	}
@@ -93,10 +122,25 @@ class Argument {
 		return myNames.get(0);
 	}
 
+	List<String> getNames() {
+		return myNames;
+	}
+
+	/**
+	 * The dense index of the argument within the specification it belongs to.
+	 */
+	int getIndex() {
+		return myIndex;
+	}
+
 	List<String> getDependencyNames() {
 		return myDependencies;
 	}
 
+	List<String> getBlockerNames() {
+		return myBlocks;
+	}
+
 	List<String> getAliases() {
 		// If from > to, then an empty list is returned. That is what we want (first item is the primary name)
 		return myNames.subList( 1, myNames.size() );
@@ -106,11 +150,6 @@ class Argument {
 		Collections.addAll(myNames, aliases);
 	}
 
-	boolean isSuccessFullyParsed() {
-		// It can only be successfully parsed if it actually exists on the command line.
-		return myExistsOnCommandLine && myType.isSuccessFullyParsed();
-	}
-
 	String getDescription() {
 		return myDescription;
 	}
@@ -135,19 +174,19 @@ class Argument {
 		myBlocks.add(blockedByPrimaryName);
 	}
 
-	boolean checkDependencies(HashMap<String, Argument> arguments) {
+	boolean checkDependencies(ParseSession session, Map<String, Argument> arguments) {
 		boolean result = true;
 
 		// Only check if the current Argument has been parsed itself.
-		if (isSuccessFullyParsed()) {
+		if (session.isSuccessFullyParsed(this)) {
 			for (String dep : myDependencies) {
 				Argument dependsOn = arguments.get(dep);
 				if (dependsOn == null) {
 					// Can't find the argument, this is a programming error
-					myResult.noSuchArgumentDefined(getPrimaryName(), dep);
+					session.getMessageParser().noSuchArgumentDefined(getPrimaryName(), dep);
 					result = false;
-				} else if (!dependsOn.isSuccessFullyParsed()) {
-					myResult.missingDependentArgument(getPrimaryName(), dep);
+				} else if (!session.isSuccessFullyParsed(dependsOn)) {
+					session.getMessageParser().missingDependentArgument(getPrimaryName(), dep);
 					result = false;
 				}
 			}
@@ -156,20 +195,20 @@ class Argument {
 		return result;
 	}
 
-	boolean checkMutualExclusion(HashMap<String, Argument> argumentsToTestAgainst, List<String> alreadyTested) {
+	boolean checkMutualExclusion(ParseSession session, Map<String, Argument> argumentsToTestAgainst, List<String> alreadyTested) {
 		boolean result = true;
 
 		// Only check if the current Argument has been parsed itself.
-		if (isSuccessFullyParsed()) {
+		if (session.isSuccessFullyParsed(this)) {
 			for (String blocker : myBlocks) {
 				if (!alreadyTested.contains(blocker)) {
 					Argument blockedBy = argumentsToTestAgainst.get(blocker);
 					if (blockedBy == null) {
 						// Can't find the argument, this is a programming error
-						myResult.noSuchMutuallyExclusiveArgumentDefined(getPrimaryName(), blocker);
+						session.getMessageParser().noSuchMutuallyExclusiveArgumentDefined(getPrimaryName(), blocker);
 						result = false;
-					} else if (blockedBy.isSuccessFullyParsed()) {
-						myResult.argumentsAreMutuallyExclusive(getPrimaryName(), blockedBy.getPrimaryName());
+					} else if (session.isSuccessFullyParsed(blockedBy)) {
+						session.getMessageParser().argumentsAreMutuallyExclusive(getPrimaryName(), blockedBy.getPrimaryName());
 						result = false;
 					}
 				}
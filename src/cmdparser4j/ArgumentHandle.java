@@ -0,0 +1,51 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import java.util.List;
+
+/**
+ * A typed handle to an argument, obtained from its definition via {@code Constructor}.
+ * Values are read directly from the slot of the argument in a {@code ParseSession}, without looking up the argument by name.
+ */
+public abstract class ArgumentHandle {
+	private final String myPrimaryName;
+	private final int mySlot;
+	private final Class<? extends BaseType> myType;
+
+	ArgumentHandle(Argument argument, Class<? extends BaseType> type) {
+		myPrimaryName = argument.getPrimaryName();
+		mySlot = argument.getIndex();
+		myType = type;
+	}
+
+	public String getPrimaryName() {
+		return myPrimaryName;
+	}
+
+	/**
+	 * Indicates if the argument got any value during the parse.
+	 *
+	 * @param session The parse to read from
+	 * @return true if the argument has a value, otherwise false
+	 */
+	public boolean isSet(ParseSession session) {
+		return getResults(session) != null;
+	}
+
+	/**
+	 * Gets the number of parameters the argument got during the parse.
+	 *
+	 * @param session The parse to read from
+	 * @return The number of parameters
+	 */
+	public int count(ParseSession session) {
+		List<?> results = getResults(session);
+		return results == null ? 0 : results.size();
+	}
+
+	List<?> getResults(ParseSession session) {
+		return session.getResult(mySlot, myPrimaryName, myType);
+	}
+}
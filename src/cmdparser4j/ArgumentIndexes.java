@@ -0,0 +1,55 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+/**
+ * The positions of the arguments found on the command line, in the order they appear.
+ * Only the first occurrence of each argument is recorded as a position, further occurrences
+ * are only counted so that duplicates can be reported.
+ */
+class ArgumentIndexes {
+	private final int[] myPositions;
+	private final Argument[] myArguments;
+	private final int[] myHitCount;
+	private int mySize = 0;
+
+	ArgumentIndexes(int argumentCount) {
+		myPositions = new int[argumentCount];
+		myArguments = new Argument[argumentCount];
+		myHitCount = new int[argumentCount];
+	}
+
+	/**
+	 * Registers a hit for the argument at the given position.
+	 *
+	 * @param position The position on the command line
+	 * @param argument The argument found at the position
+	 */
+	void hit(int position, Argument argument) {
+		if (myHitCount[argument.getIndex()]++ == 0) {
+			myPositions[mySize] = position;
+			myArguments[mySize] = argument;
+			++mySize;
+		}
+	}
+
+	int size() {
+		return mySize;
+	}
+
+	int getPosition(int i) {
+		return myPositions[i];
+	}
+
+	Argument getArgument(int i) {
+		return myArguments[i];
+	}
+
+	/**
+	 * Gets the number of times the argument at {@code i} was found on the command line.
+	 */
+	int getHitCount(int i) {
+		return myHitCount[myArguments[i].getIndex()];
+	}
+}
@@ -8,115 +8,105 @@ import cmdparser4j.limits.NumericLimit;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Base for the parameter types. A type only holds its definition; parsed values are
+ * handed to the {@code ParseSession} so that the same type can be used by concurrent parses.
+ */
 abstract class BaseType<T, RangeType> {
 	private final int myMinParameterCount;
 	private final int myMaxParameterCount;
-	private final IParseResult myResult;
-	protected final Argument myArgument;
-	protected final CmdParser4J myParser;
-	protected final ArrayList<T> myResults = new ArrayList<T>();
-	protected NumericLimit<RangeType> myLimit;
-
-	public BaseType(CmdParser4J parser, Argument argument, int minParameterCount, int maxParameterCount, NumericLimit<RangeType> limit) {
-		myParser = parser;
-		myResult = parser.getMessageParser();
-		myArgument = argument;
+	protected final NumericLimit<RangeType> myLimit;
+
+	public BaseType(int minParameterCount, int maxParameterCount, NumericLimit<RangeType> limit) {
 		myMinParameterCount = minParameterCount;
 		myMaxParameterCount = maxParameterCount;
 		myLimit = limit;
 	}
 
-	public int getAvailableParameterCount() {
-		return myResults.size();
-	}
+	/**
+	 * Parses the parameters following the argument at {@code argumentIx}, up to {@code end}.
+	 *
+	 * @return The position after the last parameter taken, or -1 if the parse failed.
+	 */
+	final int parse(ParseSession session, Argument argument, List<? extends CharSequence> args, int argumentIx, int end) {
+		IParseResult messageParser = session.getMessageParser();
+		List<T> results = createResults();
 
-	final boolean parse(List<String> args, int argumentIx) {
-		// Save and remove the argument name
-		String argumentName = args.remove(argumentIx);
+		CharSequence argumentName = args.get(argumentIx);
+		int parameterIx = argumentIx + 1;
 
 		// Enough parameters left?
-		boolean res = hasEnoughParametersLeft(args);
+		boolean res = hasEnoughParametersLeft(end - parameterIx);
 
 		if (res) {
 			// We only do this loop if the current type takes at least one parameter
 			for (int currentParameter = 0;
 			     res && currentParameter < myMaxParameterCount // Don't take to many parameters
-					     && args.size() > 0 // Still some left in data
-					     && argumentIx < args.size() // Not yet reached end of data
+					     && parameterIx < end // Not yet reached end of data
 					;
                  ++currentParameter
 					) {
 				// Get the next parameter from the 'front', i.e. where our parameters start.
-				String parameter = args.remove(argumentIx);
-				res = doTypeParse(parameter);
+				res = doTypeParse(argument.getPrimaryName(), args.get(parameterIx++), results, messageParser);
 			}
 		} else {
-			myResult.notEnoughParameters(argumentName, myMinParameterCount);
+			messageParser.notEnoughParameters(argumentName.toString(), myMinParameterCount);
 		}
 
-		res = res && checkLimits()
-				&& isSuccessFullyParsed();
+		res = res && checkLimits(argument.getPrimaryName(), results, messageParser)
+				&& isSuccessFullyParsed(results.size());
 
 		if (res) {
-			retrieveResult(myParser);
+			session.setResult(argument, results);
 		} else {
-			myResult.failedToParseArgument(argumentName);
+			messageParser.failedToParseArgument(argumentName.toString());
 		}
 
-		return res;
+		return res ? parameterIx : -1;
+	}
+
+	/**
+	 * Creates the list that receives the parsed values.
+	 */
+	protected List<T> createResults() {
+		return new ArrayList<T>();
 	}
 
 	/**
 	 * Performs a range check on the parsed parameters
 	 * @return true if limits are ok, false if not.
 	 */
-	protected abstract boolean checkLimits();
+	protected abstract boolean checkLimits(String primaryName, List<T> results, IParseResult messageParser);
 
 
 	/**
 	 * Indicates if the parser is satisfied with the parse.
 	 *
+	 * @param parameterCount The number of parsed parameters
 	 * @return true if ok, otherwise false.
 	 */
-	boolean isSuccessFullyParsed() {
-		return getAvailableParameterCount() >= myMinParameterCount && getAvailableParameterCount() <= myMaxParameterCount;
+	boolean isSuccessFullyParsed(int parameterCount) {
+		return parameterCount >= myMinParameterCount && parameterCount <= myMaxParameterCount;
 	}
 
 	/**
 	 * Performs type-specific parsing.
 	 *
+	 * @param primaryName The primary name of the argument being parsed
 	 * @param parameter The parameter value to parse
+	 * @param results   Receiver of the parsed value
+	 * @param messageParser The object to report problems to
 	 * @return true if ok, otherwise false.
 	 */
-	protected abstract boolean doTypeParse(String parameter);
+	protected abstract boolean doTypeParse(String primaryName, CharSequence parameter, List<T> results, IParseResult messageParser);
 
 	/**
 	 * Determines if there are enough parameters to parse
 	 */
-	private boolean hasEnoughParametersLeft(List<String> args) {
-		return args.size() >= myMinParameterCount;
+	private boolean hasEnoughParametersLeft(int parameterCount) {
+		return parameterCount >= myMinParameterCount;
 	}
 
-	/**
-	 *
-	 */
-	T getResult(int index, T defaultValue) {
-		T res = defaultValue;
-
-		if (index >= 0 && index < myResults.size()) {
-			res = myResults.get(index);
-		}
-
-		return res;
-	}
-
-	/**
-	 * Retrieves the result from the type parser and sets it in the command parser.
-	 *
-	 * @param cmdParser The command parser
-	 */
-	abstract void retrieveResult(CmdParser4J cmdParser);
-
 	int getMaxParameterCount() {
 		return myMaxParameterCount;
 	}
@@ -0,0 +1,63 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import java.util.List;
+
+/**
+ * A handle to a boolean argument, see {@code ArgumentHandle}.
+ */
+public final class BoolArg extends ArgumentHandle {
+	BoolArg(Argument argument) {
+		super(argument, BooleanType.class);
+	}
+
+	/**
+	 * Gets the first parameter of the argument.
+	 *
+	 * @param session The parse to read from
+	 * @return The parameter value, or false if not found
+	 */
+	public boolean get(ParseSession session) {
+		return get(session, 0, false);
+	}
+
+	/**
+	 * Gets the parameter at {@code index}.
+	 *
+	 * @param session      The parse to read from
+	 * @param index        The index
+	 * @param defaultValue The default value
+	 * @return The parameter value, or {@code defaultValue} if not found
+	 */
+	@SuppressWarnings("unchecked")
+	public boolean get(ParseSession session, int index, boolean defaultValue) {
+		boolean res = defaultValue;
+		List<Boolean> results = (List<Boolean>) getResults(session);
+
+		if (results != null && index >= 0 && index < results.size()) {
+			res = results.get(index);
+		}
+
+		return res;
+	}
+
+	/**
+	 * Gets all the parameters of the argument.
+	 *
+	 * @param session The parse to read from
+	 * @return A copy of the parameters, empty if there are none
+	 */
+	@SuppressWarnings("unchecked")
+	public boolean[] getAll(ParseSession session) {
+		List<Boolean> results = (List<Boolean>) getResults(session);
+		boolean[] res = new boolean[results == null ? 0 : results.size()];
+
+		for (int i = 0; i < res.length; ++i) {
+			res[i] = results.get(i);
+		}
+
+		return res;
+	}
+}
@@ -5,6 +5,8 @@ package cmdparser4j;
 
 import cmdparser4j.limits.NumericLimit;
 
+import java.util.List;
+
 /**
  * Parameter type boolean
  * Created by Per Malmberg on 2015-12-05.
@@ -15,33 +17,40 @@ public class BooleanType extends BaseType<Boolean, Boolean> {
 	private static final String TRUE = "true";
 	private static final String FALSE = "false";
 
-	public BooleanType(CmdParser4J parser, Argument argument, int minParameterCount, int maxParameterCount ) {
-		super(parser, argument, minParameterCount, maxParameterCount, new NumericLimit<Boolean>(false, true));
+	public BooleanType(int minParameterCount, int maxParameterCount ) {
+		super(minParameterCount, maxParameterCount, new NumericLimit<Boolean>(false, true));
 	}
 
 	@Override
-	protected boolean doTypeParse(String parameter) {
-		int count = myResults.size();
+	protected boolean doTypeParse(String primaryName, CharSequence parameter, List<Boolean> results, IParseResult messageParser) {
+		int count = results.size();
 
 		if (parameter != null) {
-			String p = parameter.toLowerCase();
-			if (p.equals(ZERO) || p.equals(ONE)) {
-				myResults.add("1".equals(p));
-			} else if (p.equals(TRUE) || p.equals(FALSE)) {
-				myResults.add(p.equals(TRUE));
+			if (equalsIgnoreCase(parameter, ZERO) || equalsIgnoreCase(parameter, ONE)) {
+				results.add(equalsIgnoreCase(parameter, ONE));
+			} else if (equalsIgnoreCase(parameter, TRUE) || equalsIgnoreCase(parameter, FALSE)) {
+				results.add(equalsIgnoreCase(parameter, TRUE));
 			}
 		}
 
-		return count < myResults.size();
+		return count < results.size();
 	}
 
-	@Override
-	void retrieveResult(CmdParser4J cmdParser) {
-		cmdParser.setResult(myArgument.getPrimaryName(), this);
+	/**
+	 * Compares the parameter to one of the lower case constants, without creating a lower case copy of it.
+	 */
+	private static boolean equalsIgnoreCase(CharSequence parameter, String lowerCase) {
+		boolean res = parameter.length() == lowerCase.length();
+
+		for (int i = 0; res && i < lowerCase.length(); ++i) {
+			res = Character.toLowerCase(parameter.charAt(i)) == lowerCase.charAt(i);
+		}
+
+		return res;
 	}
 
 	@Override
-	protected boolean checkLimits() {
+	protected boolean checkLimits(String primaryName, List<Boolean> results, IParseResult messageParser) {
 		// Boolean type can't be out of range
 		return true;
 	}
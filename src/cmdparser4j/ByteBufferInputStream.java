@@ -0,0 +1,52 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads the remaining bytes of a buffer, such as a memory-mapped file, without copying them first.
+ */
+class ByteBufferInputStream extends InputStream {
+	private final ByteBuffer myBuffer;
+
+	/**
+	 * @param buffer The buffer to read. Its position is moved as it is read.
+	 */
+	ByteBufferInputStream(ByteBuffer buffer) {
+		myBuffer = buffer;
+	}
+
+	@Override
+	public int read() {
+		return myBuffer.hasRemaining() ? myBuffer.get() & 0xFF : -1;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) {
+		int res = -1;
+
+		if (len == 0) {
+			res = 0;
+		} else if (myBuffer.hasRemaining()) {
+			res = Math.min(len, myBuffer.remaining());
+			myBuffer.get(b, off, res);
+		}
+
+		return res;
+	}
+
+	@Override
+	public long skip(long n) {
+		int res = (int) Math.max(0, Math.min(n, myBuffer.remaining()));
+		myBuffer.position(myBuffer.position() + res);
+		return res;
+	}
+
+	@Override
+	public int available() {
+		return myBuffer.remaining();
+	}
+}
@@ -0,0 +1,46 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+/**
+ * A read-only view of a range of characters in another {@code CharSequence}.
+ * No characters are copied until {@code toString()} is called.
+ */
+class CharSlice implements CharSequence {
+	private final CharSequence mySource;
+	private final int myStart;
+	private final int myEnd;
+
+	CharSlice(CharSequence source, int start, int end) {
+		mySource = source;
+		myStart = start;
+		myEnd = end;
+	}
+
+	@Override
+	public int length() {
+		return myEnd - myStart;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= length()) {
+			throw new IndexOutOfBoundsException(String.valueOf(index));
+		}
+		return mySource.charAt(myStart + index);
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		if (start < 0 || end > length() || start > end) {
+			throw new IndexOutOfBoundsException(start + " - " + end);
+		}
+		return new CharSlice(mySource, myStart + start, myStart + end);
+	}
+
+	@Override
+	public String toString() {
+		return mySource.subSequence(myStart, myEnd).toString();
+	}
+}
@@ -13,11 +13,12 @@ import java.util.*;
  * Created by Per Malmberg on 2015-12-05.
  */
 public class CmdParser4J {
-	private final HashMap<String, Argument> myArguments = new HashMap<String, Argument>();
+	// Kept in definition order, so that each argument keeps the same slot in every compiled specification
+	private final LinkedHashMap<String, Argument> myArguments = new LinkedHashMap<String, Argument>();
 	private final IParseResult myResult;
-	private String myConfigurationfileNameArgument = null;
-
-	private final ResultEnvelope myResults = new ResultEnvelope();
+	// The compiled form of the current definitions, built on demand.
+	private volatile ParserSpec mySpec = null;
+	private ParseSession mySession;
 
 	/**
 	 * Constructs a command line parser
@@ -26,6 +27,7 @@ public class CmdParser4J {
 	 */
 	public CmdParser4J(IParseResult message) {
 		myResult = message;
+		mySession = new ParseSession(compile(), message);
 	}
 
 	/**
@@ -35,9 +37,8 @@ public class CmdParser4J {
 	 * @return true on success, false on failure
 	 */
 	public boolean parse(String... args) {
-		ArrayList<String> a = new ArrayList<String>();
-		Collections.addAll(a, args);
-		return parse(a, null);
+		mySession = compile().parse(myResult, args);
+		return mySession.isSuccessFullyParsed();
 	}
 
 	/**
@@ -47,9 +48,8 @@ public class CmdParser4J {
 	 * @return true on success, false on failure
 	 */
 	public boolean parse(IConfigurationReader cfg, String... args) {
-		ArrayList<String> a = new ArrayList<String>();
-		Collections.addAll(a, args);
-		return parse(a, cfg);
+		mySession = compile().parse(myResult, cfg, args);
+		return mySession.isSuccessFullyParsed();
 	}
 
 	/**
@@ -60,248 +60,59 @@ public class CmdParser4J {
 	 * @return true on success, false on failure
 	 */
 	public boolean parse( String fileNameArgument, IConfigurationReader cfg, String... args) {
-		myConfigurationfileNameArgument = fileNameArgument;
-		ArrayList<String> a = new ArrayList<String>();
-		Collections.addAll(a, args);
-		return parse(a, cfg );
+		mySession = compile().parse(myResult, fileNameArgument, cfg, args);
+		return mySession.isSuccessFullyParsed();
 	}
 
 	/**
-	 * Parses the command line
+	 * Parses a complete command line, such as one typed into a console.
+	 * The line is split into arguments the way a shell would, honouring quotes and escapes.
 	 *
-	 * @param args The arguments
+	 * @param line The command line
 	 * @return true on success, false on failure
 	 */
-	private boolean parse(ArrayList<String> args, IConfigurationReader cfg ) {
-
-		removeEmptyArguments(args);
-
-		boolean result = checkArgumentTypes() && checkConstraints(args);
-
-		ArrayList<Map.Entry<Integer, Argument>> argumentIndexes = new ArrayList<Map.Entry<Integer, Argument>>();
-		GetIndexes(argumentIndexes, args);
-
-		if (argumentIndexes.size() == 0 && args.size() > 0) {
-			// Arguments provided on the command line, but no matches found.
-			myResult.unknownArguments(args.toString());
-			result = false;
-		} else if (argumentIndexes.size() > 0 && argumentIndexes.get(0).getKey() > 0) {
-			// Unknown arguments before first matching Argument.
-			List<String> unknown = args.subList(0, argumentIndexes.get(0).getKey());
-			myResult.unknownArguments(unknown.toString());
-			result = false;
-		} else {
-
-			// Now let each argument parse any parameter until the next argument.
-			// This ensures that an argument isn't considered as a parameter to another argument.
-			for (int i = 0; result && i < argumentIndexes.size(); ++i) {
-				Map.Entry<Integer, Argument> curr = argumentIndexes.get(i);
-
-				int argumentPos = curr.getKey();
-				int nextArgumentPos;
-
-				// Are there more arguments left? If so, stop at that one. Otherwise take parameters until end.
-				if (i == (argumentIndexes.size() - 1)) {
-					nextArgumentPos = args.size();
-				} else {
-					nextArgumentPos = argumentIndexes.get(i + 1).getKey();
-				}
-
-				// Get a copy of the argument and the parameters after the argument.
-				// Must use a new list because a subList returns a list that affects the original one, and since
-				// the Argument.parse() modifies it we can't allow that.
-				List<String> parameters = new ArrayList<String>(args.subList(argumentPos, nextArgumentPos));
-
-				// Let the argument parse its parameters
-				result = curr.getValue().parse(parameters);
-
-				if (result && parameters.size() > 0) {
-					// Leftovers from command line
-					myResult.unknownArguments(parameters.toString());
-					result = false;
-				}
-			}
-
-			// If a help argument is provided, then we don't check anything else
-			if( !helpCommandProvided() ) {
-				result = result
-						&& loadConfigFile(cfg)
-						&& fallbackToConfiguration(cfg)
-						&& checkMandatory()
-						&& checkDependencies()
-						&& checkMutualExclusion();
-			}
-		}
-
-		return result;
-	}
-
-	private boolean helpCommandProvided() {
-		boolean res = false;
-
-		for (Argument a : myArguments.values()) {
-			if (a.isHelpCommand() && a.isSuccessFullyParsed()) {
-				res = true;
-			}
-		}
-
-		return res;
-	}
-
-	private boolean loadConfigFile( IConfigurationReader cfg) {
-		boolean result = true;
-
-		if( myConfigurationfileNameArgument != null) {
-			String fileName = getString(myConfigurationfileNameArgument);
-			if( fileName != null ) {
-				result = cfg.loadFromFile( fileName );
-
-				if( !result ) {
-					myResult.failedToLoadConfiguration(myConfigurationfileNameArgument);
-				}
-			}
-		}
-
-		return result;
+	public boolean parseLine(CharSequence line) {
+		mySession = compile().parseLine(myResult, line);
+		return mySession.isSuccessFullyParsed();
 	}
 
 	/**
-	 * Checks that all arguments have their types set.
+	 * Parses a complete command line, with fallback to the provided configuration
 	 *
-	 * @return true if ok, otherwise false.
+	 * @param cfg  The configuration reader
+	 * @param line The command line
+	 * @return true on success, false on failure
 	 */
-	private boolean checkArgumentTypes() {
-		boolean res = true;
-
-		// Find any argument that has no type
-		for (Argument a : myArguments.values()) {
-			if (!a.hasArgumentType()) {
-				res = false;
-				myResult.argumentMissingType(a.getPrimaryName());
-			}
-		}
-
-		return res;
+	public boolean parseLine(IConfigurationReader cfg, CharSequence line) {
+		mySession = compile().parseLine(myResult, cfg, line);
+		return mySession.isSuccessFullyParsed();
 	}
 
 	/**
-	 * @param argumentIndexes Receiver of indexes
-	 * @param arguments       The arguments to find.
+	 * Compiles the current argument definitions into an immutable specification that can be
+	 * shared between threads. Each call to {@code ParserSpec.parse} produces its own {@code ParseSession}.
+	 * Definitions made after this call are not seen by the returned specification.
+	 * <p/>
+	 * Once all arguments are defined this method may be called from any thread; the parse methods of
+	 * this class however keep the result of the latest parse and must not be used concurrently.
+	 *
+	 * @return The compiled specification
 	 */
-	void GetIndexes(ArrayList<Map.Entry<Integer, Argument>> argumentIndexes, final ArrayList<String> arguments) {
-		Changeable<Integer> hit = new Changeable<Integer>(0);
-		for (Argument a : myArguments.values()) {
-			int ix = a.findArgument(arguments, hit);
-			if (ix != -1) {
-				argumentIndexes.add(new AbstractMap.SimpleEntry<Integer, Argument>(ix, a));
-			}
+	public ParserSpec compile() {
+		ParserSpec spec = mySpec;
+		if (spec == null) {
+			spec = new ParserSpec(myArguments.values());
+			mySpec = spec;
 		}
 
-		Collections.sort(argumentIndexes, new Comparator<Map.Entry<Integer, Argument>>() {
-			@Override
-			public int compare(Map.Entry<Integer, Argument> left, Map.Entry<Integer, Argument> right) {
-				return left.getKey().compareTo(right.getKey());
-			}
-		});
-	}
-
-
-	private boolean checkDependencies() {
-		boolean result = true;
-		for (Argument a : myArguments.values()) {
-			result &= a.checkDependencies(myArguments);
-		}
-
-		return result;
-	}
-
-	private boolean checkMutualExclusion() {
-		boolean result = true;
-		// We don't want to check blockers 'a' -> 'b', then 'b' -> 'a' as that will give the same error message twice
-
-		HashMap<String, Argument> testAgainst = new HashMap<String, Argument>();
-		List<String> alreadyTested = new ArrayList<String>();
-		testAgainst.putAll(myArguments);
-
-		for (Map.Entry<String,Argument> pair : myArguments.entrySet()) {
-			Argument arg = pair.getValue();
-			boolean blocksFound = !arg.checkMutualExclusion(testAgainst, alreadyTested);
-			if (blocksFound) {
-				// Remove argument to prevent double checks
-				alreadyTested.add(pair.getKey());
-				testAgainst.remove(pair.getKey());
-			}
-			result &= !blocksFound;
-		}
-
-		return result;
-	}
-
-	private boolean checkConstraints(ArrayList<String> args) {
-		boolean res = true;
-
-		// Find all arguments duplicates
-		for (Argument a : myArguments.values()) {
-			Changeable<Integer> hitCount = new Changeable<Integer>(0);
-			int ix = a.findArgument(args, hitCount);
-
-			if (ix >= 0) {
-				if (hitCount.get() > 1) {
-					// Same argument multiple times - that's bad
-					res = false;
-					myResult.argumentSpecifiedMultipleTimes(a.getPrimaryName());
-				}
-			}
-		}
-
-		return res;
-	}
-
-	/**
-	 * Checks that all mandatory arguments have been parsed
-	 *
-	 * @return true if ok, otherwise false.
-	 */
-	private boolean checkMandatory() {
-		boolean result = true;
-		for (Argument a : myArguments.values()) {
-			if (a.isMandatory() && !a.isSuccessFullyParsed()) {
-				myResult.missingMandatoryArgument(a.getPrimaryName());
-				result = false;
-			}
-		}
-		return result;
-	}
-
-	private boolean fallbackToConfiguration(IConfigurationReader cfgReader) {
-		boolean res = true;
-
-		// Only attempt to load the config if we don't have a specific config argument, or if it has been specified on the command line.
-		if( myConfigurationfileNameArgument == null || getString(myConfigurationfileNameArgument) != null ) {
-			// Let each argument that has not already been successfully parsed based on the
-			// command line attempt a fallback to the configuration
-			if (cfgReader != null) {
-				for (Argument a : myArguments.values()) {
-					if (!a.isSuccessFullyParsed()) {
-						res &= cfgReader.fillFromConfiguration(a);
-					}
-				}
-			}
-		}
-		return res;
+		return spec;
 	}
 
 	/**
-	 * Removes empty arguments
+	 * Called when an argument is defined or its definition changes.
 	 */
-	private void removeEmptyArguments(ArrayList<String> args) {
-		Iterator<String> curr = args.iterator();
-		while( curr.hasNext() ) {
-			String s = curr.next();
-			if( s.isEmpty() ) {
-				curr.remove();
-			}
-		}
+	void definitionsChanged() {
+		mySpec = null;
 	}
 
 	/**
@@ -312,23 +123,14 @@ public class CmdParser4J {
 	 * @return A {@code Constructor} object
 	 */
 	public TypeConstructor accept(String argumentName) {
-		Argument a = new Argument(argumentName, myResult);
+		// A redefined argument takes the place of the previous definition
+		Argument previous = myArguments.get(argumentName);
+		Argument a = new Argument(argumentName, previous == null ? myArguments.size() : previous.getIndex());
 		myArguments.put(a.getPrimaryName(), a);
+		definitionsChanged();
 		return new TypeConstructor(a, this);
 	}
 
-	void setResult(String primaryName, StringType result) {
-		myResults.add(primaryName, result);
-	}
-
-	void setResult(String primaryName, BooleanType result) {
-		myResults.add(primaryName, result);
-	}
-
-	void setResult(String primaryName, IntegerType result) {
-		myResults.add(primaryName, result);
-	}
-
 	/**
 	 * Gets the first parameter for the given {@code argumentName}
 	 *
@@ -336,7 +138,7 @@ public class CmdParser4J {
 	 * @return The parameter value, or false if not found
 	 */
 	public boolean getBool(String argumentName) {
-		return myResults.get(argumentName, 0, false);
+		return mySession.getBool(argumentName, 0, false);
 	}
 
 	/**
@@ -347,7 +149,7 @@ public class CmdParser4J {
 	 * @return The parameter value, or false if not found
 	 */
 	public boolean getBool(String argumentName, int index) {
-		return myResults.get(argumentName, index, false);
+		return mySession.getBool(argumentName, index, false);
 	}
 
 	/**
@@ -359,7 +161,7 @@ public class CmdParser4J {
 	 * @return The parameter value, or {@code defaultValue} if not found
 	 */
 	public boolean getBool(String argumentName, int index, boolean defaultValue) {
-		return myResults.get(argumentName, index, defaultValue);
+		return mySession.getBool(argumentName, index, defaultValue);
 	}
 
 	/**
@@ -369,7 +171,7 @@ public class CmdParser4J {
 	 * @return The parameter value, or null if not found
 	 */
 	public String getString(String argumentName) {
-		return myResults.get(argumentName, 0, null);
+		return mySession.getString(argumentName, 0, null);
 	}
 
 	/**
@@ -380,7 +182,7 @@ public class CmdParser4J {
 	 * @return The parameter value, or null if not found
 	 */
 	public String getString(String argumentName, int index) {
-		return myResults.get(argumentName, index, null);
+		return mySession.getString(argumentName, index, null);
 	}
 
 	/**
@@ -392,7 +194,7 @@ public class CmdParser4J {
 	 * @return The parameter value, or {@code defaultValue} if not found
 	 */
 	public String getString(String argumentName, int index, String defaultValue) {
-		return myResults.get(argumentName, index, defaultValue);
+		return mySession.getString(argumentName, index, defaultValue);
 	}
 
 	/**
@@ -402,7 +204,7 @@ public class CmdParser4J {
 	 * @return The parameter value, or 0 if not found
 	 */
 	public int getInteger(String argumentName) {
-		return myResults.get(argumentName, 0, 0);
+		return mySession.getInteger(argumentName, 0, 0);
 	}
 
 	/**
@@ -413,7 +215,7 @@ public class CmdParser4J {
 	 * @return The parameter value, or 0 if not found
 	 */
 	public int getInteger(String argumentName, int index) {
-		return myResults.get(argumentName, index, 0);
+		return mySession.getInteger(argumentName, index, 0);
 	}
 
 	/**
@@ -425,26 +227,153 @@ public class CmdParser4J {
 	 * @return The parameter value, or {@code defaultValue} if not found
 	 */
 	public int getInteger(String argumentName, int index, int defaultValue) {
-		return myResults.get(argumentName, index, defaultValue);
+		return mySession.getInteger(argumentName, index, defaultValue);
 	}
 
 	/**
 	 * Gets a string describing the usage, suitable for printing to the console.
 	 */
 	public void getUsage(IUsageFormatter usage) {
-		// Print mandatory
-		for (Argument a : myArguments.values()) {
-			if (a.isMandatory() && !a.isHidden()) {
-				usage.prepareMandatory(a.getPrimaryName(), a.hasVariableParameterCount(), a.getMaxArgumentCount(), a.getAliases(), a.getDependencyNames(), a.getDescription());
-			}
-		}
+		compile().getUsage(usage);
+	}
 
-		// Print non mandatory
-		for (Argument a : myArguments.values()) {
-			if (!a.isMandatory() && !a.isHidden()) {
-				usage.prepareNonMandatory(a.getPrimaryName(), a.hasVariableParameterCount(), a.getMaxArgumentCount(), a.getAliases(), a.getDependencyNames(), a.getDescription());
-			}
-		}
+	/**
+	 * Gets all the integer parameters for the given {@code argumentName}, without boxing them.
+	 *
+	 * @param argumentName The argument name
+	 * @return A copy of the parameters, empty if there are none
+	 */
+	public int[] getIntegers(String argumentName) {
+		return mySession.getIntegers(argumentName);
+	}
+
+	/**
+	 * Gets the first parameter for the given {@code argumentName}
+	 *
+	 * @param argumentName The argument name
+	 * @return The parameter value, or 0 if not found
+	 */
+	public long getLong(String argumentName) {
+		return mySession.getLong(argumentName, 0, 0L);
+	}
+
+	/**
+	 * Gets the parameter at {@code index} for the given {@code argumentName}
+	 *
+	 * @param argumentName The argument name
+	 * @param index        The index
+	 * @return The parameter value, or 0 if not found
+	 */
+	public long getLong(String argumentName, int index) {
+		return mySession.getLong(argumentName, index, 0L);
+	}
+
+	/**
+	 * Gets the parameter at {@code index} for the given {@code argumentName}
+	 *
+	 * @param argumentName The argument name
+	 * @param index        The index
+	 * @param defaultValue The default value
+	 * @return The parameter value, or {@code defaultValue} if not found
+	 */
+	public long getLong(String argumentName, int index, long defaultValue) {
+		return mySession.getLong(argumentName, index, defaultValue);
+	}
+
+	/**
+	 * Gets all the long parameters for the given {@code argumentName}, without boxing them.
+	 *
+	 * @param argumentName The argument name
+	 * @return A copy of the parameters, empty if there are none
+	 */
+	public long[] getLongs(String argumentName) {
+		return mySession.getLongs(argumentName);
+	}
+
+	/**
+	 * Gets the first parameter for the given {@code argumentName}
+	 *
+	 * @param argumentName The argument name
+	 * @return The parameter value, or 0 if not found
+	 */
+	public double getDouble(String argumentName) {
+		return mySession.getDouble(argumentName, 0, 0.0);
+	}
+
+	/**
+	 * Gets the parameter at {@code index} for the given {@code argumentName}
+	 *
+	 * @param argumentName The argument name
+	 * @param index        The index
+	 * @return The parameter value, or 0 if not found
+	 */
+	public double getDouble(String argumentName, int index) {
+		return mySession.getDouble(argumentName, index, 0.0);
+	}
+
+	/**
+	 * Gets the parameter at {@code index} for the given {@code argumentName}
+	 *
+	 * @param argumentName The argument name
+	 * @param index        The index
+	 * @param defaultValue The default value
+	 * @return The parameter value, or {@code defaultValue} if not found
+	 */
+	public double getDouble(String argumentName, int index, double defaultValue) {
+		return mySession.getDouble(argumentName, index, defaultValue);
+	}
+
+	/**
+	 * Gets all the double parameters for the given {@code argumentName}, without boxing them.
+	 *
+	 * @param argumentName The argument name
+	 * @return A copy of the parameters, empty if there are none
+	 */
+	public double[] getDoubles(String argumentName) {
+		return mySession.getDoubles(argumentName);
+	}
+
+	/**
+	 * Gets the first parameter for the given {@code argumentName}
+	 *
+	 * @param argumentName The argument name
+	 * @return The parameter value, or 0 if not found
+	 */
+	public float getFloat(String argumentName) {
+		return mySession.getFloat(argumentName, 0, 0.0f);
+	}
+
+	/**
+	 * Gets the parameter at {@code index} for the given {@code argumentName}
+	 *
+	 * @param argumentName The argument name
+	 * @param index        The index
+	 * @return The parameter value, or 0 if not found
+	 */
+	public float getFloat(String argumentName, int index) {
+		return mySession.getFloat(argumentName, index, 0.0f);
+	}
+
+	/**
+	 * Gets the parameter at {@code index} for the given {@code argumentName}
+	 *
+	 * @param argumentName The argument name
+	 * @param index        The index
+	 * @param defaultValue The default value
+	 * @return The parameter value, or {@code defaultValue} if not found
+	 */
+	public float getFloat(String argumentName, int index, float defaultValue) {
+		return mySession.getFloat(argumentName, index, defaultValue);
+	}
+
+	/**
+	 * Gets all the float parameters for the given {@code argumentName}, without boxing them.
+	 *
+	 * @param argumentName The argument name
+	 * @return A copy of the parameters, empty if there are none
+	 */
+	public float[] getFloats(String argumentName) {
+		return mySession.getFloats(argumentName);
 	}
 
 	/**
@@ -454,18 +383,37 @@ public class CmdParser4J {
 	 * @return The number of available parameters
 	 */
 	public int getAvailableStringParameterCount(String primaryArgumentName) {
-		return myResults.getAvailableStringParameterCount(primaryArgumentName);
+		return mySession.getAvailableStringParameterCount(primaryArgumentName);
 	}
 
 	public int getAvailableBooleanParameterCount(String primaryArgumentName) {
-		return myResults.getAvailableBooleanParameterCount(primaryArgumentName);
+		return mySession.getAvailableBooleanParameterCount(primaryArgumentName);
 	}
 
 	public int getAvailableIntegerParameterCount(String primaryArgumentName) {
-		return myResults.getAvailableIntegerParameterCount(primaryArgumentName);
+		return mySession.getAvailableIntegerParameterCount(primaryArgumentName);
+	}
+
+	public int getAvailableLongParameterCount(String primaryArgumentName) {
+		return mySession.getAvailableLongParameterCount(primaryArgumentName);
+	}
+
+	public int getAvailableDoubleParameterCount(String primaryArgumentName) {
+		return mySession.getAvailableDoubleParameterCount(primaryArgumentName);
+	}
+
+	public int getAvailableFloatParameterCount(String primaryArgumentName) {
+		return mySession.getAvailableFloatParameterCount(primaryArgumentName);
 	}
 
 	public IParseResult getMessageParser() {
 		return myResult;
 	}
+
+	/**
+	 * Gets the outcome of the latest parse, for use with argument handles such as {@code IntArg}.
+	 */
+	public ParseSession getSession() {
+		return mySession;
+	}
 }
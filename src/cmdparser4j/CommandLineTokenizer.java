@@ -0,0 +1,132 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a command line into tokens, the way a shell would:
+ * <ul>
+ * <li>Tokens are separated by whitespace.</li>
+ * <li>Text within double quotes is kept together; within them a backslash escapes a double quote or a backslash.</li>
+ * <li>Text within single quotes is kept together as is.</li>
+ * <li>Outside quotes, a backslash escapes the following character.</li>
+ * </ul>
+ * A missing closing quote ends the quoted text at the end of the line. Empty tokens are dropped,
+ * just like empty arguments are when parsing an array of arguments.
+ * <p/>
+ * Tokens that are a single unbroken range of the line are returned as slices of it; only tokens
+ * that need escapes or quotes removed from within them are copied.
+ */
+class CommandLineTokenizer {
+	private final CharSequence myLine;
+	private final List<CharSequence> myTokens = new ArrayList<CharSequence>();
+	// The range of the current token while it is still a single range of the line
+	private int myPieceStart = -1;
+	private int myPieceEnd = -1;
+	// Receives the current token when it can't be a slice
+	private StringBuilder myBuilder = null;
+
+	private CommandLineTokenizer(CharSequence line) {
+		myLine = line;
+	}
+
+	/**
+	 * Splits the line into tokens.
+	 *
+	 * @param line The command line
+	 * @return The tokens
+	 */
+	static List<CharSequence> tokenize(CharSequence line) {
+		CommandLineTokenizer t = new CommandLineTokenizer(line);
+		t.tokenize();
+		return t.myTokens;
+	}
+
+	private void tokenize() {
+		int length = myLine.length();
+		int i = 0;
+
+		while (i < length) {
+			// Skip separating whitespace
+			while (i < length && Character.isWhitespace(myLine.charAt(i))) {
+				++i;
+			}
+
+			while (i < length && !Character.isWhitespace(myLine.charAt(i))) {
+				char c = myLine.charAt(i);
+
+				if (c == '"' || c == '\'') {
+					i = readQuoted(i + 1, c);
+				} else if (c == '\\' && i + 1 < length) {
+					append(i + 1, i + 2);
+					i += 2;
+				} else {
+					append(i, i + 1);
+					++i;
+				}
+			}
+
+			endToken();
+		}
+	}
+
+	/**
+	 * Reads quoted text, starting just after the opening quote.
+	 *
+	 * @return The position after the closing quote
+	 */
+	private int readQuoted(int start, char quote) {
+		int length = myLine.length();
+		int i = start;
+
+		while (i < length && myLine.charAt(i) != quote) {
+			if (quote == '"' && myLine.charAt(i) == '\\' && i + 1 < length
+					&& (myLine.charAt(i + 1) == '"' || myLine.charAt(i + 1) == '\\')) {
+				append(i + 1, i + 2);
+				i += 2;
+			} else {
+				append(i, i + 1);
+				++i;
+			}
+		}
+
+		// Step past the closing quote, if there is one.
+		return i < length ? i + 1 : i;
+	}
+
+	/**
+	 * Adds the characters in the range to the current token.
+	 */
+	private void append(int start, int end) {
+		if (myBuilder != null) {
+			myBuilder.append(myLine, start, end);
+		} else if (myPieceStart == -1) {
+			myPieceStart = start;
+			myPieceEnd = end;
+		} else if (myPieceEnd == start) {
+			myPieceEnd = end;
+		} else {
+			// Not a single range any more, so the token has to be copied.
+			myBuilder = new StringBuilder();
+			myBuilder.append(myLine, myPieceStart, myPieceEnd);
+			myBuilder.append(myLine, start, end);
+		}
+	}
+
+	private void endToken() {
+		if (myBuilder != null) {
+			if (myBuilder.length() > 0) {
+				myTokens.add(myBuilder.toString());
+			}
+		} else if (myPieceEnd > myPieceStart) {
+			myTokens.add(new CharSlice(myLine, myPieceStart, myPieceEnd));
+		}
+
+		myBuilder = null;
+		myPieceStart = -1;
+		myPieceEnd = -1;
+	}
+}
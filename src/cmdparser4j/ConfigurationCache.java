@@ -0,0 +1,143 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cache of loaded configuration files, so that readers loading the same file share the data
+ * and everything parsed from it. Entries are keyed by canonical path and are only used while the size
+ * and modification time of the file are unchanged, so a repeated load of an unchanged file costs a file stat.
+ * When full, the least recently used entry is evicted.
+ * <p/>
+ * The cache is thread safe.
+ */
+public final class ConfigurationCache {
+	public static final int DEFAULT_MAX_ENTRIES = 16;
+
+	private static final ConfigurationCache ourShared = new ConfigurationCache(DEFAULT_MAX_ENTRIES);
+
+	private static class CachedFile {
+		private final long mySize;
+		private final long myLastModified;
+		private final XMLConfigurationData myData;
+
+		CachedFile(long size, long lastModified, XMLConfigurationData data) {
+			mySize = size;
+			myLastModified = lastModified;
+			myData = data;
+		}
+	}
+
+	// Guarded by this
+	private final LinkedHashMap<String, CachedFile> myEntries;
+	private long myHits = 0;
+	private long myMisses = 0;
+
+	/**
+	 * @param maxEntries The maximum number of files to keep
+	 */
+	public ConfigurationCache(final int maxEntries) {
+		// Access ordered, so that the eldest entry is the least recently used one
+		myEntries = new LinkedHashMap<String, CachedFile>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedFile> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * Gets the cache shared by all readers that aren't given a cache of their own.
+	 */
+	public static ConfigurationCache getShared() {
+		return ourShared;
+	}
+
+	/**
+	 * Gets the data of the file, loading it if it isn't cached or has changed since it was cached.
+	 *
+	 * @return The data, or null if the file is empty.
+	 */
+	XMLConfigurationData get(File file) throws IOException {
+		String path = file.getCanonicalPath();
+		long size = file.length();
+		long lastModified = file.lastModified();
+
+		synchronized (this) {
+			CachedFile e = myEntries.get(path);
+			if (e != null && e.mySize == size && e.myLastModified == lastModified) {
+				++myHits;
+				return e.myData;
+			}
+			++myMisses;
+		}
+
+		// Load outside the lock so that other files can be looked up meanwhile.
+		XMLConfigurationData data = XMLConfigurationData.load(file);
+
+		if (data != null) {
+			synchronized (this) {
+				// Key on the size that was actually read, in case the file changed since the stat.
+				myEntries.put(path, new CachedFile(data.size(), lastModified, data));
+			}
+		}
+
+		return data;
+	}
+
+	/**
+	 * Gets the number of loads that were served from the cache.
+	 */
+	public synchronized long getHits() {
+		return myHits;
+	}
+
+	/**
+	 * Gets the number of loads that had to read the file.
+	 */
+	public synchronized long getMisses() {
+		return myMisses;
+	}
+
+	/**
+	 * Gets the number of cached files.
+	 */
+	public synchronized int size() {
+		return myEntries.size();
+	}
+
+	/**
+	 * Removes the file from the cache, so that the next load reads it. Needed when the file may have changed
+	 * without a change in size or modification time.
+	 *
+	 * @param file The file
+	 */
+	public void invalidate(File file) {
+		String path;
+
+		try {
+			path = file.getCanonicalPath();
+		} catch (IOException e) {
+			// Can't have been cached under a canonical path either
+			path = null;
+		}
+
+		if (path != null) {
+			synchronized (this) {
+				myEntries.remove(path);
+			}
+		}
+	}
+
+	/**
+	 * Removes all cached files. The counters are kept.
+	 */
+	public synchronized void clear() {
+		myEntries.clear();
+	}
+}
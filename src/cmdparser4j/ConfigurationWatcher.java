@@ -0,0 +1,314 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps a parse up to date with the configuration file named on the command line, for long-running processes.
+ * <p/>
+ * The watcher makes the initial parse, then checks the configuration file for changes in size or modification time,
+ * either on a background thread or when {@code checkNow()} is called. As file systems may only keep the modification
+ * time in whole seconds, the content is also compared while the file was modified too recently for the time to tell.
+ * When the file has changed, it is loaded again and the arguments that were not given on the command line are filled
+ * from it. With a reader that is an {@code IValueSource}, only the arguments whose raw values changed are filled again.
+ * If the new result is valid and any value has changed, it replaces the current session as a whole, so readers of
+ * {@code getSession()} never block and never see a partly updated result. An invalid configuration is reported
+ * and the current session is kept.
+ * <p/>
+ * A {@code SystemOutputParseResult} given to the watcher is cleared before each reload, so that it holds the
+ * messages of the latest reload only.
+ */
+public class ConfigurationWatcher {
+
+	/**
+	 * Receives the new session when the configuration has changed.
+	 */
+	public interface IListener {
+		/**
+		 * @param session          The new session
+		 * @param changedArguments The primary names of the arguments whose values changed
+		 */
+		void configurationChanged(ParseSession session, List<String> changedArguments);
+	}
+
+	// The coarsest resolution of modification times among common file systems (FAT), in milliseconds
+	private static final long MODIFIED_TIME_RESOLUTION = 2000;
+
+	private final ParserSpec mySpec;
+	private final IConfigurationReader myReader;
+	private final String myFileNameArgument;
+	private final String[] myArgs;
+	private final IParseResult myResult;
+	private volatile ParseSession mySession;
+	private volatile IListener myListener = null;
+	// Guarded by this
+	private File myFile = null;
+	private long mySize;
+	private long myLastModified;
+	// The checksum of the content, only kept while a change may not show in the modification time
+	private Long myChecksum = null;
+	// The raw configuration values of the current session, by primary name, if the reader is an IValueSource
+	private HashMap<String, List<String>> myRawValues = null;
+	private Thread myThread = null;
+
+	/**
+	 * Makes the initial parse.
+	 *
+	 * @param spec             The specification to parse with
+	 * @param result           The object to receive parse messages, for the initial parse and every reload
+	 * @param fileNameArgument The argument that specifies the path to the configuration file
+	 * @param cfg              The configuration reader
+	 * @param args             The arguments
+	 */
+	public ConfigurationWatcher(ParserSpec spec, IParseResult result, String fileNameArgument, IConfigurationReader cfg, String... args) {
+		mySpec = spec;
+		myResult = result;
+		myFileNameArgument = fileNameArgument;
+		myReader = cfg;
+		myArgs = args.clone();
+
+		ParseSession session = spec.parse(result, fileNameArgument, cfg, myArgs);
+		String fileName = session.getString(fileNameArgument);
+		if (fileName != null) {
+			myFile = new File(fileName);
+			// The state after the initial load
+			record(myFile.length(), myFile.lastModified());
+			myRawValues = getRawValues(session);
+		}
+		mySession = session;
+	}
+
+	/**
+	 * Gets the current session. The returned session never changes; a later call returns the new one.
+	 */
+	public ParseSession getSession() {
+		return mySession;
+	}
+
+	public void setListener(IListener listener) {
+		myListener = listener;
+	}
+
+	/**
+	 * Checks the configuration file for changes, and reloads it if it has changed.
+	 *
+	 * @return true if a new session was published.
+	 */
+	public synchronized boolean checkNow() {
+		boolean res = false;
+
+		if (myFile != null) {
+			long size = myFile.length();
+			long lastModified = myFile.lastModified();
+			boolean changed = size != mySize || lastModified != myLastModified;
+
+			if (!changed && myChecksum != null) {
+				// Modified within the resolution of the time when last checked, so compare the content
+				Long checksum = checksum();
+				changed = checksum == null || !checksum.equals(myChecksum);
+			}
+
+			if (changed) {
+				record(size, lastModified);
+				res = reload();
+			} else if (myChecksum != null && !isRecent(lastModified)) {
+				// Any later change will show in the modification time
+				myChecksum = null;
+			}
+		}
+
+		return res;
+	}
+
+	private boolean reload() {
+		boolean res = false;
+		ParseSession previous = mySession;
+		ParseSession session;
+
+		if (myResult instanceof SystemOutputParseResult) {
+			((SystemOutputParseResult) myResult).clear();
+		}
+
+		// The cache only knows the size and time of the file, which may not have changed
+		ConfigurationCache.getShared().invalidate(myFile);
+		if (myReader instanceof XMLConfigurationReader && ((XMLConfigurationReader) myReader).getCache() != null) {
+			((XMLConfigurationReader) myReader).getCache().invalidate(myFile);
+		}
+
+		if (!myReader.loadFromFile(myFile.getPath())) {
+			myResult.failedToLoadConfiguration(myFileNameArgument);
+			session = null;
+		} else if (previous.isSuccessFullyParsed()) {
+			session = mySpec.refill(myResult, previous, myReader, getUnchanged(previous));
+		} else {
+			// Nothing to build on, so make a full parse
+			session = mySpec.parse(myResult, myFileNameArgument, myReader, myArgs);
+		}
+
+		if (session != null && session.isSuccessFullyParsed()) {
+			List<String> changed = new ArrayList<String>();
+
+			for (Argument a : mySpec.getArguments().values()) {
+				List<?> before = previous.getResult(a);
+				List<?> after = session.getResult(a);
+				if (before == null ? after != null : !before.equals(after)) {
+					changed.add(a.getPrimaryName());
+				}
+			}
+
+			if (!changed.isEmpty() || !previous.isSuccessFullyParsed()) {
+				myRawValues = getRawValues(session);
+				mySession = session;
+				res = true;
+
+				IListener listener = myListener;
+				if (listener != null) {
+					listener.configurationChanged(session, changed);
+				}
+			}
+		}
+
+		return res;
+	}
+
+	/**
+	 * Keeps the state of the file that was, or is about to be, loaded.
+	 */
+	private void record(long size, long lastModified) {
+		mySize = size;
+		myLastModified = lastModified;
+		myChecksum = isRecent(lastModified) ? checksum() : null;
+	}
+
+	private static boolean isRecent(long lastModified) {
+		return System.currentTimeMillis() - lastModified < MODIFIED_TIME_RESOLUTION;
+	}
+
+	/**
+	 * @return The checksum of the content of the file, or null if it can't be read.
+	 */
+	private Long checksum() {
+		Long res = null;
+
+		try {
+			InputStream in = new FileInputStream(myFile);
+			try {
+				CRC32 crc = new CRC32();
+				byte[] buffer = new byte[8192];
+				for (int count = in.read(buffer); count >= 0; count = in.read(buffer)) {
+					crc.update(buffer, 0, count);
+				}
+				res = crc.getValue();
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			res = null;
+		}
+
+		return res;
+	}
+
+	/**
+	 * Gets the raw configuration values of the arguments that were not given on the command line.
+	 *
+	 * @return The values by primary name, or null if the reader can't provide them.
+	 */
+	private HashMap<String, List<String>> getRawValues(ParseSession session) {
+		HashMap<String, List<String>> res = null;
+
+		if (myReader instanceof IValueSource) {
+			res = new HashMap<String, List<String>>();
+			for (Argument a : mySpec.getArgumentList()) {
+				if (!session.isFromCommandLine(a)) {
+					List<String> values = ((IValueSource) myReader).getValues(a.getPrimaryName());
+					res.put(a.getPrimaryName(), values == null || values.isEmpty() ? null : new ArrayList<String>(values));
+				}
+			}
+		}
+
+		return res;
+	}
+
+	/**
+	 * Compares the raw values of the reloaded configuration with those of the current session.
+	 *
+	 * @return By argument index, true if the raw values are the same, or null if not known.
+	 */
+	private boolean[] getUnchanged(ParseSession previous) {
+		boolean[] res = null;
+		HashMap<String, List<String>> before = myRawValues;
+		HashMap<String, List<String>> after = getRawValues(previous);
+
+		if (before != null && after != null) {
+			res = new boolean[mySpec.getArgumentList().length];
+			for (Argument a : mySpec.getArgumentList()) {
+				String name = a.getPrimaryName();
+				List<String> b = before.get(name);
+				List<String> c = after.get(name);
+				res[a.getIndex()] = before.containsKey(name) && (b == null ? c == null : b.equals(c));
+			}
+		}
+
+		return res;
+	}
+
+	/**
+	 * Starts checking the configuration file on a background daemon thread.
+	 *
+	 * @param intervalMillis The time between checks, in milliseconds
+	 */
+	public synchronized void start(final long intervalMillis) {
+		if (myThread == null) {
+			myThread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						while (!Thread.currentThread().isInterrupted()) {
+							Thread.sleep(intervalMillis);
+							try {
+								checkNow();
+							} catch (RuntimeException e) {
+								// Keep watching, the next change may be valid
+								myResult.exception(e);
+							}
+						}
+					} catch (InterruptedException ex) {
+						// Stopped
+					}
+				}
+			}, "ConfigurationWatcher");
+			myThread.setDaemon(true);
+			myThread.start();
+		}
+	}
+
+	/**
+	 * Stops the background thread, if started.
+	 */
+	public void stop() {
+		Thread t;
+		synchronized (this) {
+			t = myThread;
+			myThread = null;
+		}
+
+		if (t != null) {
+			t.interrupt();
+			try {
+				t.join();
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
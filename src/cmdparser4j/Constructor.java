@@ -5,10 +5,16 @@ package cmdparser4j;
 
 public class Constructor {
 	private final Argument myArg;
+	private final CmdParser4J myParser;
 	public static final int NO_PARAMETER_LIMIT = Integer.MAX_VALUE;
 
 	public Constructor(Argument argument) {
+		this(argument, null);
+	}
+
+	Constructor(Argument argument, CmdParser4J parser) {
 		myArg = argument;
+		myParser = parser;
 	}
 
 	/**
@@ -18,6 +24,7 @@ public class Constructor {
 	 */
 	public Constructor setMandatory() {
 		myArg.setMandatory();
+		changed();
 		return this;
 	}
 
@@ -29,6 +36,7 @@ public class Constructor {
 	 */
 	public Constructor withAlias(String... aliases) {
 		myArg.addAliases(aliases);
+		changed();
 		return this;
 	}
 
@@ -39,6 +47,7 @@ public class Constructor {
 	 */
 	public Constructor describedAs(String description) {
 		myArg.setDescription(description);
+		changed();
 		return this;
 	}
 
@@ -52,6 +61,7 @@ public class Constructor {
 	 */
 	public Constructor dependsOn(String dependencyPrimaryName) {
 		myArg.addDependency(dependencyPrimaryName);
+		changed();
 		return this;
 	}
 
@@ -62,6 +72,7 @@ public class Constructor {
 	 */
 	public Constructor blockedBy( String blockedByPrimaryName ) {
 		myArg.addBlockedBy( blockedByPrimaryName );
+		changed();
 		return this;
 	}
 
@@ -71,10 +82,96 @@ public class Constructor {
 	 */
 	public Constructor setHidden(){
 		myArg.setHidden();
+		changed();
 		return this;
 	}
 
 	public void setHelpCommand() {
 		myArg.setHelpCommand();
+		changed();
+	}
+
+	/**
+	 * Gets a handle for reading the integer parameters of the argument.
+	 *
+	 * @return The handle
+	 * @throws IllegalStateException if the argument is not of type integer
+	 */
+	public IntArg intArg() {
+		checkType(IntegerType.class);
+		return new IntArg(myArg);
+	}
+
+	/**
+	 * Gets a handle for reading the long parameters of the argument.
+	 *
+	 * @return The handle
+	 * @throws IllegalStateException if the argument is not of type long
+	 */
+	public LongArg longArg() {
+		checkType(LongType.class);
+		return new LongArg(myArg);
+	}
+
+	/**
+	 * Gets a handle for reading the double parameters of the argument.
+	 *
+	 * @return The handle
+	 * @throws IllegalStateException if the argument is not of type double
+	 */
+	public DoubleArg doubleArg() {
+		checkType(DoubleType.class);
+		return new DoubleArg(myArg);
+	}
+
+	/**
+	 * Gets a handle for reading the float parameters of the argument.
+	 *
+	 * @return The handle
+	 * @throws IllegalStateException if the argument is not of type float
+	 */
+	public FloatArg floatArg() {
+		checkType(FloatType.class);
+		return new FloatArg(myArg);
+	}
+
+	/**
+	 * Gets a handle for reading the string parameters of the argument.
+	 *
+	 * @return The handle
+	 * @throws IllegalStateException if the argument is not of type string
+	 */
+	public StringArg stringArg() {
+		checkType(StringType.class);
+		return new StringArg(myArg);
+	}
+
+	/**
+	 * Gets a handle for reading the boolean parameters of the argument.
+	 *
+	 * @return The handle
+	 * @throws IllegalStateException if the argument is not of type boolean or single boolean
+	 */
+	public BoolArg boolArg() {
+		checkType(BooleanType.class);
+		return new BoolArg(myArg);
+	}
+
+	/**
+	 * Handles must match the type of the argument, or they would never find any values.
+	 */
+	private void checkType(Class<? extends BaseType> type) {
+		if (!type.isInstance(myArg.getType())) {
+			throw new IllegalStateException("Argument '" + myArg.getPrimaryName() + "' is not of type " + type.getSimpleName());
+		}
+	}
+
+	/**
+	 * Lets the parser know that the definition has changed, so that it is compiled anew.
+	 */
+	private void changed() {
+		if (myParser != null) {
+			myParser.definitionsChanged();
+		}
 	}
 }
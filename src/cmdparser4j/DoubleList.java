@@ -0,0 +1,53 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+
+/**
+ * A growable list of primitive doubles. Values are added and read through {@code addDouble} and {@code getDouble}
+ * so that no {@code Double} objects are created; the {@code List} methods are there for the generic code paths.
+ */
+final class DoubleList extends AbstractList<Double> {
+	private double[] myValues = new double[4];
+	private int mySize = 0;
+
+	void addDouble(double value) {
+		if (mySize == myValues.length) {
+			myValues = Arrays.copyOf(myValues, mySize * 2);
+		}
+		myValues[mySize++] = value;
+	}
+
+	double getDouble(int index) {
+		if (index >= mySize) {
+			throw new IndexOutOfBoundsException(String.valueOf(index));
+		}
+		return myValues[index];
+	}
+
+	/**
+	 * Gets a copy of the values.
+	 */
+	double[] toDoubleArray() {
+		return Arrays.copyOf(myValues, mySize);
+	}
+
+	@Override
+	public boolean add(Double value) {
+		addDouble(value);
+		return true;
+	}
+
+	@Override
+	public Double get(int index) {
+		return getDouble(index);
+	}
+
+	@Override
+	public int size() {
+		return mySize;
+	}
+}
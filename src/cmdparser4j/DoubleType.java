@@ -0,0 +1,57 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import cmdparser4j.limits.NumericLimit;
+
+import java.util.List;
+
+/**
+ * Parameter type double
+ * The values are stored as primitive doubles and range checked while they are parsed.
+ */
+public class DoubleType extends BaseType<Double, Double> {
+	private final double myLower;
+	private final double myUpper;
+
+	/**
+	 * @param lower Min value, inclusive
+	 * @param upper Max value, inclusive
+	 */
+	public DoubleType(int minParameterCount, int maxParameterCount, double lower, double upper) {
+		super(minParameterCount, maxParameterCount, new NumericLimit<Double>(lower, upper));
+		myLower = lower;
+		myUpper = upper;
+	}
+
+	@Override
+	protected DoubleList createResults() {
+		return new DoubleList();
+	}
+
+	@Override
+	protected boolean doTypeParse(String primaryName, CharSequence parameter, List<Double> results, IParseResult messageParser) {
+		boolean res = parameter != null && NumberParser.isDecimal(parameter);
+
+		if (res) {
+			double value = Double.parseDouble(parameter.toString());
+			res = value >= myLower && value <= myUpper;
+
+			if (res) {
+				// The list is always the one from createResults()
+				((DoubleList) results).addDouble(value);
+			} else {
+				myLimit.reportLimitViolation(primaryName, messageParser);
+			}
+		}
+
+		return res;
+	}
+
+	@Override
+	protected boolean checkLimits(String primaryName, List<Double> results, IParseResult messageParser) {
+		// Already checked by doTypeParse()
+		return true;
+	}
+}
@@ -0,0 +1,162 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import java.util.*;
+
+/**
+ * Reads argument values from system properties and environment variables.
+ * <p/>
+ * The keys are derived from the primary names of the arguments and a prefix. With the prefix "MyApp",
+ * the argument "--listen-port" (or "--listenPort") is read from the system property "myapp.listen.port"
+ * or, if that is not set, from the environment variable "MYAPP_LISTEN_PORT".
+ * Arguments that take more than one parameter read them as a comma separated list.
+ * <p/>
+ * The keys and their values are looked up once, when the reader is created, so filling an argument is a single map lookup.
+ * The reader may be shared by concurrent parses.
+ */
+public class EnvironmentConfigurationReader implements IConfigurationReader, IValueSource {
+	// The values of each argument that has a value, by primary name
+	private final Map<String, List<String>> myValues;
+
+	/**
+	 * @param prefix The prefix of the keys, may be empty
+	 * @param spec   The specification whose arguments are read
+	 */
+	public EnvironmentConfigurationReader(String prefix, ParserSpec spec) {
+		this(prefix, spec, System.getenv(), System.getProperties());
+	}
+
+	EnvironmentConfigurationReader(String prefix, ParserSpec spec, Map<String, String> environment, Properties properties) {
+		HashMap<String, List<String>> values = new HashMap<String, List<String>>();
+
+		for (Argument a : spec.getArguments().values()) {
+			List<String> words = splitWords(a.getPrimaryName());
+			String value = properties.getProperty(getPropertyKey(prefix, words));
+
+			if (value == null) {
+				value = environment.get(getEnvironmentKey(prefix, words));
+			}
+
+			if (value != null) {
+				values.put(a.getPrimaryName(), split(value, a.hasArgumentType() && a.getMaxArgumentCount() > 1));
+			}
+		}
+
+		myValues = Collections.unmodifiableMap(values);
+	}
+
+	@Override
+	public boolean fillFromConfiguration(ParseSession session, Argument argument) {
+		boolean res = true;
+		List<String> values = myValues.get(argument.getPrimaryName());
+
+		if (values != null) {
+			List<String> data = new ArrayList<String>(values.size() + 1);
+			// The name of the argument must be the first item in array of items to parse
+			data.add(argument.getPrimaryName());
+			data.addAll(values);
+			res = argument.parse(session, data);
+		}
+
+		return res;
+	}
+
+	@Override
+	public List<String> getValues(String primaryArgumentName) {
+		List<String> res = myValues.get(primaryArgumentName);
+		return res == null ? null : Collections.unmodifiableList(res);
+	}
+
+	/**
+	 * There are no files to load, the values are read from the environment.
+	 *
+	 * @return false
+	 */
+	@Override
+	public boolean loadFromFile(String pathToFile) {
+		return false;
+	}
+
+	/**
+	 * Gets the environment variable read for an argument, e.g. "MYAPP_LISTEN_PORT" for "--listen-port".
+	 */
+	public static String getEnvironmentKey(String prefix, String primaryName) {
+		return getEnvironmentKey(prefix, splitWords(primaryName));
+	}
+
+	/**
+	 * Gets the system property read for an argument, e.g. "myapp.listen.port" for "--listen-port".
+	 */
+	public static String getPropertyKey(String prefix, String primaryName) {
+		return getPropertyKey(prefix, splitWords(primaryName));
+	}
+
+	private static String getEnvironmentKey(String prefix, List<String> words) {
+		return join(prefix, words, '_').toUpperCase(Locale.ENGLISH);
+	}
+
+	private static String getPropertyKey(String prefix, List<String> words) {
+		return join(prefix, words, '.').toLowerCase(Locale.ENGLISH);
+	}
+
+	private static String join(String prefix, List<String> words, char separator) {
+		StringBuilder sb = new StringBuilder(prefix);
+		for (String word : words) {
+			if (sb.length() > 0) {
+				sb.append(separator);
+			}
+			sb.append(word);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Splits a name into words at anything that isn't a letter or digit, and where a lower case letter
+	 * is followed by an upper case one, e.g. "--listenPort" becomes "listen", "Port".
+	 */
+	private static List<String> splitWords(String name) {
+		List<String> res = new ArrayList<String>();
+		StringBuilder word = new StringBuilder();
+
+		for (int i = 0; i < name.length(); ++i) {
+			char c = name.charAt(i);
+
+			if (!Character.isLetterOrDigit(c)
+					|| (Character.isUpperCase(c) && i > 0 && Character.isLowerCase(name.charAt(i - 1)))) {
+				if (word.length() > 0) {
+					res.add(word.toString());
+					word.setLength(0);
+				}
+			}
+
+			if (Character.isLetterOrDigit(c)) {
+				word.append(c);
+			}
+		}
+
+		if (word.length() > 0) {
+			res.add(word.toString());
+		}
+
+		return res;
+	}
+
+	private static List<String> split(String value, boolean multiple) {
+		List<String> res = new ArrayList<String>();
+
+		if (multiple) {
+			for (String s : value.split(",")) {
+				String trimmed = s.trim();
+				if (trimmed.length() > 0) {
+					res.add(trimmed);
+				}
+			}
+		} else {
+			res.add(value);
+		}
+
+		return res;
+	}
+}
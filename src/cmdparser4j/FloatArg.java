@@ -0,0 +1,53 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+/**
+ * A handle to a float argument, see {@code ArgumentHandle}.
+ */
+public final class FloatArg extends ArgumentHandle {
+	FloatArg(Argument argument) {
+		super(argument, FloatType.class);
+	}
+
+	/**
+	 * Gets the first parameter of the argument.
+	 *
+	 * @param session The parse to read from
+	 * @return The parameter value, or 0 if not found
+	 */
+	public float get(ParseSession session) {
+		return get(session, 0, 0);
+	}
+
+	/**
+	 * Gets the parameter at {@code index}.
+	 *
+	 * @param session      The parse to read from
+	 * @param index        The index
+	 * @param defaultValue The default value
+	 * @return The parameter value, or {@code defaultValue} if not found
+	 */
+	public float get(ParseSession session, int index, float defaultValue) {
+		float res = defaultValue;
+		FloatList results = (FloatList) getResults(session);
+
+		if (results != null && index >= 0 && index < results.size()) {
+			res = results.getFloat(index);
+		}
+
+		return res;
+	}
+
+	/**
+	 * Gets all the parameters of the argument.
+	 *
+	 * @param session The parse to read from
+	 * @return A copy of the parameters, empty if there are none
+	 */
+	public float[] getAll(ParseSession session) {
+		FloatList results = (FloatList) getResults(session);
+		return results == null ? new float[0] : results.toFloatArray();
+	}
+}
@@ -0,0 +1,53 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+
+/**
+ * A growable list of primitive floats. Values are added and read through {@code addFloat} and {@code getFloat}
+ * so that no {@code Float} objects are created; the {@code List} methods are there for the generic code paths.
+ */
+final class FloatList extends AbstractList<Float> {
+	private float[] myValues = new float[4];
+	private int mySize = 0;
+
+	void addFloat(float value) {
+		if (mySize == myValues.length) {
+			myValues = Arrays.copyOf(myValues, mySize * 2);
+		}
+		myValues[mySize++] = value;
+	}
+
+	float getFloat(int index) {
+		if (index >= mySize) {
+			throw new IndexOutOfBoundsException(String.valueOf(index));
+		}
+		return myValues[index];
+	}
+
+	/**
+	 * Gets a copy of the values.
+	 */
+	float[] toFloatArray() {
+		return Arrays.copyOf(myValues, mySize);
+	}
+
+	@Override
+	public boolean add(Float value) {
+		addFloat(value);
+		return true;
+	}
+
+	@Override
+	public Float get(int index) {
+		return getFloat(index);
+	}
+
+	@Override
+	public int size() {
+		return mySize;
+	}
+}
@@ -0,0 +1,57 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import cmdparser4j.limits.NumericLimit;
+
+import java.util.List;
+
+/**
+ * Parameter type float
+ * The values are stored as primitive floats and range checked while they are parsed.
+ */
+public class FloatType extends BaseType<Float, Float> {
+	private final float myLower;
+	private final float myUpper;
+
+	/**
+	 * @param lower Min value, inclusive
+	 * @param upper Max value, inclusive
+	 */
+	public FloatType(int minParameterCount, int maxParameterCount, float lower, float upper) {
+		super(minParameterCount, maxParameterCount, new NumericLimit<Float>(lower, upper));
+		myLower = lower;
+		myUpper = upper;
+	}
+
+	@Override
+	protected FloatList createResults() {
+		return new FloatList();
+	}
+
+	@Override
+	protected boolean doTypeParse(String primaryName, CharSequence parameter, List<Float> results, IParseResult messageParser) {
+		boolean res = parameter != null && NumberParser.isDecimal(parameter);
+
+		if (res) {
+			float value = Float.parseFloat(parameter.toString());
+			res = value >= myLower && value <= myUpper;
+
+			if (res) {
+				// The list is always the one from createResults()
+				((FloatList) results).addFloat(value);
+			} else {
+				myLimit.reportLimitViolation(primaryName, messageParser);
+			}
+		}
+
+		return res;
+	}
+
+	@Override
+	protected boolean checkLimits(String primaryName, List<Float> results, IParseResult messageParser) {
+		// Already checked by doTypeParse()
+		return true;
+	}
+}
@@ -4,7 +4,7 @@
 package cmdparser4j;
 
 public interface IConfigurationReader {
-	boolean fillFromConfiguration(Argument argument);
+	boolean fillFromConfiguration(ParseSession session, Argument argument);
 	boolean loadFromFile( String pathToFile );
 }
 
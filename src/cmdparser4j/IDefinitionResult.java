@@ -0,0 +1,18 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+/**
+ * Optionally implemented by an {@link IParseResult} to be told about definition errors that
+ * {@link IParseResult} has no callback for. Parse results that don't implement it are told about these
+ * errors through the closest callback of {@link IParseResult}.
+ */
+public interface IDefinitionResult {
+	/**
+	 * The argument can never be used, as it requires, directly or through its dependencies, two arguments that are mutually exclusive.
+	 * The two may include the argument itself. Without this interface, reported as
+	 * {@link IParseResult#argumentsAreMutuallyExclusive(String, String)} of the two.
+	 */
+	void unusableArgument(String primaryName, String first, String second);
+}
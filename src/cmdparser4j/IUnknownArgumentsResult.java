@@ -0,0 +1,19 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import java.util.List;
+
+/**
+ * Optionally implemented by an {@link IParseResult} to be given unknown arguments as tokens rather than as a
+ * formatted text, so that the text only has to be made if it is asked for. Parse results that don't implement it
+ * are given the text through {@link IParseResult#unknownArguments(String)}.
+ */
+public interface IUnknownArgumentsResult {
+	/**
+	 * The tokens {@code from} (inclusive) to {@code to} (exclusive) of the command line are not known.
+	 * The list and tokens may be reused by the caller after the call, so copy what needs to be kept.
+	 */
+	void unknownArguments(List<? extends CharSequence> args, int from, int to);
+}
@@ -0,0 +1,17 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+/**
+ * A usage formatter whose text can be cached by a {@code UsageCache}.
+ */
+public interface IUsageKey {
+	/**
+	 * Describes the settings that affect the usage text, such as the header and width.
+	 * Formatters of the same class with the same key must produce the same text from the same definitions.
+	 *
+	 * @return The key
+	 */
+	String getUsageKey();
+}
@@ -0,0 +1,19 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import java.io.IOException;
+
+/**
+ * A usage formatter that can write the usage text directly to a destination, such as {@code System.out},
+ * without building the whole text first.
+ */
+public interface IUsageWriter {
+	/**
+	 * Writes the usage text.
+	 *
+	 * @param out The destination
+	 */
+	void writeTo(Appendable out) throws IOException;
+}
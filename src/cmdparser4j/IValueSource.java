@@ -0,0 +1,20 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import java.util.List;
+
+/**
+ * Implemented by configuration readers that can provide the raw values of an argument without parsing them,
+ * which lets a {@code LayeredConfigurationReader} see if a reader has a value before using it.
+ */
+public interface IValueSource {
+	/**
+	 * Gets the raw values for the argument.
+	 *
+	 * @param primaryArgumentName The argument name
+	 * @return The values, or null or an empty list if there are none.
+	 */
+	List<String> getValues(String primaryArgumentName);
+}
@@ -0,0 +1,53 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+/**
+ * A handle to an integer argument, see {@code ArgumentHandle}.
+ */
+public final class IntArg extends ArgumentHandle {
+	IntArg(Argument argument) {
+		super(argument, IntegerType.class);
+	}
+
+	/**
+	 * Gets the first parameter of the argument.
+	 *
+	 * @param session The parse to read from
+	 * @return The parameter value, or 0 if not found
+	 */
+	public int get(ParseSession session) {
+		return get(session, 0, 0);
+	}
+
+	/**
+	 * Gets the parameter at {@code index}.
+	 *
+	 * @param session      The parse to read from
+	 * @param index        The index
+	 * @param defaultValue The default value
+	 * @return The parameter value, or {@code defaultValue} if not found
+	 */
+	public int get(ParseSession session, int index, int defaultValue) {
+		int res = defaultValue;
+		IntList results = (IntList) getResults(session);
+
+		if (results != null && index >= 0 && index < results.size()) {
+			res = results.getInt(index);
+		}
+
+		return res;
+	}
+
+	/**
+	 * Gets all the parameters of the argument.
+	 *
+	 * @param session The parse to read from
+	 * @return A copy of the parameters, empty if there are none
+	 */
+	public int[] getAll(ParseSession session) {
+		IntList results = (IntList) getResults(session);
+		return results == null ? new int[0] : results.toIntArray();
+	}
+}
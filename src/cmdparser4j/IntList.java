@@ -0,0 +1,58 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+
+/**
+ * A growable list of primitive ints. Values are added and read through {@code addInt} and {@code getInt}
+ * so that no {@code Integer} objects are created; the {@code List} methods are there for the generic code paths.
+ */
+final class IntList extends AbstractList<Integer> implements IntegralValues {
+	private int[] myValues = new int[4];
+	private int mySize = 0;
+
+	void addInt(int value) {
+		if (mySize == myValues.length) {
+			myValues = Arrays.copyOf(myValues, mySize * 2);
+		}
+		myValues[mySize++] = value;
+	}
+
+	@Override
+	public void addValue(long value) {
+		addInt((int) value);
+	}
+
+	int getInt(int index) {
+		if (index >= mySize) {
+			throw new IndexOutOfBoundsException(String.valueOf(index));
+		}
+		return myValues[index];
+	}
+
+	/**
+	 * Gets a copy of the values.
+	 */
+	int[] toIntArray() {
+		return Arrays.copyOf(myValues, mySize);
+	}
+
+	@Override
+	public boolean add(Integer value) {
+		addInt(value);
+		return true;
+	}
+
+	@Override
+	public Integer get(int index) {
+		return getInt(index);
+	}
+
+	@Override
+	public int size() {
+		return mySize;
+	}
+}
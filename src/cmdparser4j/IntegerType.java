@@ -5,52 +5,57 @@ package cmdparser4j;
 
 import cmdparser4j.limits.NumericLimit;
 
+import java.util.List;
+
 /**
- * Parameter type boolean
+ * Parameter type integer
+ * The values are stored as primitive ints and range checked while they are parsed.
  * Created by Per Malmberg on 2015-12-05.
  */
 public class IntegerType extends BaseType<Integer, Integer> {
+	private final int myFormat;
+	private final int myLower;
+	private final int myUpper;
 
-	public IntegerType(CmdParser4J parser, Argument argument, int minParameterCount, int maxParameterCount, NumericLimit<Integer> limit) {
-		super(parser, argument, minParameterCount, maxParameterCount, limit);
+	public IntegerType(int minParameterCount, int maxParameterCount, NumericLimit<Integer> limit) {
+		this(minParameterCount, maxParameterCount, limit, NumberFormat.DECIMAL);
 	}
 
-	@Override
-	protected boolean doTypeParse(String parameter) {
-		int count = myResults.size();
-
-		if (parameter != null) {
-			try {
-				Integer value = Integer.valueOf(parameter);
-				myResults.add(value);
-			}
-			catch (NumberFormatException ex)
-			{
-				// Parse failed.
-				myParser.getMessageParser().exception( ex );
-			}
-		}
-
-		return count < myResults.size();
+	/**
+	 * @param format The accepted formats, see {@code NumberFormat}
+	 */
+	public IntegerType(int minParameterCount, int maxParameterCount, NumericLimit<Integer> limit, int format) {
+		super(minParameterCount, maxParameterCount, limit);
+		myFormat = format;
+		myLower = limit.getLower();
+		myUpper = limit.getUpper();
 	}
 
 	@Override
-	void retrieveResult(CmdParser4J cmdParser) {
-		cmdParser.setResult(myArgument.getPrimaryName(), this);
+	protected IntList createResults() {
+		return new IntList();
 	}
 
 	@Override
-	protected boolean checkLimits() {
-		boolean res= true;
-
-		for( int i = 0; res && i < myResults.size(); ++i ) {
-			Integer v = myResults.get(i);
-			res = v >= myLimit.getLower() && v <= myLimit.getUpper();
-			if( !res ) {
-				myLimit.reportLimitViolation( myArgument.getPrimaryName(), myParser.getMessageParser());
+	protected boolean doTypeParse(String primaryName, CharSequence parameter, List<Integer> results, IParseResult messageParser) {
+		boolean res = false;
+
+		if (parameter != null) {
+			// The list is always the one from createResults()
+			int status = NumberParser.parse(parameter, myFormat, myLower, myUpper, (IntList) results);
+			res = status == NumberParser.OK;
+
+			if (status == NumberParser.OUTSIDE_LIMITS) {
+				myLimit.reportLimitViolation(primaryName, messageParser);
 			}
 		}
 
 		return res;
 	}
+
+	@Override
+	protected boolean checkLimits(String primaryName, List<Integer> results, IParseResult messageParser) {
+		// Already checked by doTypeParse()
+		return true;
+	}
 }
@@ -0,0 +1,14 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+/**
+ * Receiver of values from {@code NumberParser}.
+ */
+interface IntegralValues {
+	/**
+	 * Adds a value that is known to be within the range of the receiver.
+	 */
+	void addValue(long value);
+}
@@ -0,0 +1,162 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.util.*;
+
+/**
+ * Reads argument values from JSON data. Each argument is mapped to a JSON pointer, such as "/server/port".
+ * All values are read in a single pass over the data, without building an object tree.
+ * <p/>
+ * A pointer to a string, number or boolean gives that value. A pointer to an array gives each
+ * string, number or boolean in it, so that it can fill an argument taking several parameters.
+ * <p/>
+ * Once its pointers are set and its data is loaded, a reader may be shared by concurrent parses.
+ */
+public class JsonConfigurationReader implements IConfigurationReader, IValueSource {
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private final HashMap<String, String> myPointers = new HashMap<String, String>();
+	private final IParseResult myResult;
+	// The source of the data, guarded by this.
+	private String myJsonData = null;
+	private File myFile = null;
+	// The values of each argument with a pointer; null for malformed pointers.
+	// Replaced as a whole, null until the data has been read with the current pointers.
+	private volatile Map<String, List<String>> myValues = null;
+
+	public JsonConfigurationReader(IParseResult parseResult) {
+		myResult = parseResult;
+	}
+
+	public JsonConfigurationReader(String jsonData, IParseResult parseResult) {
+		myJsonData = jsonData;
+		myResult = parseResult;
+	}
+
+	/**
+	 * Maps an argument to the value(s) at a JSON pointer.
+	 *
+	 * @param primaryArgumentName The argument name
+	 * @param jsonPointer         The JSON pointer, as defined by RFC 6901
+	 */
+	public synchronized void setPointer(String primaryArgumentName, String jsonPointer) {
+		myPointers.put(primaryArgumentName, jsonPointer);
+		myValues = null;
+	}
+
+	@Override
+	public boolean fillFromConfiguration(ParseSession session, Argument argument) {
+		boolean res = true;
+
+		Map<String, List<String>> allValues = myValues;
+		if (allValues == null) {
+			allValues = readValues();
+		}
+
+		if (allValues == null) {
+			// Can't do anything if we have no data.
+			res = false;
+		} else if (allValues.containsKey(argument.getPrimaryName())) {
+			List<String> values = allValues.get(argument.getPrimaryName());
+
+			if (values == null) {
+				res = false;
+			} else {
+				List<String> data = new ArrayList<String>(values.size() + 1);
+				// The name of the argument must be the first item in array of items to parse
+				data.add(argument.getPrimaryName());
+				data.addAll(values);
+				res = argument.parse(session, data);
+			}
+		}
+
+		return res;
+	}
+
+	@Override
+	public List<String> getValues(String primaryArgumentName) {
+		Map<String, List<String>> allValues = myValues;
+		if (allValues == null) {
+			allValues = readValues();
+		}
+
+		List<String> res = allValues == null ? null : allValues.get(primaryArgumentName);
+		return res == null ? null : Collections.unmodifiableList(res);
+	}
+
+	@Override
+	public boolean loadFromFile(String pathToFile) {
+		boolean res = false;
+		File file = new File(pathToFile);
+
+		if (file.exists()) {
+			synchronized (this) {
+				myFile = file;
+				myJsonData = null;
+				myValues = null;
+				res = readValues() != null;
+			}
+		}
+
+		return res;
+	}
+
+	/**
+	 * Reads the values for all pointers in one pass over the data.
+	 *
+	 * @return The values, or null if there is no data or it could not be read.
+	 */
+	private synchronized Map<String, List<String>> readValues() {
+		Map<String, List<String>> res = myValues;
+
+		if (res == null && (myJsonData != null || myFile != null)) {
+			HashMap<String, List<String>> values = new HashMap<String, List<String>>();
+			JsonStreamReader.PathNode root = new JsonStreamReader.PathNode();
+
+			for (Map.Entry<String, String> entry : myPointers.entrySet()) {
+				List<String> output = new ArrayList<String>();
+				if (root.add(entry.getValue(), output)) {
+					values.put(entry.getKey(), output);
+				} else {
+					myResult.exception(new IllegalArgumentException("Invalid JSON pointer: " + entry.getValue()));
+					values.put(entry.getKey(), null);
+				}
+			}
+
+			Reader input = null;
+
+			try {
+				if (myFile != null) {
+					input = new InputStreamReader(new FileInputStream(myFile), UTF8);
+				} else {
+					input = new StringReader(myJsonData);
+				}
+
+				new JsonStreamReader(input).read(root);
+				res = Collections.unmodifiableMap(values);
+				myValues = res;
+			} catch (Exception ex) {
+				myResult.exception(ex);
+				res = null;
+			} finally {
+				if (input != null) {
+					try {
+						input.close();
+					} catch (Exception ex) {
+						myResult.exception(ex);
+					}
+				}
+			}
+		}
+
+		return res;
+	}
+}
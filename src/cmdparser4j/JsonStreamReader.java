@@ -0,0 +1,352 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Reads JSON text in a single pass, collecting the values at a set of JSON pointer paths without building an object tree.
+ * Scalars are collected as their text; strings without their quotes and escapes. A path selecting an array collects
+ * each scalar element of it. Nulls, and paths selecting objects, give no values.
+ */
+class JsonStreamReader {
+
+	/**
+	 * A step in the tree of reference tokens built from the paths.
+	 */
+	static class PathNode {
+		private final HashMap<String, PathNode> myChildren = new HashMap<String, PathNode>();
+		private final List<List<String>> myOutputs = new ArrayList<List<String>>();
+
+		/**
+		 * Adds a path to the tree.
+		 *
+		 * @param pointer The JSON pointer, as defined by RFC 6901, e.g. "/server/ports/0"
+		 * @param output  Receiver of the values at the path
+		 * @return false if the pointer is malformed
+		 */
+		boolean add(String pointer, List<String> output) {
+			boolean res = pointer.length() == 0 || pointer.charAt(0) == '/';
+
+			if (res) {
+				PathNode node = this;
+
+				if (pointer.length() > 0) {
+					for (String token : pointer.substring(1).split("/", -1)) {
+						String name = token.replace("~1", "/").replace("~0", "~");
+						PathNode child = node.myChildren.get(name);
+						if (child == null) {
+							child = new PathNode();
+							node.myChildren.put(name, child);
+						}
+						node = child;
+					}
+				}
+
+				node.myOutputs.add(output);
+			}
+
+			return res;
+		}
+
+		private PathNode get(String name) {
+			return myChildren.isEmpty() ? null : myChildren.get(name);
+		}
+	}
+
+	private final Reader myInput;
+	private final char[] myBuffer = new char[8192];
+	private int myPosition = 0;
+	private int myLength = 0;
+	private long myOffset = 0;
+	private final StringBuilder myText = new StringBuilder();
+
+	JsonStreamReader(Reader input) {
+		myInput = input;
+	}
+
+	/**
+	 * Reads the complete JSON text, adding the values found at the paths of the tree to their outputs.
+	 */
+	void read(PathNode root) throws IOException {
+		readValue(root, null);
+
+		if (skipWhitespace() != -1) {
+			throw error("Unexpected data after the end of the JSON text");
+		}
+	}
+
+	/**
+	 * @param node         The node for the value, or null if it isn't on any path
+	 * @param arrayOutputs The outputs of an enclosing array that is selected by a path, or null
+	 */
+	private void readValue(PathNode node, List<List<String>> arrayOutputs) throws IOException {
+		int c = skipWhitespace();
+		boolean collect = (node != null && !node.myOutputs.isEmpty()) || arrayOutputs != null;
+
+		switch (c) {
+			case '{':
+				readObject(node);
+				break;
+			case '[':
+				readArray(node);
+				break;
+			case '"':
+				readString(collect);
+				break;
+			case 't':
+				readLiteral("true");
+				break;
+			case 'f':
+				readLiteral("false");
+				break;
+			case 'n':
+				readLiteral("null");
+				collect = false;
+				break;
+			default:
+				if (c == '-' || (c >= '0' && c <= '9')) {
+					readNumber(c);
+				} else {
+					throw error(c == -1 ? "Unexpected end of the JSON text" : "Unexpected character '" + (char) c + "'");
+				}
+				break;
+		}
+
+		if (collect && c != '{' && c != '[') {
+			String value = myText.toString();
+			if (node != null) {
+				for (List<String> output : node.myOutputs) {
+					output.add(value);
+				}
+			}
+			if (arrayOutputs != null) {
+				for (List<String> output : arrayOutputs) {
+					output.add(value);
+				}
+			}
+		}
+	}
+
+	private void readObject(PathNode node) throws IOException {
+		int c = skipWhitespace();
+
+		if (c != '}') {
+			while (true) {
+				if (c != '"') {
+					throw error("Expected a member name");
+				}
+
+				boolean descend = node != null && !node.myChildren.isEmpty();
+				readString(descend);
+				PathNode child = descend ? node.get(myText.toString()) : null;
+
+				if (skipWhitespace() != ':') {
+					throw error("Expected ':'");
+				}
+
+				readValue(child, null);
+
+				c = skipWhitespace();
+				if (c == '}') {
+					break;
+				} else if (c != ',') {
+					throw error("Expected ',' or '}'");
+				}
+				c = skipWhitespace();
+			}
+		}
+	}
+
+	private void readArray(PathNode node) throws IOException {
+		List<List<String>> outputs = node == null || node.myOutputs.isEmpty() ? null : node.myOutputs;
+		int c = skipWhitespace();
+
+		if (c == -1) {
+			throw error("Unexpected end of the JSON text");
+		} else if (c != ']') {
+			pushBack();
+
+			for (int index = 0; true; ++index) {
+				PathNode child = node == null ? null : node.get(Integer.toString(index));
+				readValue(child, outputs);
+
+				c = skipWhitespace();
+				if (c == ']') {
+					break;
+				} else if (c != ',') {
+					throw error("Expected ',' or ']'");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads a string, the opening quote already consumed.
+	 *
+	 * @param keep If true, the content is placed in {@code myText}.
+	 */
+	private void readString(boolean keep) throws IOException {
+		myText.setLength(0);
+
+		for (int c = next(); c != '"'; c = next()) {
+			if (c == -1 || c < 0x20) {
+				throw error("Unterminated string");
+			} else if (c == '\\') {
+				c = next();
+				switch (c) {
+					case '"':
+					case '\\':
+					case '/':
+						break;
+					case 'b':
+						c = '\b';
+						break;
+					case 'f':
+						c = '\f';
+						break;
+					case 'n':
+						c = '\n';
+						break;
+					case 'r':
+						c = '\r';
+						break;
+					case 't':
+						c = '\t';
+						break;
+					case 'u':
+						c = 0;
+						for (int i = 0; i < 4; ++i) {
+							int digit = Character.digit(next(), 16);
+							if (digit < 0) {
+								throw error("Invalid unicode escape");
+							}
+							c = c * 16 + digit;
+						}
+						break;
+					default:
+						throw error("Invalid escape");
+				}
+			}
+
+			if (keep) {
+				myText.append((char) c);
+			}
+		}
+	}
+
+	private void readLiteral(String literal) throws IOException {
+		// The first character is already consumed
+		for (int i = 1; i < literal.length(); ++i) {
+			if (next() != literal.charAt(i)) {
+				throw error("Invalid literal, expected '" + literal + "'");
+			}
+		}
+
+		myText.setLength(0);
+		myText.append(literal);
+	}
+
+	private void readNumber(int first) throws IOException {
+		myText.setLength(0);
+		myText.append((char) first);
+
+		int c = next();
+		while (c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E' || (c >= '0' && c <= '9')) {
+			myText.append((char) c);
+			c = next();
+		}
+
+		if (c != -1) {
+			pushBack();
+		}
+
+		if (!isNumber(myText)) {
+			throw error("Invalid number '" + myText + "'");
+		}
+	}
+
+	/**
+	 * Checks the text against the number grammar of JSON, -?(0|[1-9][0-9]*)(\.[0-9]+)?([eE][+-]?[0-9]+)?
+	 * which is stricter than Java's, e.g. a leading '+' and "1." are not allowed.
+	 */
+	static boolean isNumber(CharSequence text) {
+		int length = text.length();
+		int i = 0;
+
+		if (i < length && text.charAt(i) == '-') {
+			++i;
+		}
+
+		// Integer part, without leading zeroes
+		boolean res = i < length && isDigit(text.charAt(i));
+		i = res && text.charAt(i) == '0' ? i + 1 : skipDigits(text, i);
+
+		if (res && i < length && text.charAt(i) == '.') {
+			int start = i + 1;
+			i = skipDigits(text, start);
+			res = i > start;
+		}
+
+		if (res && i < length && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+			++i;
+			if (i < length && (text.charAt(i) == '+' || text.charAt(i) == '-')) {
+				++i;
+			}
+			int start = i;
+			i = skipDigits(text, start);
+			res = i > start;
+		}
+
+		return res && i == length;
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private static int skipDigits(CharSequence text, int start) {
+		int i = start;
+		while (i < text.length() && isDigit(text.charAt(i))) {
+			++i;
+		}
+		return i;
+	}
+
+	private int skipWhitespace() throws IOException {
+		int c = next();
+		while (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+			c = next();
+		}
+		return c;
+	}
+
+	private int next() throws IOException {
+		if (myPosition == myLength) {
+			myOffset += myLength;
+			myPosition = 0;
+			myLength = Math.max(0, myInput.read(myBuffer));
+			if (myLength == 0) {
+				return -1;
+			}
+		}
+
+		return myBuffer[myPosition++];
+	}
+
+	/**
+	 * Steps back one character. Only valid directly after a call to {@code next()} that didn't return -1.
+	 */
+	private void pushBack() {
+		--myPosition;
+	}
+
+	private IOException error(String message) {
+		return new IOException(message + " at offset " + (myOffset + myPosition));
+	}
+}
@@ -0,0 +1,201 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Combines several configuration readers into a chain of priorities, e.g. environment, user file,
+ * system file and built-in defaults. Values on the command line always take precedence over all layers.
+ * <p/>
+ * The layers are queried in the order they were added and the first layer that has a value for an argument supplies it.
+ * A layer that fails to fill an argument doesn't stop the lower layers from being queried; the failure is only the
+ * outcome if no lower layer supplies the argument.
+ * Which layer supplied each argument, and the raw values it supplied, are remembered so that later parses go straight
+ * to the result without querying the layers again. They are remembered per specification, as the same name may stand
+ * for different arguments in different specifications, and forgotten when a layer is added, a file is loaded or
+ * {@code invalidate()} is called.
+ * <p/>
+ * Layers implementing {@code IValueSource} are asked for their values directly. Other layers are
+ * asked to fill the argument, and supply it if the argument is filled.
+ * <p/>
+ * Once its layers are added, a reader may be shared by concurrent parses.
+ */
+public class LayeredConfigurationReader implements IConfigurationReader {
+
+	private static class Layer {
+		private final String myName;
+		private final IConfigurationReader myReader;
+
+		Layer(String name, IConfigurationReader reader) {
+			myName = name;
+			myReader = reader;
+		}
+	}
+
+	/**
+	 * The outcome of querying the layers for an argument.
+	 */
+	private static class Resolved {
+		// The index of the supplying layer, or -1 if no layer has a value
+		private final int myLayer;
+		// The raw values supplied, or null if they are not available
+		private final List<String> myValues;
+		// A higher layer failed, so the layers are to be queried again by the next parse
+		private final boolean myIsRetried;
+
+		Resolved(int layer, List<String> values, boolean isRetried) {
+			myLayer = layer;
+			myValues = values;
+			myIsRetried = isRetried;
+		}
+	}
+
+	// Replaced as a whole when a layer is added
+	private volatile Layer[] myLayers = new Layer[0];
+	// Per specification, the outcome for each primary name. Weak, so that the reader doesn't keep discarded specifications.
+	private final Map<ParserSpec, ConcurrentHashMap<String, Resolved>> myResolved = new WeakHashMap<ParserSpec, ConcurrentHashMap<String, Resolved>>();
+	// The specification of the latest parse, see getSource(String)
+	private volatile ParserSpec myLatestSpec = null;
+
+	/**
+	 * Adds a layer, with lower priority than the layers already added.
+	 *
+	 * @param name   The name of the layer, as returned by {@code getSource()}
+	 * @param reader The reader of the layer
+	 * @return this
+	 */
+	public synchronized LayeredConfigurationReader addLayer(String name, IConfigurationReader reader) {
+		Layer[] layers = new Layer[myLayers.length + 1];
+		System.arraycopy(myLayers, 0, layers, 0, myLayers.length);
+		layers[myLayers.length] = new Layer(name, reader);
+		myLayers = layers;
+		invalidate();
+		return this;
+	}
+
+	/**
+	 * Forgets which layers supplied the arguments and their values.
+	 */
+	public void invalidate() {
+		synchronized (myResolved) {
+			myResolved.clear();
+		}
+	}
+
+	/**
+	 * Gets the remembered outcomes of the specification.
+	 */
+	private ConcurrentHashMap<String, Resolved> getResolved(ParserSpec spec) {
+		ConcurrentHashMap<String, Resolved> res;
+
+		synchronized (myResolved) {
+			res = myResolved.get(spec);
+			if (res == null) {
+				res = new ConcurrentHashMap<String, Resolved>();
+				myResolved.put(spec, res);
+			}
+		}
+
+		return res;
+	}
+
+	/**
+	 * Gets the name of the layer that supplied the argument the last time it was read from this reader,
+	 * by the specification of the latest parse.
+	 *
+	 * @param primaryArgumentName The argument name
+	 * @return The name of the layer, or null if no layer has supplied the argument.
+	 */
+	public String getSource(String primaryArgumentName) {
+		ParserSpec spec = myLatestSpec;
+		return spec == null ? null : getSource(spec, primaryArgumentName);
+	}
+
+	/**
+	 * Gets the name of the layer that supplied the argument the last time it was read from this reader by the specification.
+	 *
+	 * @param spec                The specification
+	 * @param primaryArgumentName The argument name
+	 * @return The name of the layer, or null if no layer has supplied the argument.
+	 */
+	public String getSource(ParserSpec spec, String primaryArgumentName) {
+		Resolved r = getResolved(spec).get(primaryArgumentName);
+		return r == null || r.myLayer < 0 ? null : myLayers[r.myLayer].myName;
+	}
+
+	@Override
+	public boolean fillFromConfiguration(ParseSession session, Argument argument) {
+		boolean res = true;
+		Layer[] layers = myLayers;
+		ParserSpec spec = session.getSpec();
+		myLatestSpec = spec;
+		ConcurrentHashMap<String, Resolved> resolvedArguments = getResolved(spec);
+
+		Resolved resolved = resolvedArguments.get(argument.getPrimaryName());
+
+		if (resolved == null || resolved.myIsRetried) {
+			resolved = null;
+			boolean failed = false;
+
+			for (int i = 0; resolved == null && i < layers.length; ++i) {
+				IConfigurationReader reader = layers[i].myReader;
+
+				if (reader instanceof IValueSource) {
+					List<String> values = ((IValueSource) reader).getValues(argument.getPrimaryName());
+					if (values != null && !values.isEmpty()) {
+						resolved = new Resolved(i, new ArrayList<String>(values), failed);
+					}
+				} else if (!reader.fillFromConfiguration(session, argument)) {
+					// Let the lower layers supply the argument instead
+					failed = true;
+				} else if (session.isSuccessFullyParsed(argument)) {
+					resolved = new Resolved(i, null, failed);
+				}
+			}
+
+			if (resolved == null) {
+				resolved = new Resolved(-1, null, failed);
+				res = !failed;
+			}
+
+			resolvedArguments.put(argument.getPrimaryName(), resolved);
+		} else if (resolved.myValues == null && resolved.myLayer >= 0) {
+			// Only the layer is known, let it fill the argument again
+			res = layers[resolved.myLayer].myReader.fillFromConfiguration(session, argument);
+		}
+
+		if (res && resolved.myValues != null) {
+			List<String> data = new ArrayList<String>(resolved.myValues.size() + 1);
+			// The name of the argument must be the first item in array of items to parse
+			data.add(argument.getPrimaryName());
+			data.addAll(resolved.myValues);
+			res = argument.parse(session, data);
+		}
+
+		return res;
+	}
+
+	/**
+	 * Loads the file into the first layer, in priority order, that can load it.
+	 *
+	 * @return true if a layer loaded the file
+	 */
+	@Override
+	public boolean loadFromFile(String pathToFile) {
+		boolean res = false;
+		Layer[] layers = myLayers;
+
+		for (int i = 0; !res && i < layers.length; ++i) {
+			res = layers[i].myReader.loadFromFile(pathToFile);
+		}
+
+		invalidate();
+		return res;
+	}
+}
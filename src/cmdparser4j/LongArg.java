@@ -0,0 +1,53 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+/**
+ * A handle to a long argument, see {@code ArgumentHandle}.
+ */
+public final class LongArg extends ArgumentHandle {
+	LongArg(Argument argument) {
+		super(argument, LongType.class);
+	}
+
+	/**
+	 * Gets the first parameter of the argument.
+	 *
+	 * @param session The parse to read from
+	 * @return The parameter value, or 0 if not found
+	 */
+	public long get(ParseSession session) {
+		return get(session, 0, 0);
+	}
+
+	/**
+	 * Gets the parameter at {@code index}.
+	 *
+	 * @param session      The parse to read from
+	 * @param index        The index
+	 * @param defaultValue The default value
+	 * @return The parameter value, or {@code defaultValue} if not found
+	 */
+	public long get(ParseSession session, int index, long defaultValue) {
+		long res = defaultValue;
+		LongList results = (LongList) getResults(session);
+
+		if (results != null && index >= 0 && index < results.size()) {
+			res = results.getLong(index);
+		}
+
+		return res;
+	}
+
+	/**
+	 * Gets all the parameters of the argument.
+	 *
+	 * @param session The parse to read from
+	 * @return A copy of the parameters, empty if there are none
+	 */
+	public long[] getAll(ParseSession session) {
+		LongList results = (LongList) getResults(session);
+		return results == null ? new long[0] : results.toLongArray();
+	}
+}
@@ -0,0 +1,58 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+
+/**
+ * A growable list of primitive longs. Values are added and read through {@code addLong} and {@code getLong}
+ * so that no {@code Long} objects are created; the {@code List} methods are there for the generic code paths.
+ */
+final class LongList extends AbstractList<Long> implements IntegralValues {
+	private long[] myValues = new long[4];
+	private int mySize = 0;
+
+	void addLong(long value) {
+		if (mySize == myValues.length) {
+			myValues = Arrays.copyOf(myValues, mySize * 2);
+		}
+		myValues[mySize++] = value;
+	}
+
+	@Override
+	public void addValue(long value) {
+		addLong(value);
+	}
+
+	long getLong(int index) {
+		if (index >= mySize) {
+			throw new IndexOutOfBoundsException(String.valueOf(index));
+		}
+		return myValues[index];
+	}
+
+	/**
+	 * Gets a copy of the values.
+	 */
+	long[] toLongArray() {
+		return Arrays.copyOf(myValues, mySize);
+	}
+
+	@Override
+	public boolean add(Long value) {
+		addLong(value);
+		return true;
+	}
+
+	@Override
+	public Long get(int index) {
+		return getLong(index);
+	}
+
+	@Override
+	public int size() {
+		return mySize;
+	}
+}
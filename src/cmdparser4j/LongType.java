@@ -0,0 +1,58 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import cmdparser4j.limits.NumericLimit;
+
+import java.util.List;
+
+/**
+ * Parameter type long
+ * The values are stored as primitive longs and range checked while they are parsed.
+ */
+public class LongType extends BaseType<Long, Long> {
+	private final int myFormat;
+	private final long myLower;
+	private final long myUpper;
+
+	/**
+	 * @param lower  Min value, inclusive
+	 * @param upper  Max value, inclusive
+	 * @param format The accepted formats, see {@code NumberFormat}
+	 */
+	public LongType(int minParameterCount, int maxParameterCount, long lower, long upper, int format) {
+		super(minParameterCount, maxParameterCount, new NumericLimit<Long>(lower, upper));
+		myFormat = format;
+		myLower = lower;
+		myUpper = upper;
+	}
+
+	@Override
+	protected LongList createResults() {
+		return new LongList();
+	}
+
+	@Override
+	protected boolean doTypeParse(String primaryName, CharSequence parameter, List<Long> results, IParseResult messageParser) {
+		boolean res = false;
+
+		if (parameter != null) {
+			// The list is always the one from createResults()
+			int status = NumberParser.parse(parameter, myFormat, myLower, myUpper, (LongList) results);
+			res = status == NumberParser.OK;
+
+			if (status == NumberParser.OUTSIDE_LIMITS) {
+				myLimit.reportLimitViolation(primaryName, messageParser);
+			}
+		}
+
+		return res;
+	}
+
+	@Override
+	protected boolean checkLimits(String primaryName, List<Long> results, IParseResult messageParser) {
+		// Already checked by doTypeParse()
+		return true;
+	}
+}
@@ -0,0 +1,85 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import java.util.Collection;
+
+/**
+ * Maps every primary name and alias to its argument. Lookups are made with any {@code CharSequence},
+ * so a name can be matched against a slice of a command line without first creating a {@code String}.
+ * The hash function is the one of {@code String.hashCode()}, so the cached hash of a {@code String} is used as is.
+ */
+final class NameTable {
+	private final String[] myNames;
+	private final Argument[] myArguments;
+	private final int myMask;
+
+	NameTable(Collection<Argument> arguments) {
+		int nameCount = 0;
+		for (Argument a : arguments) {
+			nameCount += a.getNames().size();
+		}
+
+		// Keep the table at most half full
+		int capacity = 2;
+		while (capacity < nameCount * 2) {
+			capacity <<= 1;
+		}
+
+		myNames = new String[capacity];
+		myArguments = new Argument[capacity];
+		myMask = capacity - 1;
+
+		for (Argument a : arguments) {
+			for (String name : a.getNames()) {
+				put(name, a);
+			}
+		}
+	}
+
+	private void put(String name, Argument argument) {
+		int slot = name.hashCode() & myMask;
+		// A later definition of the same name replaces the earlier one
+		while (myNames[slot] != null && !myNames[slot].equals(name)) {
+			slot = (slot + 1) & myMask;
+		}
+		myNames[slot] = name;
+		myArguments[slot] = argument;
+	}
+
+	/**
+	 * Finds the argument with the given name.
+	 *
+	 * @param name The name, primary or alias
+	 * @return The argument, or null if there is no argument by that name.
+	 */
+	Argument get(CharSequence name) {
+		Argument res = null;
+		int slot = hash(name) & myMask;
+
+		while (res == null && myNames[slot] != null) {
+			if (myNames[slot].contentEquals(name)) {
+				res = myArguments[slot];
+			}
+			slot = (slot + 1) & myMask;
+		}
+
+		return res;
+	}
+
+	private static int hash(CharSequence s) {
+		int h;
+
+		if (s instanceof String) {
+			h = s.hashCode();
+		} else {
+			h = 0;
+			for (int i = 0; i < s.length(); ++i) {
+				h = 31 * h + s.charAt(i);
+			}
+		}
+
+		return h;
+	}
+}
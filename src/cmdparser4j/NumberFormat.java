@@ -0,0 +1,26 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+/**
+ * Flags for the accepted formats of integer parameters, combined with bitwise or.
+ * A leading '+' or '-' sign is always accepted.
+ */
+public final class NumberFormat {
+	/**
+	 * Plain decimal numbers, e.g. "-1234"
+	 */
+	public static final int DECIMAL = 0;
+	/**
+	 * Hexadecimal numbers with a "0x" or "0X" prefix, e.g. "0x1F"
+	 */
+	public static final int HEXADECIMAL = 1;
+	/**
+	 * Underscores between digits, e.g. "1_000_000"
+	 */
+	public static final int UNDERSCORES = 2;
+
+	private NumberFormat() {
+	}
+}
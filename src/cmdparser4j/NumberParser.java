@@ -0,0 +1,149 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+/**
+ * Parses numeric parameters without throwing or allocating on malformed input.
+ * The value is range checked as part of the parse, so values outside of the limits are never stored.
+ */
+final class NumberParser {
+	static final int OK = 0;
+	static final int INVALID = 1;
+	static final int OUTSIDE_LIMITS = 2;
+
+	private NumberParser() {
+	}
+
+	/**
+	 * Parses the parameter and adds the value to {@code out} if it is valid and within the limits.
+	 *
+	 * @param parameter The parameter
+	 * @param format    The accepted formats, see {@code NumberFormat}
+	 * @param lower     Lowest allowed value, inclusive
+	 * @param upper     Highest allowed value, inclusive
+	 * @param out       Receiver of the value
+	 * @return {@code OK}, {@code INVALID} if the parameter isn't a number or {@code OUTSIDE_LIMITS}.
+	 */
+	static int parse(CharSequence parameter, int format, long lower, long upper, IntegralValues out) {
+		int length = parameter.length();
+		int i = 0;
+		boolean negative = false;
+
+		if (length > 0 && (parameter.charAt(0) == '-' || parameter.charAt(0) == '+')) {
+			negative = parameter.charAt(0) == '-';
+			++i;
+		}
+
+		int radix = 10;
+		if ((format & NumberFormat.HEXADECIMAL) != 0 && i + 1 < length && parameter.charAt(i) == '0'
+				&& (parameter.charAt(i + 1) == 'x' || parameter.charAt(i + 1) == 'X')) {
+			radix = 16;
+			i += 2;
+		}
+
+		// Accumulate negatively, as the negative range is the larger one
+		long value = 0;
+		long multiplyLimit = Long.MIN_VALUE / radix;
+		boolean valid = i < length;
+		boolean previousIsDigit = false;
+
+		for (; valid && i < length; ++i) {
+			char c = parameter.charAt(i);
+			if (c == '_' && (format & NumberFormat.UNDERSCORES) != 0) {
+				// Only allowed between digits
+				valid = previousIsDigit && i + 1 < length && parameter.charAt(i + 1) != '_';
+				previousIsDigit = false;
+			} else {
+				int digit = digit(c, radix);
+				valid = digit >= 0 && value >= multiplyLimit;
+				if (valid) {
+					value *= radix;
+					valid = value >= Long.MIN_VALUE + digit;
+					value -= digit;
+				}
+				previousIsDigit = true;
+			}
+		}
+
+		int res;
+		if (!valid || (!negative && value == Long.MIN_VALUE)) {
+			res = INVALID;
+		} else {
+			if (!negative) {
+				value = -value;
+			}
+
+			if (value < lower || value > upper) {
+				res = OUTSIDE_LIMITS;
+			} else {
+				out.addValue(value);
+				res = OK;
+			}
+		}
+
+		return res;
+	}
+
+	/**
+	 * Checks that the parameter is a decimal number, optionally with a fraction and exponent, e.g. "-1.5e3".
+	 * Used to reject malformed floating point parameters before they are converted, so that no exception is thrown.
+	 *
+	 * @param parameter The parameter
+	 * @return true if the parameter is a decimal number
+	 */
+	static boolean isDecimal(CharSequence parameter) {
+		int length = parameter.length();
+		int i = 0;
+
+		if (i < length && (parameter.charAt(i) == '-' || parameter.charAt(i) == '+')) {
+			++i;
+		}
+
+		int digits = 0;
+		while (i < length && digit(parameter.charAt(i), 10) >= 0) {
+			++i;
+			++digits;
+		}
+
+		if (i < length && parameter.charAt(i) == '.') {
+			++i;
+			while (i < length && digit(parameter.charAt(i), 10) >= 0) {
+				++i;
+				++digits;
+			}
+		}
+
+		boolean valid = digits > 0;
+
+		if (valid && i < length && (parameter.charAt(i) == 'e' || parameter.charAt(i) == 'E')) {
+			++i;
+			if (i < length && (parameter.charAt(i) == '-' || parameter.charAt(i) == '+')) {
+				++i;
+			}
+
+			int exponentDigits = 0;
+			while (i < length && digit(parameter.charAt(i), 10) >= 0) {
+				++i;
+				++exponentDigits;
+			}
+			valid = exponentDigits > 0;
+		}
+
+		return valid && i == length;
+	}
+
+	private static int digit(char c, int radix) {
+		int res = -1;
+
+		if (c >= '0' && c <= '9') {
+			res = c - '0';
+		} else if (radix == 16 && c >= 'a' && c <= 'f') {
+			res = c - 'a' + 10;
+		} else if (radix == 16 && c >= 'A' && c <= 'F') {
+			res = c - 'A' + 10;
+		}
+
+		return res;
+	}
+}
@@ -0,0 +1,26 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a field to be filled from a parse result by {@code OptionBinder}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface Option {
+	/**
+	 * The primary name of the argument. If empty, the field name prefixed with a dash is used, e.g. "-port".
+	 */
+	String value() default "";
+
+	/**
+	 * Indicates if the argument is mandatory. Only used by generated parsers, see {@code GenerateParser}.
+	 */
+	boolean mandatory() default false;
+}
@@ -0,0 +1,306 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Fills the fields of an options class, marked with {@code Option}, from a parse result.
+ * <p/>
+ * The fields of a class are looked up once and kept together with a handle to their argument in the
+ * latest specification bound from, so binding only reads the parsed values and writes the fields. Fields of arguments that got no
+ * value are left untouched, so initial values act as defaults.
+ * <p/>
+ * Supported field types are int, long, double, float, boolean and String, and arrays of these.
+ */
+public final class OptionBinder<T> {
+	private static final ConcurrentMap<Class<?>, OptionBinder<?>> ourBinders = new ConcurrentHashMap<Class<?>, OptionBinder<?>>();
+	private final FieldBinder[] myFields;
+
+	private OptionBinder(Class<T> type) {
+		List<FieldBinder> fields = new ArrayList<FieldBinder>();
+
+		for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+			for (Field f : c.getDeclaredFields()) {
+				Option option = f.getAnnotation(Option.class);
+				if (option != null) {
+					String name = option.value().length() == 0 ? "-" + f.getName() : option.value();
+					fields.add(createBinder(f, name));
+				}
+			}
+		}
+
+		myFields = fields.toArray(new FieldBinder[fields.size()]);
+	}
+
+	/**
+	 * Gets the binder for the given class, creating it on first use.
+	 *
+	 * @param type The options class
+	 * @return The binder
+	 * @throws IllegalArgumentException if a field marked with {@code Option} is static, final or of an unsupported type
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> OptionBinder<T> of(Class<T> type) {
+		OptionBinder<?> res = ourBinders.get(type);
+
+		if (res == null) {
+			res = new OptionBinder<T>(type);
+			OptionBinder<?> existing = ourBinders.putIfAbsent(type, res);
+			if (existing != null) {
+				res = existing;
+			}
+		}
+
+		return (OptionBinder<T>) res;
+	}
+
+	/**
+	 * Fills the fields of {@code target} from the parse.
+	 *
+	 * @param session The parse to read from
+	 * @param target  The object to fill
+	 * @return {@code target}
+	 * @throws IllegalStateException if a field names an argument that doesn't exist or is of another type
+	 */
+	public T bind(ParseSession session, T target) {
+		for (FieldBinder f : myFields) {
+			f.bind(session, target);
+		}
+
+		return target;
+	}
+
+	private static FieldBinder createBinder(Field field, String name) {
+		int modifiers = field.getModifiers();
+		if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers)) {
+			throw new IllegalArgumentException("Option field " + field + " must not be static or final");
+		}
+
+		Class<?> type = field.getType();
+		boolean array = type.isArray();
+		if (array) {
+			type = type.getComponentType();
+		}
+
+		FieldBinder res;
+
+		if (type == int.class) {
+			res = new IntBinder(field, name, array);
+		} else if (type == long.class) {
+			res = new LongBinder(field, name, array);
+		} else if (type == double.class) {
+			res = new DoubleBinder(field, name, array);
+		} else if (type == float.class) {
+			res = new FloatBinder(field, name, array);
+		} else if (type == boolean.class) {
+			res = new BoolBinder(field, name, array);
+		} else if (type == String.class) {
+			res = new StringBinder(field, name, array);
+		} else {
+			throw new IllegalArgumentException("Option field " + field + " is of an unsupported type");
+		}
+
+		field.setAccessible(true);
+		return res;
+	}
+
+	/**
+	 * Binds a single field.
+	 */
+	private abstract static class FieldBinder {
+		protected final Field myField;
+		protected final boolean myIsArray;
+		private final String myName;
+		private final Class<? extends BaseType> myType;
+		// The handle for the specification last bound from, as that is when the argument is known
+		private volatile ResolvedHandle myResolved = null;
+
+		FieldBinder(Field field, String name, boolean isArray, Class<? extends BaseType> type) {
+			myField = field;
+			myName = name;
+			myIsArray = isArray;
+			myType = type;
+		}
+
+		final void bind(ParseSession session, Object target) {
+			ResolvedHandle resolved = myResolved;
+			if (resolved == null || resolved.spec != session.getSpec()) {
+				// Another specification may not have the argument, or have it with another type or slot
+				resolved = new ResolvedHandle(session.getSpec(), createHandle(resolve(session)));
+				myResolved = resolved;
+			}
+
+			ArgumentHandle handle = resolved.handle;
+
+			if (handle.isSet(session)) {
+				try {
+					write(handle, session, target);
+				} catch (IllegalAccessException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		}
+
+		private Argument resolve(ParseSession session) {
+			Argument a = session.getArgument(myName);
+
+			if (a == null) {
+				throw new IllegalStateException("Option field " + myField + " refers to argument '" + myName + "', but no such argument is defined");
+			} else if (!myType.isInstance(a.getType())) {
+				throw new IllegalStateException("Option field " + myField + " does not match the type of argument '" + myName + "'");
+			}
+
+			return a;
+		}
+
+		abstract ArgumentHandle createHandle(Argument argument);
+
+		abstract void write(ArgumentHandle handle, ParseSession session, Object target) throws IllegalAccessException;
+	}
+
+	/**
+	 * A handle together with the specification it was made for, replaced as a whole.
+	 */
+	private static final class ResolvedHandle {
+		final ParserSpec spec;
+		final ArgumentHandle handle;
+
+		ResolvedHandle(ParserSpec spec, ArgumentHandle handle) {
+			this.spec = spec;
+			this.handle = handle;
+		}
+	}
+
+	private static final class IntBinder extends FieldBinder {
+		IntBinder(Field field, String name, boolean isArray) {
+			super(field, name, isArray, IntegerType.class);
+		}
+
+		@Override
+		ArgumentHandle createHandle(Argument argument) {
+			return new IntArg(argument);
+		}
+
+		@Override
+		void write(ArgumentHandle handle, ParseSession session, Object target) throws IllegalAccessException {
+			IntArg arg = (IntArg) handle;
+			if (myIsArray) {
+				myField.set(target, arg.getAll(session));
+			} else {
+				myField.setInt(target, arg.get(session));
+			}
+		}
+	}
+
+	private static final class LongBinder extends FieldBinder {
+		LongBinder(Field field, String name, boolean isArray) {
+			super(field, name, isArray, LongType.class);
+		}
+
+		@Override
+		ArgumentHandle createHandle(Argument argument) {
+			return new LongArg(argument);
+		}
+
+		@Override
+		void write(ArgumentHandle handle, ParseSession session, Object target) throws IllegalAccessException {
+			LongArg arg = (LongArg) handle;
+			if (myIsArray) {
+				myField.set(target, arg.getAll(session));
+			} else {
+				myField.setLong(target, arg.get(session));
+			}
+		}
+	}
+
+	private static final class DoubleBinder extends FieldBinder {
+		DoubleBinder(Field field, String name, boolean isArray) {
+			super(field, name, isArray, DoubleType.class);
+		}
+
+		@Override
+		ArgumentHandle createHandle(Argument argument) {
+			return new DoubleArg(argument);
+		}
+
+		@Override
+		void write(ArgumentHandle handle, ParseSession session, Object target) throws IllegalAccessException {
+			DoubleArg arg = (DoubleArg) handle;
+			if (myIsArray) {
+				myField.set(target, arg.getAll(session));
+			} else {
+				myField.setDouble(target, arg.get(session));
+			}
+		}
+	}
+
+	private static final class FloatBinder extends FieldBinder {
+		FloatBinder(Field field, String name, boolean isArray) {
+			super(field, name, isArray, FloatType.class);
+		}
+
+		@Override
+		ArgumentHandle createHandle(Argument argument) {
+			return new FloatArg(argument);
+		}
+
+		@Override
+		void write(ArgumentHandle handle, ParseSession session, Object target) throws IllegalAccessException {
+			FloatArg arg = (FloatArg) handle;
+			if (myIsArray) {
+				myField.set(target, arg.getAll(session));
+			} else {
+				myField.setFloat(target, arg.get(session));
+			}
+		}
+	}
+
+	private static final class BoolBinder extends FieldBinder {
+		BoolBinder(Field field, String name, boolean isArray) {
+			super(field, name, isArray, BooleanType.class);
+		}
+
+		@Override
+		ArgumentHandle createHandle(Argument argument) {
+			return new BoolArg(argument);
+		}
+
+		@Override
+		void write(ArgumentHandle handle, ParseSession session, Object target) throws IllegalAccessException {
+			BoolArg arg = (BoolArg) handle;
+			if (myIsArray) {
+				myField.set(target, arg.getAll(session));
+			} else {
+				myField.setBoolean(target, arg.get(session));
+			}
+		}
+	}
+
+	private static final class StringBinder extends FieldBinder {
+		StringBinder(Field field, String name, boolean isArray) {
+			super(field, name, isArray, StringType.class);
+		}
+
+		@Override
+		ArgumentHandle createHandle(Argument argument) {
+			return new StringArg(argument);
+		}
+
+		@Override
+		void write(ArgumentHandle handle, ParseSession session, Object target) throws IllegalAccessException {
+			StringArg arg = (StringArg) handle;
+			if (myIsArray) {
+				myField.set(target, arg.getAll(session));
+			} else {
+				myField.set(target, arg.get(session));
+			}
+		}
+	}
+}
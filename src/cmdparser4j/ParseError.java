@@ -0,0 +1,81 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+/**
+ * The errors reported via {@link IParseResult}, with the text used by {@link SystemOutputParseResult}.
+ * In the texts, %s is replaced by a value (an argument name or a limit) and %d by a number.
+ */
+public enum ParseError {
+	UNKNOWN_ARGUMENTS("Unknown arguments on the command line: %s"),
+	ARGUMENT_SPECIFIED_MULTIPLE_TIMES("The argument '%s' is specified multiple times."),
+	MISSING_MANDATORY_ARGUMENT("The mandatory argument '%s' is missing"),
+	NO_SUCH_ARGUMENT_DEFINED("Argument '%s' depends on '%s', but no such argument is defined - contact the author of the application"),
+	MISSING_DEPENDENT_ARGUMENT("Argument '%s' depends on '%s', but the latter is missing"),
+	NO_SUCH_MUTUALLY_EXCLUSIVE_ARGUMENT_DEFINED("Argument '%s' is mutually exclusive to '%s', but no such argument is defined - contact the author of the application"),
+	ARGUMENTS_ARE_MUTUALLY_EXCLUSIVE("Arguments '%s' and '%s' are mutually exclusive."),
+	UNUSABLE_ARGUMENT("Argument '%s' can never be used as it requires both '%s' and '%s', which are mutually exclusive - contact the author of the application"),
+	NOT_ENOUGH_PARAMETERS("There are not enough parameters for the argument %s, %d wanted"),
+	FAILED_TO_PARSE_ARGUMENT("Parsing of argument '%s' failed"),
+	ARGUMENT_MISSING_TYPE("'%s' is missing type information. This is a programming error - contact the author of the application"),
+	FAILED_TO_LOAD_CONFIGURATION("Could not load the configuration specified by argument '%s'"),
+	OUTSIDE_LIMITS("Parameter for argument '%s' is outside allowed limits of %s - %s"),
+	OUTSIDE_LENGTH_LIMITS("Parameter for argument '%s' is outside allowed lengths of %s - %s");
+
+	private final String myText;
+	private final int myValueCount;
+	private final int myNumberCount;
+
+	ParseError(String text) {
+		myText = text;
+
+		int values = 0;
+		int numbers = 0;
+		for (int i = text.indexOf('%'); i >= 0; i = text.indexOf('%', i + 2)) {
+			if (text.charAt(i + 1) == 's') {
+				++values;
+			} else {
+				++numbers;
+			}
+		}
+
+		myValueCount = values;
+		myNumberCount = numbers;
+	}
+
+	/**
+	 * @return The number of values, such as argument names, that the error has.
+	 */
+	public int getValueCount() {
+		return myValueCount;
+	}
+
+	/**
+	 * @return The number of numeric parameters that the error has.
+	 */
+	public int getNumberCount() {
+		return myNumberCount;
+	}
+
+	/**
+	 * Appends the text of the error, taking the values and numbers in order from the given positions.
+	 */
+	void appendTo(StringBuilder sb, Object[] values, int valueStart, long[] numbers, int numberStart) {
+		int value = valueStart;
+		int number = numberStart;
+		int start = 0;
+
+		for (int i = myText.indexOf('%'); i >= 0; i = myText.indexOf('%', start)) {
+			sb.append(myText, start, i);
+			if (myText.charAt(i + 1) == 's') {
+				sb.append(values[value++]);
+			} else {
+				sb.append(numbers[number++]);
+			}
+			start = i + 2;
+		}
+
+		sb.append(myText, start, myText.length());
+	}
+}
@@ -0,0 +1,356 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import java.util.List;
+
+/**
+ * The outcome of a single parse made by a {@code ParserSpec}.
+ * Holds everything that is produced while parsing; the specification itself is never modified.
+ */
+public final class ParseSession {
+	private final ParserSpec mySpec;
+	private final IParseResult myResult;
+	private final ResultEnvelope myResults;
+	// The arguments that were given on the command line, as opposed to read from configuration
+	private final boolean[] myFromCommandLine;
+	private boolean mySuccess = false;
+
+	ParseSession(ParserSpec spec, IParseResult result) {
+		mySpec = spec;
+		myResult = result;
+		myResults = new ResultEnvelope(spec.getArguments(), spec.getArgumentList());
+		myFromCommandLine = new boolean[spec.getArguments().size()];
+	}
+
+	/**
+	 * Gets the specification that made the parse.
+	 */
+	ParserSpec getSpec() {
+		return mySpec;
+	}
+
+	void setSuccess(boolean success) {
+		mySuccess = success;
+	}
+
+	/**
+	 * Indicates if the parse succeeded.
+	 *
+	 * @return true on success, false on failure
+	 */
+	public boolean isSuccessFullyParsed() {
+		return mySuccess;
+	}
+
+	boolean isSuccessFullyParsed(Argument argument) {
+		// It can only be successfully parsed if its parameters have been accepted.
+		return myResults.isSet(argument);
+	}
+
+	void setResult(Argument argument, List<?> results) {
+		myResults.set(argument, results);
+	}
+
+	List<?> getResult(Argument argument) {
+		return myResults.get(argument);
+	}
+
+	/**
+	 * Gets the parsed values of an argument by its slot, see {@code ResultEnvelope.get(int, String, Class)}.
+	 */
+	List<?> getResult(int slot, String primaryName, Class<? extends BaseType> type) {
+		return myResults.get(slot, primaryName, type);
+	}
+
+	/**
+	 * Gets the argument with the given primary name, or null if there is no such argument.
+	 */
+	Argument getArgument(String primaryName) {
+		return myResults.getArgument(primaryName);
+	}
+
+	void setFromCommandLine(Argument argument) {
+		myFromCommandLine[argument.getIndex()] = true;
+	}
+
+	boolean isFromCommandLine(Argument argument) {
+		return myFromCommandLine[argument.getIndex()];
+	}
+
+	/**
+	 * Gets the first parameter for the given {@code argumentName}
+	 *
+	 * @param argumentName The argument name
+	 * @return The parameter value, or false if not found
+	 */
+	public boolean getBool(String argumentName) {
+		return myResults.get(argumentName, 0, false);
+	}
+
+	/**
+	 * Gets the parameter at {@code index} for the given {@code argumentName}
+	 *
+	 * @param argumentName The argument name
+	 * @param index        The index
+	 * @return The parameter value, or false if not found
+	 */
+	public boolean getBool(String argumentName, int index) {
+		return myResults.get(argumentName, index, false);
+	}
+
+	/**
+	 * Gets the parameter at {@code index} for the given {@code argumentName}
+	 *
+	 * @param argumentName The argument name
+	 * @param index        The index
+	 * @param defaultValue The default value
+	 * @return The parameter value, or {@code defaultValue} if not found
+	 */
+	public boolean getBool(String argumentName, int index, boolean defaultValue) {
+		return myResults.get(argumentName, index, defaultValue);
+	}
+
+	/**
+	 * Gets the first parameter for the given {@code argumentName}
+	 *
+	 * @param argumentName The argument name
+	 * @return The parameter value, or null if not found
+	 */
+	public String getString(String argumentName) {
+		return myResults.get(argumentName, 0, null);
+	}
+
+	/**
+	 * Gets the parameter at {@code index} for the given {@code argumentName}
+	 *
+	 * @param argumentName The argument name
+	 * @param index        The index
+	 * @return The parameter value, or null if not found
+	 */
+	public String getString(String argumentName, int index) {
+		return myResults.get(argumentName, index, null);
+	}
+
+	/**
+	 * Gets the parameter at {@code index} for the given {@code argumentName}
+	 *
+	 * @param argumentName The argument name
+	 * @param index        The index
+	 * @param defaultValue The default value
+	 * @return The parameter value, or {@code defaultValue} if not found
+	 */
+	public String getString(String argumentName, int index, String defaultValue) {
+		return myResults.get(argumentName, index, defaultValue);
+	}
+
+	/**
+	 * Gets the first parameter for the given {@code argumentName}
+	 *
+	 * @param argumentName The argument name
+	 * @return The parameter value, or 0 if not found
+	 */
+	public int getInteger(String argumentName) {
+		return myResults.get(argumentName, 0, 0);
+	}
+
+	/**
+	 * Gets the parameter at {@code index} for the given {@code argumentName}
+	 *
+	 * @param argumentName The argument name
+	 * @param index        The index
+	 * @return The parameter value, or 0 if not found
+	 */
+	public int getInteger(String argumentName, int index) {
+		return myResults.get(argumentName, index, 0);
+	}
+
+	/**
+	 * Gets the parameter at {@code index} for the given {@code argumentName}
+	 *
+	 * @param argumentName The argument name
+	 * @param index        The index
+	 * @param defaultValue The default value
+	 * @return The parameter value, or {@code defaultValue} if not found
+	 */
+	public int getInteger(String argumentName, int index, int defaultValue) {
+		return myResults.get(argumentName, index, defaultValue);
+	}
+
+	/**
+	 * Gets all the integer parameters for the given {@code argumentName}, without boxing them.
+	 *
+	 * @param argumentName The argument name
+	 * @return A copy of the parameters, empty if there are none
+	 */
+	public int[] getIntegers(String argumentName) {
+		return myResults.getIntegers(argumentName);
+	}
+
+	/**
+	 * Gets the first parameter for the given {@code argumentName}
+	 *
+	 * @param argumentName The argument name
+	 * @return The parameter value, or 0 if not found
+	 */
+	public long getLong(String argumentName) {
+		return myResults.get(argumentName, 0, 0L);
+	}
+
+	/**
+	 * Gets the parameter at {@code index} for the given {@code argumentName}
+	 *
+	 * @param argumentName The argument name
+	 * @param index        The index
+	 * @return The parameter value, or 0 if not found
+	 */
+	public long getLong(String argumentName, int index) {
+		return myResults.get(argumentName, index, 0L);
+	}
+
+	/**
+	 * Gets the parameter at {@code index} for the given {@code argumentName}
+	 *
+	 * @param argumentName The argument name
+	 * @param index        The index
+	 * @param defaultValue The default value
+	 * @return The parameter value, or {@code defaultValue} if not found
+	 */
+	public long getLong(String argumentName, int index, long defaultValue) {
+		return myResults.get(argumentName, index, defaultValue);
+	}
+
+	/**
+	 * Gets all the long parameters for the given {@code argumentName}, without boxing them.
+	 *
+	 * @param argumentName The argument name
+	 * @return A copy of the parameters, empty if there are none
+	 */
+	public long[] getLongs(String argumentName) {
+		return myResults.getLongs(argumentName);
+	}
+
+	/**
+	 * Gets the first parameter for the given {@code argumentName}
+	 *
+	 * @param argumentName The argument name
+	 * @return The parameter value, or 0 if not found
+	 */
+	public double getDouble(String argumentName) {
+		return myResults.get(argumentName, 0, 0.0);
+	}
+
+	/**
+	 * Gets the parameter at {@code index} for the given {@code argumentName}
+	 *
+	 * @param argumentName The argument name
+	 * @param index        The index
+	 * @return The parameter value, or 0 if not found
+	 */
+	public double getDouble(String argumentName, int index) {
+		return myResults.get(argumentName, index, 0.0);
+	}
+
+	/**
+	 * Gets the parameter at {@code index} for the given {@code argumentName}
+	 *
+	 * @param argumentName The argument name
+	 * @param index        The index
+	 * @param defaultValue The default value
+	 * @return The parameter value, or {@code defaultValue} if not found
+	 */
+	public double getDouble(String argumentName, int index, double defaultValue) {
+		return myResults.get(argumentName, index, defaultValue);
+	}
+
+	/**
+	 * Gets all the double parameters for the given {@code argumentName}, without boxing them.
+	 *
+	 * @param argumentName The argument name
+	 * @return A copy of the parameters, empty if there are none
+	 */
+	public double[] getDoubles(String argumentName) {
+		return myResults.getDoubles(argumentName);
+	}
+
+	/**
+	 * Gets the first parameter for the given {@code argumentName}
+	 *
+	 * @param argumentName The argument name
+	 * @return The parameter value, or 0 if not found
+	 */
+	public float getFloat(String argumentName) {
+		return myResults.get(argumentName, 0, 0.0f);
+	}
+
+	/**
+	 * Gets the parameter at {@code index} for the given {@code argumentName}
+	 *
+	 * @param argumentName The argument name
+	 * @param index        The index
+	 * @return The parameter value, or 0 if not found
+	 */
+	public float getFloat(String argumentName, int index) {
+		return myResults.get(argumentName, index, 0.0f);
+	}
+
+	/**
+	 * Gets the parameter at {@code index} for the given {@code argumentName}
+	 *
+	 * @param argumentName The argument name
+	 * @param index        The index
+	 * @param defaultValue The default value
+	 * @return The parameter value, or {@code defaultValue} if not found
+	 */
+	public float getFloat(String argumentName, int index, float defaultValue) {
+		return myResults.get(argumentName, index, defaultValue);
+	}
+
+	/**
+	 * Gets all the float parameters for the given {@code argumentName}, without boxing them.
+	 *
+	 * @param argumentName The argument name
+	 * @return A copy of the parameters, empty if there are none
+	 */
+	public float[] getFloats(String argumentName) {
+		return myResults.getFloats(argumentName);
+	}
+
+	/**
+	 * Gets the available parameter count for the give argument name
+	 *
+	 * @param primaryArgumentName The argument name
+	 * @return The number of available parameters
+	 */
+	public int getAvailableStringParameterCount(String primaryArgumentName) {
+		return myResults.getAvailableStringParameterCount(primaryArgumentName);
+	}
+
+	public int getAvailableBooleanParameterCount(String primaryArgumentName) {
+		return myResults.getAvailableBooleanParameterCount(primaryArgumentName);
+	}
+
+	public int getAvailableIntegerParameterCount(String primaryArgumentName) {
+		return myResults.getAvailableIntegerParameterCount(primaryArgumentName);
+	}
+
+	public int getAvailableLongParameterCount(String primaryArgumentName) {
+		return myResults.getAvailableLongParameterCount(primaryArgumentName);
+	}
+
+	public int getAvailableDoubleParameterCount(String primaryArgumentName) {
+		return myResults.getAvailableDoubleParameterCount(primaryArgumentName);
+	}
+
+	public int getAvailableFloatParameterCount(String primaryArgumentName) {
+		return myResults.getAvailableFloatParameterCount(primaryArgumentName);
+	}
+
+	/**
+	 * Gets the object that received the parse messages of this session.
+	 */
+	public IParseResult getMessageParser() {
+		return myResult;
+	}
+}
@@ -0,0 +1,683 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import java.nio.CharBuffer;
+import java.util.*;
+
+/**
+ * A compiled, immutable parser specification, created by {@code CmdParser4J.compile()}.
+ * The specification holds no parse state; each call to {@code parse} produces its own
+ * {@code ParseSession}, so a single specification may be used by many threads at once.
+ */
+public final class ParserSpec {
+	private final Map<String, Argument> myArguments;
+	private final Argument[] myArgumentList;
+	// Maps every primary name and alias to its argument
+	private final NameTable myNameIndex;
+	// Per argument, the arguments it depends on and is blocked by, as bits over the argument indexes; null if none.
+	private final BitSet[] myDependencies;
+	private final BitSet[] myBlockers;
+	// The errors found when checking the definitions, done once when compiled
+	private final List<DefinitionError> myDefinitionErrors;
+	private final boolean myIsValid;
+	// See getFingerprint(); 0 until computed
+	private volatile long myFingerprint = 0;
+	private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	ParserSpec(Collection<Argument> definitions) {
+		HashMap<String, Argument> arguments = new HashMap<String, Argument>();
+		myArgumentList = new Argument[definitions.size()];
+
+		int index = 0;
+		for (Argument definition : definitions) {
+			Argument a = new Argument(definition, index);
+			myArgumentList[index++] = a;
+			arguments.put(a.getPrimaryName(), a);
+		}
+
+		myArguments = Collections.unmodifiableMap(arguments);
+		myNameIndex = new NameTable(Arrays.asList(myArgumentList));
+
+		myDependencies = new BitSet[myArgumentList.length];
+		myBlockers = new BitSet[myArgumentList.length];
+		for (Argument a : myArgumentList) {
+			myDependencies[a.getIndex()] = toBits(a.getDependencyNames());
+			myBlockers[a.getIndex()] = toBits(a.getBlockerNames());
+		}
+
+		// Problems are programming errors, so there is no need to report them here. They are reported on every parse.
+		myDefinitionErrors = findDefinitionErrors();
+		myIsValid = myDefinitionErrors.isEmpty();
+	}
+
+	/**
+	 * A definition error, kept so that it can be reported on every parse without checking the definitions again.
+	 */
+	private static final class DefinitionError {
+		enum Kind {MISSING_TYPE, NO_SUCH_DEPENDENCY, NO_SUCH_BLOCKER, UNUSABLE}
+
+		final Kind kind;
+		final String primaryName;
+		final String first;
+		final String second;
+
+		DefinitionError(Kind kind, String primaryName, String first, String second) {
+			this.kind = kind;
+			this.primaryName = primaryName;
+			this.first = first;
+			this.second = second;
+		}
+
+		void report(IParseResult messageParser) {
+			switch (kind) {
+				case MISSING_TYPE:
+					messageParser.argumentMissingType(primaryName);
+					break;
+				case NO_SUCH_DEPENDENCY:
+					messageParser.noSuchArgumentDefined(primaryName, first);
+					break;
+				case NO_SUCH_BLOCKER:
+					messageParser.noSuchMutuallyExclusiveArgumentDefined(primaryName, first);
+					break;
+				default:
+					if (messageParser instanceof IDefinitionResult) {
+						((IDefinitionResult) messageParser).unusableArgument(primaryName, first, second);
+					} else {
+						messageParser.argumentsAreMutuallyExclusive(first, second);
+					}
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Converts a list of primary names to a set of argument indexes. Names that don't exist are left out.
+	 *
+	 * @param names The names
+	 * @return The indexes, or null if there are none
+	 */
+	private BitSet toBits(List<String> names) {
+		BitSet res = null;
+
+		for (String name : names) {
+			Argument a = myArguments.get(name);
+			if (a != null) {
+				if (res == null) {
+					res = new BitSet(myArgumentList.length);
+				}
+				res.set(a.getIndex());
+			}
+		}
+
+		return res;
+	}
+
+	/**
+	 * Parses the command line
+	 *
+	 * @param result The object to receive parse messages for this parse
+	 * @param args   The arguments
+	 * @return The outcome of the parse
+	 */
+	public ParseSession parse(IParseResult result, String... args) {
+		return parse(result, null, null, args);
+	}
+
+	/**
+	 * Parses the command line, with fallback to the provided configuration
+	 *
+	 * @param result The object to receive parse messages for this parse
+	 * @param cfg    The configuration reader
+	 * @param args   The arguments
+	 * @return The outcome of the parse
+	 */
+	public ParseSession parse(IParseResult result, IConfigurationReader cfg, String... args) {
+		return parse(result, null, cfg, args);
+	}
+
+	/**
+	 * Parses the command line, with fallback to configuration specified on the command line.
+	 *
+	 * @param result           The object to receive parse messages for this parse
+	 * @param fileNameArgument The argument that specifies the path to the configuration file
+	 * @param cfg              The configuration parser
+	 * @param args             The arguments.
+	 * @return The outcome of the parse
+	 */
+	public ParseSession parse(IParseResult result, String fileNameArgument, IConfigurationReader cfg, String... args) {
+		ArrayList<String> a = new ArrayList<String>();
+		Collections.addAll(a, args);
+		removeEmptyArguments(a);
+		return parse(result, a, cfg, fileNameArgument);
+	}
+
+	/**
+	 * Parses a complete command line, such as one typed into a console.
+	 * The line is split into arguments the way a shell would, honouring single and double quotes and backslash escapes.
+	 * Argument names are matched directly against the line; a {@code String} is only created for
+	 * tokens that contain quotes or escapes within them and for string parameters when they are read.
+	 * The line must therefore not be modified while the returned session is in use.
+	 *
+	 * @param result The object to receive parse messages for this parse
+	 * @param line   The command line
+	 * @return The outcome of the parse
+	 */
+	public ParseSession parseLine(IParseResult result, CharSequence line) {
+		return parseLine(result, null, line);
+	}
+
+	/**
+	 * Parses a complete command line, with fallback to the provided configuration.
+	 *
+	 * @param result The object to receive parse messages for this parse
+	 * @param cfg    The configuration reader
+	 * @param line   The command line
+	 * @return The outcome of the parse
+	 */
+	public ParseSession parseLine(IParseResult result, IConfigurationReader cfg, CharSequence line) {
+		return parse(result, CommandLineTokenizer.tokenize(line), cfg, null);
+	}
+
+	/**
+	 * Parses a complete command line held in a range of a character array, without copying it.
+	 * The array must not be modified while the returned session is in use.
+	 *
+	 * @param result The object to receive parse messages for this parse
+	 * @param line   The characters holding the command line
+	 * @param offset The position of the first character of the command line
+	 * @param length The length of the command line
+	 * @return The outcome of the parse
+	 */
+	public ParseSession parseLine(IParseResult result, char[] line, int offset, int length) {
+		return parseLine(result, CharBuffer.wrap(line, offset, length));
+	}
+
+	private ParseSession parse(IParseResult result, List<? extends CharSequence> args, IConfigurationReader cfg, String fileNameArgument) {
+		ParseSession session = new ParseSession(this, result);
+		session.setSuccess(parse(session, args, cfg, fileNameArgument));
+		return session;
+	}
+
+	private boolean parse(ParseSession session, List<? extends CharSequence> args, IConfigurationReader cfg, String fileNameArgument) {
+		IParseResult messageParser = session.getMessageParser();
+
+		ArgumentIndexes argumentIndexes = GetIndexes(args);
+
+		boolean result = checkConstraints(argumentIndexes, messageParser);
+
+		if (!myIsValid) {
+			// The definitions are broken, so nothing can be parsed
+			checkDefinitions(messageParser);
+			result = false;
+		} else if (argumentIndexes.size() == 0 && args.size() > 0) {
+			// Arguments provided on the command line, but no matches found.
+			ParserSupport.unknownArguments(messageParser, args, 0, args.size());
+			result = false;
+		} else if (argumentIndexes.size() > 0 && argumentIndexes.getPosition(0) > 0) {
+			// Unknown arguments before first matching Argument.
+			ParserSupport.unknownArguments(messageParser, args, 0, argumentIndexes.getPosition(0));
+			result = false;
+		} else {
+
+			// Now let each argument parse any parameter until the next argument.
+			// This ensures that an argument isn't considered as a parameter to another argument.
+			for (int i = 0; result && i < argumentIndexes.size(); ++i) {
+				int argumentPos = argumentIndexes.getPosition(i);
+				int nextArgumentPos;
+
+				// Are there more arguments left? If so, stop at that one. Otherwise take parameters until end.
+				if (i == (argumentIndexes.size() - 1)) {
+					nextArgumentPos = args.size();
+				} else {
+					nextArgumentPos = argumentIndexes.getPosition(i + 1);
+				}
+
+				// Let the argument parse its parameters, within the range up to the next argument.
+				int parsedUntil = argumentIndexes.getArgument(i).parse(session, args, argumentPos, nextArgumentPos);
+				result = parsedUntil >= 0;
+
+				if (result && parsedUntil < nextArgumentPos) {
+					// Leftovers from command line
+					ParserSupport.unknownArguments(messageParser, args, parsedUntil, nextArgumentPos);
+					result = false;
+				}
+			}
+
+			for (Argument a : myArgumentList) {
+				if (session.isSuccessFullyParsed(a)) {
+					session.setFromCommandLine(a);
+				}
+			}
+
+			// If a help argument is provided, then we don't check anything else
+			if( !helpCommandProvided(session) ) {
+				result = result
+						&& loadConfigFile(session, cfg, fileNameArgument)
+						&& fallbackToConfiguration(session, cfg, fileNameArgument)
+						&& checkMandatory(session)
+						&& checkDependencies(session)
+						&& checkMutualExclusion(session);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Creates a new session from a previous one after the configuration has changed.
+	 * The values given on the command line, and those whose configuration is known not to have changed, are taken
+	 * from the previous session. All others are read from the configuration again, after which the constraints
+	 * are checked as for a normal parse.
+	 *
+	 * @param result    The object to receive parse messages for this parse
+	 * @param previous  The successful session to base the new one on
+	 * @param cfg       The configuration reader, holding the changed configuration
+	 * @param unchanged By argument index, true for the arguments whose configuration hasn't changed, or null if not known
+	 * @return The outcome of the parse
+	 */
+	ParseSession refill(IParseResult result, ParseSession previous, IConfigurationReader cfg, boolean[] unchanged) {
+		ParseSession session = new ParseSession(this, result);
+
+		for (Argument a : myArgumentList) {
+			if (previous.isFromCommandLine(a)) {
+				session.setResult(a, previous.getResult(a));
+				session.setFromCommandLine(a);
+			} else if (unchanged != null && unchanged[a.getIndex()] && previous.isSuccessFullyParsed(a)) {
+				// Not filled from the configuration again, as it would give the same value
+				session.setResult(a, previous.getResult(a));
+			}
+		}
+
+		boolean res = helpCommandProvided(session)
+				|| (fallbackToConfiguration(session, cfg, null)
+				&& checkMandatory(session)
+				&& checkDependencies(session)
+				&& checkMutualExclusion(session));
+
+		session.setSuccess(res);
+		return session;
+	}
+
+	private boolean helpCommandProvided(ParseSession session) {
+		boolean res = false;
+
+		for (Argument a : myArgumentList) {
+			if (a.isHelpCommand() && session.isSuccessFullyParsed(a)) {
+				res = true;
+			}
+		}
+
+		return res;
+	}
+
+	private boolean loadConfigFile(ParseSession session, IConfigurationReader cfg, String fileNameArgument) {
+		boolean result = true;
+
+		if( fileNameArgument != null) {
+			String fileName = session.getString(fileNameArgument);
+			if( fileName != null ) {
+				result = cfg.loadFromFile( fileName );
+
+				if( !result ) {
+					session.getMessageParser().failedToLoadConfiguration(fileNameArgument);
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Indicates if the definitions are free of programming errors, see {@code findDefinitionErrors()}.
+	 * If not, every parse fails and reports the errors.
+	 */
+	public boolean isValid() {
+		return myIsValid;
+	}
+
+	/**
+	 * Reports the errors found in the definitions when compiled, see {@code findDefinitionErrors()}.
+	 *
+	 * @param messageParser Receives the errors
+	 * @return true if there are no errors, otherwise false.
+	 */
+	boolean checkDefinitions(IParseResult messageParser) {
+		for (DefinitionError e : myDefinitionErrors) {
+			e.report(messageParser);
+		}
+
+		return myIsValid;
+	}
+
+	/**
+	 * Checks the definitions for programming errors: arguments without a type, dependencies and
+	 * mutual exclusions naming arguments that aren't defined, and arguments that can never be used as they require,
+	 * directly or through their dependencies, arguments that are mutually exclusive.
+	 * Dependency cycles are allowed; the arguments in a cycle must then be used together, so a cycle that includes
+	 * mutually exclusive arguments makes all its members unusable, and is reported for each of them.
+	 *
+	 * @return The errors, in the order they are reported
+	 */
+	private List<DefinitionError> findDefinitionErrors() {
+		List<DefinitionError> res = new ArrayList<DefinitionError>();
+		boolean hasBlockers = false;
+
+		for (Argument a : myArgumentList) {
+			if (!a.hasArgumentType()) {
+				res.add(new DefinitionError(DefinitionError.Kind.MISSING_TYPE, a.getPrimaryName(), null, null));
+			}
+
+			for (String dep : a.getDependencyNames()) {
+				if (!myArguments.containsKey(dep)) {
+					res.add(new DefinitionError(DefinitionError.Kind.NO_SUCH_DEPENDENCY, a.getPrimaryName(), dep, null));
+				}
+			}
+
+			for (String blocker : a.getBlockerNames()) {
+				if (!myArguments.containsKey(blocker)) {
+					res.add(new DefinitionError(DefinitionError.Kind.NO_SUCH_BLOCKER, a.getPrimaryName(), blocker, null));
+				}
+			}
+
+			hasBlockers |= myBlockers[a.getIndex()] != null;
+		}
+
+		if (hasBlockers) {
+			for (Argument a : myArgumentList) {
+				checkUsable(a, res);
+			}
+		}
+
+		return res.isEmpty() ? Collections.<DefinitionError>emptyList() : Collections.unmodifiableList(res);
+	}
+
+	/**
+	 * Checks that the argument doesn't require two arguments that are mutually exclusive.
+	 */
+	private void checkUsable(Argument argument, List<DefinitionError> errors) {
+		int index = argument.getIndex();
+
+		// All arguments that must be present when the argument is, including itself
+		BitSet required;
+
+		if (myDependencies[index] == null) {
+			required = null;
+		} else {
+			required = new BitSet(myArgumentList.length);
+			LinkedList<Integer> pending = new LinkedList<Integer>();
+			required.set(index);
+			pending.add(index);
+
+			while (!pending.isEmpty()) {
+				BitSet deps = myDependencies[pending.removeFirst()];
+				for (int i = deps == null ? -1 : deps.nextSetBit(0); i >= 0; i = deps.nextSetBit(i + 1)) {
+					if (!required.get(i)) {
+						required.set(i);
+						pending.add(i);
+					}
+				}
+			}
+		}
+
+		if (required == null) {
+			// Only itself is required
+			if (myBlockers[index] != null && myBlockers[index].get(index)) {
+				errors.add(new DefinitionError(DefinitionError.Kind.UNUSABLE, argument.getPrimaryName(), argument.getPrimaryName(), argument.getPrimaryName()));
+			}
+		} else {
+			boolean usable = true;
+			for (int i = required.nextSetBit(0); usable && i >= 0; i = required.nextSetBit(i + 1)) {
+				BitSet blockers = myBlockers[i];
+				if (blockers != null && blockers.intersects(required)) {
+					BitSet conflict = (BitSet) blockers.clone();
+					conflict.and(required);
+					errors.add(new DefinitionError(DefinitionError.Kind.UNUSABLE, argument.getPrimaryName(), myArgumentList[i].getPrimaryName(),
+							myArgumentList[conflict.nextSetBit(0)].getPrimaryName()));
+					usable = false;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds the arguments on the command line in a single pass over the tokens.
+	 * As the tokens are visited in order, the resulting positions are already sorted.
+	 *
+	 * @param arguments The arguments to find.
+	 * @return The positions of the arguments found
+	 */
+	ArgumentIndexes GetIndexes(final List<? extends CharSequence> arguments) {
+		ArgumentIndexes argumentIndexes = new ArgumentIndexes(myArgumentList.length);
+
+		for (int i = 0; i < arguments.size(); ++i) {
+			Argument a = myNameIndex.get(arguments.get(i));
+			if (a != null) {
+				argumentIndexes.hit(i, a);
+			}
+		}
+
+		return argumentIndexes;
+	}
+
+	/**
+	 * Gets the arguments that have been parsed, as bits over the argument indexes.
+	 */
+	private BitSet getPresent(ParseSession session) {
+		BitSet present = new BitSet(myArgumentList.length);
+		for (Argument a : myArgumentList) {
+			if (session.isSuccessFullyParsed(a)) {
+				present.set(a.getIndex());
+			}
+		}
+		return present;
+	}
+
+	private boolean checkDependencies(ParseSession session) {
+		BitSet present = getPresent(session);
+		BitSet absent = new BitSet(myArgumentList.length);
+		absent.set(0, myArgumentList.length);
+		absent.andNot(present);
+
+		// Fast path: no present argument depends on an absent one
+		boolean result = true;
+		for (int i = present.nextSetBit(0); result && i >= 0; i = present.nextSetBit(i + 1)) {
+			result = myDependencies[i] == null || !myDependencies[i].intersects(absent);
+		}
+
+		if (!result) {
+			// Slow path, find and report the problems
+			result = true;
+			for (Argument a : myArgumentList) {
+				result &= a.checkDependencies(session, myArguments);
+			}
+		}
+
+		return result;
+	}
+
+	private boolean checkMutualExclusion(ParseSession session) {
+		BitSet present = getPresent(session);
+
+		// Fast path: no present argument is blocked by another present one
+		boolean result = true;
+		for (int i = present.nextSetBit(0); result && i >= 0; i = present.nextSetBit(i + 1)) {
+			result = myBlockers[i] == null || !myBlockers[i].intersects(present);
+		}
+
+		if (!result) {
+			// Slow path, find and report the problems
+			result = checkMutualExclusionSlowPath(session);
+		}
+
+		return result;
+	}
+
+	private boolean checkMutualExclusionSlowPath(ParseSession session) {
+		boolean result = true;
+		// We don't want to check blockers 'a' -> 'b', then 'b' -> 'a' as that will give the same error message twice
+
+		HashMap<String, Argument> testAgainst = new HashMap<String, Argument>();
+		List<String> alreadyTested = new ArrayList<String>();
+		testAgainst.putAll(myArguments);
+
+		for (Argument arg : myArgumentList) {
+			boolean blocksFound = !arg.checkMutualExclusion(session, testAgainst, alreadyTested);
+			if (blocksFound) {
+				// Remove argument to prevent double checks
+				alreadyTested.add(arg.getPrimaryName());
+				testAgainst.remove(arg.getPrimaryName());
+			}
+			result &= !blocksFound;
+		}
+
+		return result;
+	}
+
+	boolean checkConstraints(ArgumentIndexes argumentIndexes, IParseResult messageParser) {
+		boolean res = true;
+
+		// Find all arguments duplicates
+		for (int i = 0; i < argumentIndexes.size(); ++i) {
+			if (argumentIndexes.getHitCount(i) > 1) {
+				// Same argument multiple times - that's bad
+				res = false;
+				messageParser.argumentSpecifiedMultipleTimes(argumentIndexes.getArgument(i).getPrimaryName());
+			}
+		}
+
+		return res;
+	}
+
+	/**
+	 * Checks that all mandatory arguments have been parsed
+	 *
+	 * @return true if ok, otherwise false.
+	 */
+	private boolean checkMandatory(ParseSession session) {
+		boolean result = true;
+		for (Argument a : myArgumentList) {
+			if (a.isMandatory() && !session.isSuccessFullyParsed(a)) {
+				session.getMessageParser().missingMandatoryArgument(a.getPrimaryName());
+				result = false;
+			}
+		}
+		return result;
+	}
+
+	private boolean fallbackToConfiguration(ParseSession session, IConfigurationReader cfgReader, String fileNameArgument) {
+		boolean res = true;
+
+		// Only attempt to load the config if we don't have a specific config argument, or if it has been specified on the command line.
+		if( fileNameArgument == null || session.getString(fileNameArgument) != null ) {
+			// Let each argument that has not already been successfully parsed based on the
+			// command line attempt a fallback to the configuration
+			if (cfgReader != null) {
+				for (Argument a : myArgumentList) {
+					if (!session.isSuccessFullyParsed(a)) {
+						res &= cfgReader.fillFromConfiguration(session, a);
+					}
+				}
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Removes empty arguments
+	 */
+	private void removeEmptyArguments(ArrayList<String> args) {
+		Iterator<String> curr = args.iterator();
+		while( curr.hasNext() ) {
+			String s = curr.next();
+			if( s.isEmpty() ) {
+				curr.remove();
+			}
+		}
+	}
+
+	/**
+	 * Gets a string describing the usage, suitable for printing to the console.
+	 */
+	public void getUsage(IUsageFormatter usage) {
+		// Print mandatory
+		for (Argument a : myArgumentList) {
+			if (a.isMandatory() && !a.isHidden()) {
+				usage.prepareMandatory(a.getPrimaryName(), a.hasVariableParameterCount(), a.getMaxArgumentCount(), a.getAliases(), a.getDependencyNames(), a.getDescription());
+			}
+		}
+
+		// Print non mandatory
+		for (Argument a : myArgumentList) {
+			if (!a.isMandatory() && !a.isHidden()) {
+				usage.prepareNonMandatory(a.getPrimaryName(), a.hasVariableParameterCount(), a.getMaxArgumentCount(), a.getAliases(), a.getDependencyNames(), a.getDescription());
+			}
+		}
+	}
+
+	/**
+	 * Gets a 64-bit hash of everything that defines the arguments, in their order. Specifications with the same
+	 * definitions have the same fingerprint, also across processes, so it can be used to key data derived from
+	 * the definitions, such as the usage text.
+	 */
+	public long getFingerprint() {
+		long res = myFingerprint;
+
+		if (res == 0) {
+			res = FNV_OFFSET;
+			for (Argument a : myArgumentList) {
+				res = hash(res, a.getNames());
+				res = hash(res, a.getDependencyNames());
+				res = hash(res, a.getBlockerNames());
+				res = hash(res, a.getDescription());
+				res = hash(res, a.getType() == null ? "" : a.getType().getClass().getName());
+				res = hash(res, a.getType() == null ? 0 : a.getType().getMinimumParameterCount());
+				res = hash(res, a.getType() == null ? 0 : a.getType().getMaxParameterCount());
+				res = hash(res, (a.isMandatory() ? 1 : 0) | (a.isHidden() ? 2 : 0) | (a.isHelpCommand() ? 4 : 0));
+			}
+
+			// 0 means not computed
+			res = res == 0 ? 1 : res;
+			myFingerprint = res;
+		}
+
+		return res;
+	}
+
+	/**
+	 * FNV-1a, also hashing the number of items so that lists can't be confused with each other.
+	 */
+	private static long hash(long hash, List<String> values) {
+		long res = hash(hash, values.size());
+		for (String s : values) {
+			res = hash(res, s);
+		}
+		return res;
+	}
+
+	private static long hash(long hash, String value) {
+		long res = hash(hash, value.length());
+		for (int i = 0; i < value.length(); ++i) {
+			res = (res ^ value.charAt(i)) * FNV_PRIME;
+		}
+		return res;
+	}
+
+	private static long hash(long hash, int value) {
+		long res = hash;
+		for (int shift = 0; shift < 32; shift += 8) {
+			res = (res ^ ((value >>> shift) & 0xff)) * FNV_PRIME;
+		}
+		return res;
+	}
+
+	Map<String, Argument> getArguments() {
+		return myArguments;
+	}
+
+	Argument[] getArgumentList() {
+		return myArgumentList;
+	}
+}
@@ -0,0 +1,139 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import cmdparser4j.limits.NumericLimit;
+import cmdparser4j.limits.UnboundIntegerLimit;
+
+import java.util.List;
+
+/**
+ * Parameter parsing for parsers generated by {@code cmdparser4j.processor.ParserGenerator}, behaving
+ * exactly as the corresponding types with their default limits. Not intended for any other use.
+ * <p/>
+ * An instance holds the value of the latest successful parse and is only to be used by a single parse.
+ */
+public final class ParserSupport {
+	private static final NumericLimit<Integer> ourIntegerLimit = new UnboundIntegerLimit();
+	private static final NumericLimit<Long> ourLongLimit = new NumericLimit<Long>(Long.MIN_VALUE, Long.MAX_VALUE);
+	private static final NumericLimit<Double> ourDoubleLimit = new NumericLimit<Double>(-Double.MAX_VALUE, Double.MAX_VALUE);
+	private static final NumericLimit<Float> ourFloatLimit = new NumericLimit<Float>(-Float.MAX_VALUE, Float.MAX_VALUE);
+
+	private final IntegralValue myIntegral = new IntegralValue();
+	private double myDouble;
+	private float myFloat;
+
+	/**
+	 * Removes empty arguments, as {@code ParserSpec.parse} does.
+	 *
+	 * @return {@code args} if there are no empty arguments, otherwise a copy without them.
+	 */
+	public static String[] removeEmptyArguments(String[] args) {
+		int count = 0;
+		for (String s : args) {
+			if (!s.isEmpty()) {
+				++count;
+			}
+		}
+
+		String[] res = args;
+
+		if (count < args.length) {
+			res = new String[count];
+			count = 0;
+			for (String s : args) {
+				if (!s.isEmpty()) {
+					res[count++] = s;
+				}
+			}
+		}
+
+		return res;
+	}
+
+	/**
+	 * Reports the tokens {@code from} (inclusive) to {@code to} (exclusive) as unknown arguments, as text only if
+	 * {@code messageParser} can't take the tokens.
+	 */
+	public static void unknownArguments(IParseResult messageParser, List<? extends CharSequence> args, int from, int to) {
+		if (messageParser instanceof IUnknownArgumentsResult) {
+			((IUnknownArgumentsResult) messageParser).unknownArguments(args, from, to);
+		} else {
+			messageParser.unknownArguments(args.subList(from, to).toString());
+		}
+	}
+
+	public boolean parseInteger(String primaryName, String parameter, IParseResult messageParser) {
+		return parseIntegral(primaryName, parameter, ourIntegerLimit, Integer.MIN_VALUE, Integer.MAX_VALUE, messageParser);
+	}
+
+	public boolean parseLong(String primaryName, String parameter, IParseResult messageParser) {
+		return parseIntegral(primaryName, parameter, ourLongLimit, Long.MIN_VALUE, Long.MAX_VALUE, messageParser);
+	}
+
+	private boolean parseIntegral(String primaryName, String parameter, NumericLimit<?> limit, long lower, long upper, IParseResult messageParser) {
+		int status = NumberParser.parse(parameter, NumberFormat.DECIMAL, lower, upper, myIntegral);
+
+		if (status == NumberParser.OUTSIDE_LIMITS) {
+			limit.reportLimitViolation(primaryName, messageParser);
+		}
+
+		return status == NumberParser.OK;
+	}
+
+	public boolean parseDouble(String primaryName, String parameter, IParseResult messageParser) {
+		boolean res = NumberParser.isDecimal(parameter);
+
+		if (res) {
+			myDouble = Double.parseDouble(parameter);
+			res = myDouble >= -Double.MAX_VALUE && myDouble <= Double.MAX_VALUE;
+
+			if (!res) {
+				ourDoubleLimit.reportLimitViolation(primaryName, messageParser);
+			}
+		}
+
+		return res;
+	}
+
+	public boolean parseFloat(String primaryName, String parameter, IParseResult messageParser) {
+		boolean res = NumberParser.isDecimal(parameter);
+
+		if (res) {
+			myFloat = Float.parseFloat(parameter);
+			res = myFloat >= -Float.MAX_VALUE && myFloat <= Float.MAX_VALUE;
+
+			if (!res) {
+				ourFloatLimit.reportLimitViolation(primaryName, messageParser);
+			}
+		}
+
+		return res;
+	}
+
+	public int getInt() {
+		return (int) myIntegral.myValue;
+	}
+
+	public long getLong() {
+		return myIntegral.myValue;
+	}
+
+	public double getDouble() {
+		return myDouble;
+	}
+
+	public float getFloat() {
+		return myFloat;
+	}
+
+	private static final class IntegralValue implements IntegralValues {
+		private long myValue;
+
+		@Override
+		public void addValue(long value) {
+			myValue = value;
+		}
+	}
+}
@@ -6,75 +6,229 @@ package cmdparser4j;
 import cmdparser4j.envelopes.IIntegerTypeEnvelope;
 import cmdparser4j.envelopes.IStringTypeEnvelope;
 import cmdparser4j.envelopes.IBooleanTypeEnvelope;
+import cmdparser4j.envelopes.IDoubleTypeEnvelope;
+import cmdparser4j.envelopes.IFloatTypeEnvelope;
+import cmdparser4j.envelopes.ILongTypeEnvelope;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds the values parsed during a single parse, indexed by the dense index of each argument.
+ */
+public class ResultEnvelope implements IStringTypeEnvelope, IBooleanTypeEnvelope, IIntegerTypeEnvelope,
+		ILongTypeEnvelope, IDoubleTypeEnvelope, IFloatTypeEnvelope {
+	private final Map<String, Argument> myArguments;
+	private final Argument[] myArgumentList;
+	private final List<?>[] myResults;
+
+	ResultEnvelope(Map<String, Argument> arguments, Argument[] argumentList) {
+		myArguments = arguments;
+		myArgumentList = argumentList;
+		myResults = new List<?>[argumentList.length];
+	}
+
+	@SuppressWarnings("unchecked")
+	private <ValueType> ValueType getValue(String primaryName, int index, ValueType defaultValue, Class<? extends BaseType> type) {
+		ValueType res = defaultValue;
+		List<?> results = getResults(primaryName, type);
 
-import java.util.HashMap;
+		if (results != null && index >= 0 && index < results.size()) {
+			res = (ValueType) results.get(index);
+		}
+		return res;
+	}
 
-public class ResultEnvelope implements IStringTypeEnvelope, IBooleanTypeEnvelope, IIntegerTypeEnvelope {
-	private final HashMap<String, StringType> myStringResults = new HashMap<String, StringType>();
-	private final HashMap<String, BooleanType> myBooleanResults = new HashMap<String, BooleanType>();
-	private final HashMap<String, IntegerType> myIntegerResults = new HashMap<String, IntegerType>();
+	/**
+	 * Gets the parsed values for the argument, provided it is of the given type.
+	 */
+	private List<?> getResults(String primaryName, Class<? extends BaseType> type) {
+		List<?> res = null;
+		Argument a = myArguments.get(primaryName);
 
-	private <ArgumentType extends BaseType, ValueType> ValueType getValue(String primaryName, int index, ValueType defaultValue, HashMap<String, ArgumentType> map) {
-		ValueType res = defaultValue;
-		ArgumentType a = map.get(primaryName);
+		if (a != null && type.isInstance(a.getType())) {
+			res = myResults[a.getIndex()];
+		}
 
-		if (a != null) {
-			res = (ValueType) a.getResult(index, defaultValue);
+		return res;
+	}
+
+	/**
+	 * Gets the parsed values for the argument at {@code slot}, provided it is the named argument and of the given type.
+	 * Falls back to looking the argument up by name if the slot belongs to another argument.
+	 */
+	List<?> get(int slot, String primaryName, Class<? extends BaseType> type) {
+		List<?> res;
+
+		if (slot >= 0 && slot < myArgumentList.length && myArgumentList[slot].getPrimaryName().equals(primaryName)) {
+			res = type.isInstance(myArgumentList[slot].getType()) ? myResults[slot] : null;
+		} else {
+			res = getResults(primaryName, type);
 		}
+
 		return res;
 	}
 
+	Argument getArgument(String primaryName) {
+		return myArguments.get(primaryName);
+	}
+
+	void set(Argument argument, List<?> results) {
+		myResults[argument.getIndex()] = results;
+	}
+
+	List<?> get(Argument argument) {
+		return myResults[argument.getIndex()];
+	}
+
+	boolean isSet(Argument argument) {
+		return myResults[argument.getIndex()] != null;
+	}
+
 	public int getAvailableStringParameterCount(String primaryName) {
-		return getAvailableParameterCount(primaryName, myStringResults);
+		return getAvailableParameterCount(primaryName, StringType.class);
 	}
 
 	public int getAvailableBooleanParameterCount(String primaryName) {
-		return getAvailableParameterCount(primaryName, myBooleanResults);
+		return getAvailableParameterCount(primaryName, BooleanType.class);
 	}
 
 	public int getAvailableIntegerParameterCount(String primaryName) {
-		return getAvailableParameterCount(primaryName, myIntegerResults);
+		return getAvailableParameterCount(primaryName, IntegerType.class);
+	}
+
+	public int getAvailableLongParameterCount(String primaryName) {
+		return getAvailableParameterCount(primaryName, LongType.class);
+	}
+
+	public int getAvailableDoubleParameterCount(String primaryName) {
+		return getAvailableParameterCount(primaryName, DoubleType.class);
 	}
 
-	private int getAvailableParameterCount(String primaryName, HashMap<String, ? extends BaseType> map) {
+	public int getAvailableFloatParameterCount(String primaryName) {
+		return getAvailableParameterCount(primaryName, FloatType.class);
+	}
+
+	private int getAvailableParameterCount(String primaryName, Class<? extends BaseType> type) {
 		int res = 0;
-		BaseType t = map.get(primaryName);
+		List<?> results = getResults(primaryName, type);
 
-		if (t != null) {
-			res = t.getAvailableParameterCount();
+		if (results != null) {
+			res = results.size();
 		}
 
 		return res;
 	}
 
-
 	@Override
-	public void add(String primaryName, StringType type) {
-		myStringResults.put(primaryName, type);
+	@SuppressWarnings("unchecked")
+	public String get(String primaryName, int index, String defaultValue) {
+		String res = defaultValue;
+		List<CharSequence> results = (List<CharSequence>) getResults(primaryName, StringType.class);
+
+		if (results != null && index >= 0 && index < results.size()) {
+			res = results.get(index).toString();
+			// Keep the string so that it is only created once.
+			results.set(index, res);
+		}
+
+		return res;
 	}
 
 	@Override
-	public String get(String primaryName, int index, String defaultValue) {
-		return getValue(primaryName, index, defaultValue, myStringResults);
+	public boolean get(String primaryName, int index, boolean defaultValue) {
+		return getValue(primaryName, index, defaultValue, BooleanType.class);
 	}
 
 	@Override
-	public void add(String primaryName, BooleanType type) {
-		myBooleanResults.put(primaryName, type);
+	public int get(String primaryName, int index, int defaultValue) {
+		int res = defaultValue;
+		IntList results = (IntList) getResults(primaryName, IntegerType.class);
+
+		if (results != null && index >= 0 && index < results.size()) {
+			res = results.getInt(index);
+		}
+
+		return res;
+	}
+
+	/**
+	 * Gets all the integer parameters of the argument.
+	 *
+	 * @param primaryName The argument name
+	 * @return A copy of the parameters, empty if there are none
+	 */
+	public int[] getIntegers(String primaryName) {
+		IntList results = (IntList) getResults(primaryName, IntegerType.class);
+		return results == null ? new int[0] : results.toIntArray();
 	}
 
 	@Override
-	public boolean get(String primaryName, int index, boolean defaultValue) {
-		return getValue(primaryName, index, defaultValue, myBooleanResults);
+	public long get(String primaryName, int index, long defaultValue) {
+		long res = defaultValue;
+		LongList results = (LongList) getResults(primaryName, LongType.class);
+
+		if (results != null && index >= 0 && index < results.size()) {
+			res = results.getLong(index);
+		}
+
+		return res;
+	}
+
+	/**
+	 * Gets all the long parameters of the argument.
+	 *
+	 * @param primaryName The argument name
+	 * @return A copy of the parameters, empty if there are none
+	 */
+	public long[] getLongs(String primaryName) {
+		LongList results = (LongList) getResults(primaryName, LongType.class);
+		return results == null ? new long[0] : results.toLongArray();
 	}
 
 	@Override
-	public void add(String primaryName, IntegerType type) {
-		myIntegerResults.put(primaryName, type);
+	public double get(String primaryName, int index, double defaultValue) {
+		double res = defaultValue;
+		DoubleList results = (DoubleList) getResults(primaryName, DoubleType.class);
+
+		if (results != null && index >= 0 && index < results.size()) {
+			res = results.getDouble(index);
+		}
+
+		return res;
+	}
+
+	/**
+	 * Gets all the double parameters of the argument.
+	 *
+	 * @param primaryName The argument name
+	 * @return A copy of the parameters, empty if there are none
+	 */
+	public double[] getDoubles(String primaryName) {
+		DoubleList results = (DoubleList) getResults(primaryName, DoubleType.class);
+		return results == null ? new double[0] : results.toDoubleArray();
 	}
 
 	@Override
-	public int get(String primaryName, int index, int defaultValue) {
-		return getValue(primaryName, index, defaultValue, myIntegerResults);
+	public float get(String primaryName, int index, float defaultValue) {
+		float res = defaultValue;
+		FloatList results = (FloatList) getResults(primaryName, FloatType.class);
+
+		if (results != null && index >= 0 && index < results.size()) {
+			res = results.getFloat(index);
+		}
+
+		return res;
+	}
+
+	/**
+	 * Gets all the float parameters of the argument.
+	 *
+	 * @param primaryName The argument name
+	 * @return A copy of the parameters, empty if there are none
+	 */
+	public float[] getFloats(String primaryName) {
+		FloatList results = (FloatList) getResults(primaryName, FloatType.class);
+		return results == null ? new float[0] : results.toFloatArray();
 	}
 }
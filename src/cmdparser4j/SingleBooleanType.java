@@ -3,14 +3,23 @@
 
 package cmdparser4j;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class SingleBooleanType extends BooleanType {
-	public SingleBooleanType(CmdParser4J parser, Argument argument) {
-		super(parser, argument, 0, 0);
-		myResults.add(true);
+	public SingleBooleanType() {
+		super(0, 0);
+	}
+
+	@Override
+	protected List<Boolean> createResults() {
+		List<Boolean> results = new ArrayList<Boolean>();
+		results.add(true);
+		return results;
 	}
 
 	@Override
-	public boolean isSuccessFullyParsed() {
+	boolean isSuccessFullyParsed(int parameterCount) {
 		return true;
 	}
 }
@@ -0,0 +1,343 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import cmdparser4j.XMLConfigurationReader.NodeMatcher;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.*;
+
+/**
+ * Reads argument values from XML data in a single streaming pass, without building a document.
+ * All matchers are compiled into one tree of element names that is followed while the data is read,
+ * so only the matched values are kept in memory. This makes it suitable for very large configurations.
+ * <p/>
+ * The matchers are the same as for {@code XMLConfigurationReader}, but their paths are limited to
+ * absolute element paths, such as "/Settings/First", where "*" matches any element.
+ * As with {@code XMLConfigurationReader}, the values of an argument are in document order of the start tags of
+ * the matched elements, and the text of an element includes the text of its descendants.
+ * <p/>
+ * Once its matchers are set and its data is loaded, a reader may be shared by concurrent parses.
+ */
+public class StreamingXMLConfigurationReader implements IConfigurationReader, IValueSource {
+
+	/**
+	 * A step in the tree of element names built from the matcher paths.
+	 */
+	private static class PathNode {
+		private final HashMap<String, PathNode> myChildren = new HashMap<String, PathNode>();
+		private PathNode myAnyChild = null;
+		private final List<String> myArguments = new ArrayList<String>();
+
+		PathNode add(String name) {
+			PathNode res;
+
+			if ("*".equals(name)) {
+				if (myAnyChild == null) {
+					myAnyChild = new PathNode();
+				}
+				res = myAnyChild;
+			} else {
+				res = myChildren.get(name);
+				if (res == null) {
+					res = new PathNode();
+					myChildren.put(name, res);
+				}
+			}
+
+			return res;
+		}
+
+		void next(String name, List<PathNode> output) {
+			PathNode n = myChildren.get(name);
+			if (n != null) {
+				output.add(n);
+			}
+			if (myAnyChild != null) {
+				output.add(myAnyChild);
+			}
+		}
+	}
+
+	/**
+	 * The text of a matched element, collected until the element ends. Its place among the values is
+	 * reserved when the element starts, so that the values are in the order of the start tags.
+	 */
+	private static class TextCapture {
+		private final List<String> myOutput;
+		private final int myIndex;
+		private final int myDepth;
+		private final StringBuilder myText = new StringBuilder();
+
+		TextCapture(List<String> output, int depth) {
+			myOutput = output;
+			myIndex = output.size();
+			myDepth = depth;
+			output.add(null);
+		}
+
+		/**
+		 * Puts the text in its place, or gives up the place if there is no text. Any capture that started
+		 * later in the same output is nested in this one and has already ended, so no open capture is moved.
+		 */
+		void end() {
+			if (myText.length() > 0) {
+				myOutput.set(myIndex, myText.toString());
+			} else {
+				myOutput.remove(myIndex);
+			}
+		}
+	}
+
+	private final HashMap<String, NodeMatcher> myMatcher = new HashMap<String, NodeMatcher>();
+	private final IParseResult myResult;
+	// The source of the data, guarded by this.
+	private String myXmlData = null;
+	private File myFile = null;
+	// The values of each argument with a matcher; null for matchers that can't be used.
+	// Replaced as a whole, null until the data has been read with the current matchers.
+	private volatile Map<String, List<String>> myValues = null;
+
+	public StreamingXMLConfigurationReader(IParseResult parseResult) {
+		myResult = parseResult;
+	}
+
+	public StreamingXMLConfigurationReader(String xmlData, IParseResult parseResult) {
+		myXmlData = xmlData;
+		myResult = parseResult;
+	}
+
+	public synchronized void setMatcher(String primaryArgumentName, NodeMatcher matcher) {
+		myMatcher.put(primaryArgumentName, matcher);
+		myValues = null;
+	}
+
+	@Override
+	public boolean fillFromConfiguration(ParseSession session, Argument argument) {
+		boolean res = true;
+
+		Map<String, List<String>> allValues = myValues;
+		if (allValues == null) {
+			allValues = readValues();
+		}
+
+		if (allValues == null) {
+			// Can't do anything if we have no data.
+			res = false;
+		} else if (allValues.containsKey(argument.getPrimaryName())) {
+			List<String> values = allValues.get(argument.getPrimaryName());
+
+			if (values == null) {
+				res = false;
+			} else {
+				List<String> data = new ArrayList<String>(values.size() + 1);
+				// The name of the argument must be the first item in array of items to parse
+				data.add(argument.getPrimaryName());
+				data.addAll(values);
+				res = argument.parse(session, data);
+			}
+		}
+
+		return res;
+	}
+
+	@Override
+	public List<String> getValues(String primaryArgumentName) {
+		Map<String, List<String>> allValues = myValues;
+		if (allValues == null) {
+			allValues = readValues();
+		}
+
+		List<String> res = allValues == null ? null : allValues.get(primaryArgumentName);
+		return res == null ? null : Collections.unmodifiableList(res);
+	}
+
+	@Override
+	public boolean loadFromFile(String pathToFile) {
+		boolean res = false;
+		File file = new File(pathToFile);
+
+		if (file.exists()) {
+			synchronized (this) {
+				myFile = file;
+				myXmlData = null;
+				myValues = null;
+				res = readValues() != null;
+			}
+		}
+
+		return res;
+	}
+
+	/**
+	 * Reads the values for all matchers in one pass over the data.
+	 *
+	 * @return The values, or null if there is no data or it could not be read.
+	 */
+	private synchronized Map<String, List<String>> readValues() {
+		Map<String, List<String>> res = myValues;
+
+		if (res == null && (myXmlData != null || myFile != null)) {
+			HashMap<String, List<String>> values = new HashMap<String, List<String>>();
+			PathNode root = compile(values);
+
+			InputStream input = null;
+			XMLStreamReader reader = null;
+
+			try {
+				XMLInputFactory factory = XMLFactories.getInputFactory();
+
+				if (myFile != null) {
+					input = new BufferedInputStream(new FileInputStream(myFile));
+					reader = factory.createXMLStreamReader(input);
+				} else {
+					reader = factory.createXMLStreamReader(new StringReader(myXmlData));
+				}
+
+				read(reader, root, values);
+				res = Collections.unmodifiableMap(values);
+				myValues = res;
+			} catch (Exception ex) {
+				myResult.exception(ex);
+				res = null;
+			} finally {
+				close(reader, input);
+			}
+		}
+
+		return res;
+	}
+
+	/**
+	 * Builds the tree of element names from the matcher paths.
+	 * Each argument whose path can be followed gets an empty list to receive its values.
+	 */
+	private PathNode compile(Map<String, List<String>> values) {
+		PathNode root = new PathNode();
+
+		for (Map.Entry<String, NodeMatcher> entry : myMatcher.entrySet()) {
+			String path = entry.getValue().getPath();
+
+			if (isSupportedPath(path)) {
+				PathNode node = root;
+				for (String step : path.substring(1).split("/")) {
+					node = node.add(step);
+				}
+				node.myArguments.add(entry.getKey());
+				values.put(entry.getKey(), new ArrayList<String>());
+			} else {
+				myResult.exception(new IllegalArgumentException("Path can't be streamed: " + path));
+				values.put(entry.getKey(), null);
+			}
+		}
+
+		return root;
+	}
+
+	private static boolean isSupportedPath(String path) {
+		boolean res = path.length() > 1 && path.charAt(0) == '/' && !path.endsWith("/");
+
+		for (int i = 1; res && i < path.length(); ++i) {
+			char c = path.charAt(i);
+			res = (c == '/' && path.charAt(i - 1) != '/')
+					|| c == '*'
+					|| c == '-' || c == '_' || c == '.'
+					|| Character.isLetterOrDigit(c);
+		}
+
+		return res;
+	}
+
+	private void read(XMLStreamReader reader, PathNode root, Map<String, List<String>> values) throws XMLStreamException {
+		// The tree nodes matching the current element, one entry per depth
+		ArrayList<List<PathNode>> active = new ArrayList<List<PathNode>>();
+		active.add(Collections.singletonList(root));
+		ArrayList<TextCapture> captures = new ArrayList<TextCapture>();
+
+		while (reader.hasNext()) {
+			switch (reader.next()) {
+				case XMLStreamConstants.START_ELEMENT: {
+					List<PathNode> current = active.get(active.size() - 1);
+					List<PathNode> next = current.isEmpty() ? Collections.<PathNode>emptyList() : new ArrayList<PathNode>(2);
+
+					for (PathNode n : current) {
+						n.next(reader.getLocalName(), next);
+					}
+
+					active.add(next);
+
+					for (PathNode n : next) {
+						for (String argument : n.myArguments) {
+							match(reader, myMatcher.get(argument), values.get(argument), active.size(), captures);
+						}
+					}
+					break;
+				}
+				case XMLStreamConstants.CHARACTERS:
+				case XMLStreamConstants.CDATA:
+				case XMLStreamConstants.SPACE:
+					for (TextCapture c : captures) {
+						c.myText.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+					}
+					break;
+				case XMLStreamConstants.END_ELEMENT: {
+					for (int i = captures.size() - 1; i >= 0 && captures.get(i).myDepth == active.size(); --i) {
+						captures.remove(i).end();
+					}
+					active.remove(active.size() - 1);
+					break;
+				}
+				default:
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Applies the attribute rules of the matcher to the current element,
+	 * the same way {@code NodeMatcher.Match} does for a node in a document.
+	 */
+	private static void match(XMLStreamReader reader, NodeMatcher matcher, List<String> output, int depth, List<TextCapture> captures) {
+		boolean matches = true;
+
+		// Match using attribute name/value pair?
+		if (matcher.getMatchAttribute().length() > 0) {
+			matches = matcher.getMatchAttributeValue().equals(reader.getAttributeValue(null, matcher.getMatchAttribute()));
+		}
+
+		if (matches) {
+			if (matcher.getValueName().length() == 0) {
+				// Read the child data, e.g. <Node>THE DATA</Node>
+				captures.add(new TextCapture(output, depth));
+			} else {
+				// We want to read the value of the attribute
+				String value = reader.getAttributeValue(null, matcher.getValueName());
+				if (value != null) {
+					output.add(value);
+				}
+			}
+		}
+	}
+
+	private void close(XMLStreamReader reader, InputStream input) {
+		try {
+			if (reader != null) {
+				reader.close();
+			}
+			if (input != null) {
+				input.close();
+			}
+		} catch (Exception ex) {
+			myResult.exception(ex);
+		}
+	}
+}
@@ -0,0 +1,63 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import java.util.List;
+
+/**
+ * A handle to a string argument, see {@code ArgumentHandle}.
+ */
+public final class StringArg extends ArgumentHandle {
+	StringArg(Argument argument) {
+		super(argument, StringType.class);
+	}
+
+	/**
+	 * Gets the first parameter of the argument.
+	 *
+	 * @param session The parse to read from
+	 * @return The parameter value, or null if not found
+	 */
+	public String get(ParseSession session) {
+		return get(session, 0, null);
+	}
+
+	/**
+	 * Gets the parameter at {@code index}.
+	 *
+	 * @param session      The parse to read from
+	 * @param index        The index
+	 * @param defaultValue The default value
+	 * @return The parameter value, or {@code defaultValue} if not found
+	 */
+	@SuppressWarnings("unchecked")
+	public String get(ParseSession session, int index, String defaultValue) {
+		String res = defaultValue;
+		List<CharSequence> results = (List<CharSequence>) getResults(session);
+
+		if (results != null && index >= 0 && index < results.size()) {
+			res = results.get(index).toString();
+			// Keep the string so that it is only created once.
+			results.set(index, res);
+		}
+
+		return res;
+	}
+
+	/**
+	 * Gets all the parameters of the argument.
+	 *
+	 * @param session The parse to read from
+	 * @return A copy of the parameters, empty if there are none
+	 */
+	public String[] getAll(ParseSession session) {
+		String[] res = new String[count(session)];
+
+		for (int i = 0; i < res.length; ++i) {
+			res[i] = get(session, i, null);
+		}
+
+		return res;
+	}
+}
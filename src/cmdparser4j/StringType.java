@@ -5,40 +5,38 @@ package cmdparser4j;
 
 import cmdparser4j.limits.StringLengthLimit;
 
+import java.util.List;
+
 /**
  * Parameter type string
+ * The parameters are kept as they were given; a {@code String} is only created when the value is read.
  * Created by Per Malmberg on 2015-12-05.
  */
-public class StringType extends BaseType<String, Integer> {
-	public StringType(CmdParser4J parser, Argument argument, int minParameterCount, int maxParameterCount, StringLengthLimit limit) {
-		super(parser, argument, minParameterCount, maxParameterCount, limit);
+public class StringType extends BaseType<CharSequence, Integer> {
+	public StringType(int minParameterCount, int maxParameterCount, StringLengthLimit limit) {
+		super(minParameterCount, maxParameterCount, limit);
 	}
 
 	@Override
-	protected boolean doTypeParse(String parameter) {
+	protected boolean doTypeParse(String primaryName, CharSequence parameter, List<CharSequence> results, IParseResult messageParser) {
 
 		boolean res = parameter != null && parameter.length() > 0;
 		if (res) {
-			myResults.add(parameter);
+			results.add(parameter);
 		}
 
 		return res;
 	}
 
 	@Override
-	void retrieveResult(CmdParser4J cmdParser) {
-		cmdParser.setResult(myArgument.getPrimaryName(), this);
-	}
-
-	@Override
-	protected boolean checkLimits() {
+	protected boolean checkLimits(String primaryName, List<CharSequence> results, IParseResult messageParser) {
 		boolean res= true;
 
-		for( int i = 0; res && i < myResults.size(); ++i ) {
-			String v = myResults.get(i);
+		for( int i = 0; res && i < results.size(); ++i ) {
+			CharSequence v = results.get(i);
 			res = v.length() >= myLimit.getLower() && v.length() <= myLimit.getUpper();
 			if( !res ) {
-				myLimit.reportLimitViolation( myArgument.getPrimaryName(), myParser.getMessageParser());
+				myLimit.reportLimitViolation( primaryName, messageParser);
 			}
 		}
 
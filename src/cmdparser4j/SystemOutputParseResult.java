@@ -6,78 +6,157 @@ package cmdparser4j;
 import cmdparser4j.limits.NumericLimit;
 import cmdparser4j.limits.StringLengthLimit;
 
-public class SystemOutputParseResult implements IParseResult {
-	private StringBuilder sb = new StringBuilder();
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Collects the reported errors as a {@link ParseError} with its values and numbers. The text is only formatted
+ * when asked for, so checking the outcome of a parse costs little more than storing a few references.
+ * Call {@link #clear()} to reuse the instance for another parse.
+ */
+public class SystemOutputParseResult implements IParseResult, IDefinitionResult, IUnknownArgumentsResult {
+	private static final String NEW_LINE = System.getProperty("line.separator");
+
+	// Per error: the code's ordinal, the first value and the first number
+	private int[] myErrors = new int[3 * 4];
+	private int myErrorCount = 0;
+	private Object[] myValues = new Object[8];
+	private int myValueCount = 0;
+	private long[] myNumbers = new long[2];
+	private int myNumberCount = 0;
+	// The formatted text, null until asked for after a change
+	private String myText = null;
+
+	private static final ParseError[] ERRORS = ParseError.values();
 
 	@Override
 	public void unknownArguments(String unknownArguments) {
-		appendLine("Unknown arguments on the command line: %s", unknownArguments);
+		add(ParseError.UNKNOWN_ARGUMENTS);
+		addValue(unknownArguments);
+	}
+
+	/**
+	 * Keeps the tokens, which are formatted as a list when the text is asked for.
+	 */
+	@Override
+	public void unknownArguments(List<? extends CharSequence> args, int from, int to) {
+		String[] tokens = new String[to - from];
+		for (int i = from; i < to; ++i) {
+			tokens[i - from] = args.get(i).toString();
+		}
+
+		add(ParseError.UNKNOWN_ARGUMENTS);
+		addValue(Collections.unmodifiableList(Arrays.asList(tokens)));
 	}
 
 	@Override
 	public void argumentSpecifiedMultipleTimes(String primaryName) {
-		appendLine("The argument '%s' is specified multiple times.", primaryName);
+		add(ParseError.ARGUMENT_SPECIFIED_MULTIPLE_TIMES);
+		addValue(primaryName);
 	}
 
 	@Override
 	public void missingMandatoryArgument(String primaryName) {
-		appendLine("The mandatory argument '%s' is missing", primaryName);
+		add(ParseError.MISSING_MANDATORY_ARGUMENT);
+		addValue(primaryName);
 	}
 
 	@Override
 	public String getParseResult() {
-		return sb.toString();
+		if (myText == null) {
+			StringBuilder sb = new StringBuilder();
+			int value = 0;
+			int number = 0;
+			for (int i = 0; i < myErrorCount; ++i) {
+				ParseError error = getError(i);
+				error.appendTo(sb, myValues, value, myNumbers, number);
+				sb.append(NEW_LINE);
+				value += error.getValueCount();
+				number += error.getNumberCount();
+			}
+			myText = sb.toString();
+		}
+
+		return myText;
 	}
 
 	@Override
 	public void noSuchArgumentDefined(String argument, String dependsOn) {
-		appendLine("Argument '%s' depends on '%s', but no such argument is defined - contact the author of the application", argument, dependsOn);
+		add(ParseError.NO_SUCH_ARGUMENT_DEFINED);
+		addValue(argument);
+		addValue(dependsOn);
 	}
 
 	@Override
 	public void missingDependentArgument(String primaryName, String dependsOn) {
-		appendLine("Argument '%s' depends on '%s', but the latter is missing", primaryName, dependsOn);
+		add(ParseError.MISSING_DEPENDENT_ARGUMENT);
+		addValue(primaryName);
+		addValue(dependsOn);
 	}
 
 	@Override
 	public void noSuchMutuallyExclusiveArgumentDefined(String primaryName, String blocker) {
-		appendLine("Argument '%s' is mutually exclusive to '%s', but no such argument is defined - contact the author of the application", primaryName, blocker);
+		add(ParseError.NO_SUCH_MUTUALLY_EXCLUSIVE_ARGUMENT_DEFINED);
+		addValue(primaryName);
+		addValue(blocker);
 	}
 
 	@Override
 	public void argumentsAreMutuallyExclusive(String first, String second) {
-		appendLine("Arguments '%s' and '%s' are mutually exclusive.", first, second);
+		add(ParseError.ARGUMENTS_ARE_MUTUALLY_EXCLUSIVE);
+		addValue(first);
+		addValue(second);
 	}
 
 	@Override
 	public void notEnoughParameters(String argumentName, int myMinParameterCount) {
-		appendLine("There are not enough parameters for the argument %s, %d wanted", argumentName, myMinParameterCount);
+		add(ParseError.NOT_ENOUGH_PARAMETERS);
+		addValue(argumentName);
+		addNumber(myMinParameterCount);
 	}
 
 	@Override
 	public void failedToParseArgument(String argumentName) {
-		appendLine("Parsing of argument '%s' failed", argumentName);
+		add(ParseError.FAILED_TO_PARSE_ARGUMENT);
+		addValue(argumentName);
+	}
+
+	@Override
+	public void unusableArgument(String primaryName, String first, String second) {
+		add(ParseError.UNUSABLE_ARGUMENT);
+		addValue(primaryName);
+		addValue(first);
+		addValue(second);
 	}
 
 	@Override
 	public void argumentMissingType(String primaryName) {
-		appendLine("'" + primaryName + "' is missing type information. This is a programming error - contact the author of the application");
+		add(ParseError.ARGUMENT_MISSING_TYPE);
+		addValue(primaryName);
 	}
 
 	@Override
 	public void failedToLoadConfiguration(String fileNameArgument)
 	{
-		appendLine("Could not load the configuration specified by argument '" + fileNameArgument + "'");
+		add(ParseError.FAILED_TO_LOAD_CONFIGURATION);
+		addValue(fileNameArgument);
 	}
 
 	@Override
 	public void outsideLimits(String primaryName, NumericLimit limit) {
-		appendLine("Parameter for argument '" + primaryName + "' is outside allowed limits of " + limit.getLower().toString() + " - " + limit.getUpper().toString() );
+		add(ParseError.OUTSIDE_LIMITS);
+		addValue(primaryName);
+		addValue(limit.getLower());
+		addValue(limit.getUpper());
 	}
 
 	@Override
 	public void outsideLimits(String primaryName, StringLengthLimit limit) {
-		appendLine("Parameter for argument '" + primaryName + "' is outside allowed lengths of " + limit.getLower().toString() + " - " + limit.getUpper().toString() );
+		add(ParseError.OUTSIDE_LENGTH_LIMITS);
+		addValue(primaryName);
+		addValue(limit.getLower());
+		addValue(limit.getUpper());
 	}
 
 	@Override
@@ -85,8 +164,96 @@ public class SystemOutputParseResult implements IParseResult {
 		// We don't log these at all as we give more user-friendly messages via other logs.
 	}
 
-	void appendLine(String format, Object... arguments) {
-		String msg = String.format(format, arguments);
-		sb.append(String.format("%s%n", msg)); // %n => newline
+	/**
+	 * @return The number of errors reported since created or cleared.
+	 */
+	public int getErrorCount() {
+		return myErrorCount;
+	}
+
+	/**
+	 * @param error The index of the error, in the order reported
+	 * @return The error
+	 */
+	public ParseError getError(int error) {
+		return ERRORS[myErrors[checkError(error) * 3]];
+	}
+
+	/**
+	 * @param error The index of the error, in the order reported
+	 * @param index The index of the value, less than {@code getError(error).getValueCount()}
+	 * @return The value, such as the name of an argument, a parameter or a limit. The unknown arguments found by
+	 * a parse are a {@code List<String>} of the tokens.
+	 */
+	public Object getValue(int error, int index) {
+		if (index < 0 || index >= getError(error).getValueCount()) {
+			throw new IndexOutOfBoundsException("Value " + index + " of error " + error);
+		}
+		return myValues[myErrors[error * 3 + 1] + index];
+	}
+
+	/**
+	 * @param error The index of the error, in the order reported
+	 * @param index The index of the number, less than {@code getError(error).getNumberCount()}
+	 * @return The number
+	 */
+	public long getNumber(int error, int index) {
+		if (index < 0 || index >= getError(error).getNumberCount()) {
+			throw new IndexOutOfBoundsException("Number " + index + " of error " + error);
+		}
+		return myNumbers[myErrors[error * 3 + 2] + index];
+	}
+
+	/**
+	 * Forgets all errors, keeping the buffers for the next parse.
+	 */
+	public void clear() {
+		for (int i = 0; i < myValueCount; ++i) {
+			myValues[i] = null;
+		}
+		myErrorCount = 0;
+		myValueCount = 0;
+		myNumberCount = 0;
+		myText = null;
+	}
+
+	private int checkError(int error) {
+		if (error < 0 || error >= myErrorCount) {
+			throw new IndexOutOfBoundsException("Error " + error + " of " + myErrorCount);
+		}
+		return error;
+	}
+
+	private void add(ParseError error) {
+		if (myErrorCount * 3 == myErrors.length) {
+			int[] errors = new int[myErrors.length * 2];
+			System.arraycopy(myErrors, 0, errors, 0, myErrors.length);
+			myErrors = errors;
+		}
+
+		int pos = myErrorCount * 3;
+		myErrors[pos] = error.ordinal();
+		myErrors[pos + 1] = myValueCount;
+		myErrors[pos + 2] = myNumberCount;
+		++myErrorCount;
+		myText = null;
+	}
+
+	private void addValue(Object value) {
+		if (myValueCount == myValues.length) {
+			Object[] v = new Object[myValues.length * 2];
+			System.arraycopy(myValues, 0, v, 0, myValueCount);
+			myValues = v;
+		}
+		myValues[myValueCount++] = value;
+	}
+
+	private void addNumber(long number) {
+		if (myNumberCount == myNumbers.length) {
+			long[] n = new long[myNumbers.length * 2];
+			System.arraycopy(myNumbers, 0, n, 0, myNumberCount);
+			myNumbers = n;
+		}
+		myNumbers[myNumberCount++] = number;
 	}
 }
@@ -3,9 +3,10 @@
 
 package cmdparser4j;
 
+import java.io.IOException;
 import java.util.*;
 
-public class SystemOutputUsageFormatter implements IUsageFormatter {
+public class SystemOutputUsageFormatter implements IUsageFormatter, IUsageWriter, IUsageKey {
 
 	private class DataContainer {
 		private String commandName;
@@ -44,18 +45,42 @@ public class SystemOutputUsageFormatter implements IUsageFormatter {
 	}
 
 	private HashMap<String, DataContainer> args = new HashMap<String, DataContainer>();
+	// The arguments sorted by name, created when first written and kept until another argument is prepared.
+	private DataContainer[] sorted = null;
 
-	private String strHeader;
+	private final String strHeader;
+	private final int width;
 	final private static int commandIndent = 2;
 	final private static int descriptionIndent = 35;
 	final private static int dependentIndent = 6;
+	final private static String newLine = System.getProperty("line.separator");
+	final private static String spaces = "                                                                ";
 
 	public SystemOutputUsageFormatter(String header) {
-		strHeader = String.format("%s%n", header);
+		this(header, 0);
 	}
 
-	private String repeat(char c, int n) {
-		return new String(new char[n]).replace('\0', c);
+	/**
+	 * @param header The first line of the usage text
+	 * @param width  The width to wrap descriptions to, such as the width of the terminal; 0 to not wrap.
+	 */
+	public SystemOutputUsageFormatter(String header, int width) {
+		strHeader = header;
+		this.width = width;
+	}
+
+	@Override
+	public String getUsageKey() {
+		return width + "|" + strHeader;
+	}
+
+	/**
+	 * Appends {@code n} spaces.
+	 */
+	private static void indent(Appendable out, int n) throws IOException {
+		for (int left = n; left > 0; left -= spaces.length()) {
+			out.append(spaces, 0, Math.min(left, spaces.length()));
+		}
 	}
 
 	@Override
@@ -90,7 +115,7 @@ public class SystemOutputUsageFormatter implements IUsageFormatter {
 		if (maxArgumentCount == Constructor.NO_PARAMETER_LIMIT) {
 			paramStr = " <arg1> ... <argN>";
 		} else if (hasVariableParameterCount) {
-			paramStr = String.format(" <arg1> [... <arg%d>]", maxArgumentCount);
+			paramStr = " <arg1> [... <arg" + maxArgumentCount + ">]";
 		} else {
 			strBuild.setLength(0); // Reset StringBuilder
 			for (int i = 0; i < maxArgumentCount; ++i) {
@@ -101,6 +126,7 @@ public class SystemOutputUsageFormatter implements IUsageFormatter {
 
 		DataContainer dataContainer = new DataContainer(primaryName, aliasStr, paramStr, description, dependencyNames);
 		args.put(primaryName, dataContainer);
+		sorted = null;
 	}
 
 	@Override
@@ -108,47 +134,108 @@ public class SystemOutputUsageFormatter implements IUsageFormatter {
 		FormatArgument(primaryName, hasVariableParameterCount, maxArgumentCount, aliases, dependencyNames, description);
 	}
 
-	@Override
-	public String toString() {
-		StringBuilder strBuild = new StringBuilder();
+	private DataContainer[] getSorted() {
+		if (sorted == null) {
+			SortedMap<String, DataContainer> byName = new TreeMap<String, DataContainer>(args);
+			sorted = byName.values().toArray(new DataContainer[byName.size()]);
+		}
 
-		strBuild.append(strHeader);
+		return sorted;
+	}
 
-		SortedSet<String> keys = new TreeSet<String>(args.keySet());
+	@Override
+	public void writeTo(Appendable out) throws IOException {
+		out.append(strHeader).append(newLine);
 
-		for (String key : keys) {
-			DataContainer dc = args.get(key);
-			strBuild.append(String.format("Command:%n"));
+		for (DataContainer dc : getSorted()) {
+			out.append("Command:").append(newLine);
 
-			strBuild.append(String.format("%s%s", repeat(' ', commandIndent), dc.getCommandName()));
+			indent(out, commandIndent);
+			out.append(dc.getCommandName());
 
 			int charCounter = dc.getCommandName().length() + commandIndent;
 
 			if (!dc.getAliases().isEmpty() && dc.getAliases() != null) {
-				strBuild.append(String.format(" %s", dc.getAliases()));
+				out.append(' ').append(dc.getAliases());
 				charCounter += dc.getAliases().length() + 1; // Add space
 			}
 			if (!dc.getParameters().isEmpty() && dc.getParameters() != null) {
-				strBuild.append(String.format(" %s", dc.getParameters()));
+				out.append(' ').append(dc.getParameters());
 				charCounter += dc.getParameters().length() + 1; // Add space
 			}
 
-			int tmpIndent = 0;
-			for (int i = charCounter; i < descriptionIndent; i++) {
-				tmpIndent += 1;
+			if (width > 0 && charCounter >= descriptionIndent) {
+				// Start the description on a line of its own, so that it can be wrapped
+				out.append(newLine);
+				charCounter = 0;
 			}
 
-			strBuild.append(String.format("%s%s%n", repeat(' ', tmpIndent), dc.getDescription()));
+			indent(out, descriptionIndent - charCounter);
+			writeDescription(out, dc.getDescription());
+			out.append(newLine);
 
 			if (dc.getDependencies().size() > 0) {
-				strBuild.append(String.format("%s%s%n%s", repeat(' ', dependentIndent), "Dependencies:", repeat(' ', dependentIndent)));
+				indent(out, dependentIndent);
+				out.append("Dependencies:").append(newLine);
+				indent(out, dependentIndent);
 
 				for (String dependency : dc.getDependencies()) {
-					strBuild.append(dependency + ' ');
+					out.append(dependency).append(' ');
 				}
-				strBuild.append(String.format("%n"));
+				out.append(newLine);
 			}
 		}
+	}
+
+	/**
+	 * Writes the description, which starts at the description column, wrapped to the width if there is one.
+	 */
+	private void writeDescription(Appendable out, String description) throws IOException {
+		int available = width - descriptionIndent;
+
+		if (width <= 0 || available <= 0 || description.length() <= available) {
+			out.append(description);
+		} else {
+			int lineStart = 0;
+			int length = description.length();
+
+			while (lineStart < length) {
+				int lineEnd = Math.min(lineStart + available, length);
+
+				if (lineEnd < length) {
+					// Break at the last space that fits, or in the middle of the word if there is none.
+					int space = description.lastIndexOf(' ', lineEnd);
+					if (space > lineStart) {
+						lineEnd = space;
+					}
+				}
+
+				out.append(description, lineStart, lineEnd);
+
+				// Skip the spaces at the break
+				lineStart = lineEnd;
+				while (lineStart < length && description.charAt(lineStart) == ' ') {
+					++lineStart;
+				}
+
+				if (lineStart < length) {
+					out.append(newLine);
+					indent(out, descriptionIndent);
+				}
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder strBuild = new StringBuilder();
+
+		try {
+			writeTo(strBuild);
+		} catch (IOException e) {
+			// StringBuilder never throws
+			throw new IllegalStateException(e);
+		}
 
 		return strBuild.toString();
 	}
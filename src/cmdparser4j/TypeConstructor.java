@@ -37,8 +37,9 @@ public class TypeConstructor {
 	 * @return The argument constructor
 	 */
 	public Constructor asBoolean(int minParameterCount, int maxParameterCount) {
-		myArg.setType(new BooleanType(myParser, myArg, minParameterCount, maxParameterCount));
-		return new Constructor(myArg);
+		myArg.setType(new BooleanType(minParameterCount, maxParameterCount));
+		myParser.definitionsChanged();
+		return new Constructor(myArg, myParser);
 	}
 
 	/**
@@ -48,8 +49,9 @@ public class TypeConstructor {
 	 * @return The argument constructor
 	 */
 	public Constructor asSingleBoolean() {
-		myArg.setType(new SingleBooleanType(myParser, myArg));
-		return new Constructor(myArg);
+		myArg.setType(new SingleBooleanType());
+		myParser.definitionsChanged();
+		return new Constructor(myArg, myParser);
 	}
 
 	/**
@@ -97,8 +99,9 @@ public class TypeConstructor {
 	 * @return The argument constructor
 	 */
 	public Constructor asString(int minParameterCount, int maxParameterCount, StringLengthLimit lengthLimit) {
-		myArg.setType(new StringType(myParser, myArg, minParameterCount, maxParameterCount, lengthLimit));
-		return new Constructor(myArg);
+		myArg.setType(new StringType(minParameterCount, maxParameterCount, lengthLimit));
+		myParser.definitionsChanged();
+		return new Constructor(myArg, myParser);
 	}
 
 	/**
@@ -134,7 +137,157 @@ public class TypeConstructor {
 	 * @return The argument constructor
 	 */
 	public Constructor asInteger(int minParameterCount, int maxParameterCount, NumericLimit<Integer> bounds) {
-		myArg.setType(new IntegerType(myParser, myArg, minParameterCount, maxParameterCount, bounds));
-		return new Constructor(myArg);
+		return asInteger(minParameterCount, maxParameterCount, bounds, NumberFormat.DECIMAL);
+	}
+
+	/**
+	 * Specifies that the argument takes {@code minParameterCount} to {@code maxParameterCount} number of parameters
+	 * of type integer, written in any of the given formats.
+	 *
+	 * @param minParameterCount Minimum number of parameters this argument requires
+	 * @param maxParameterCount Maximum number of parameters this argument accepts
+	 * @param bounds Min and maximum values, inclusive
+	 * @param format The accepted formats, see {@code NumberFormat}
+	 * @return The argument constructor
+	 */
+	public Constructor asInteger(int minParameterCount, int maxParameterCount, NumericLimit<Integer> bounds, int format) {
+		myArg.setType(new IntegerType(minParameterCount, maxParameterCount, bounds, format));
+		myParser.definitionsChanged();
+		return new Constructor(myArg, myParser);
+	}
+
+	/**
+	 * Specifies that the argument takes {@code parameterCount} number of parameters
+	 * of type long.
+	 *
+	 * @param parameterCount Number of parameters this argument requires
+	 * @return The argument constructor
+	 */
+	public Constructor asLong(int parameterCount) {
+		return asLong(parameterCount, parameterCount, Long.MIN_VALUE, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Specifies that the argument takes {@code parameterCount} number of parameters
+	 * of type long.
+	 *
+	 * @param parameterCount Number of parameters this argument requires
+	 * @param lower Min value, inclusive
+	 * @param upper Max value, inclusive
+	 * @return The argument constructor
+	 */
+	public Constructor asLong(int parameterCount, long lower, long upper) {
+		return asLong(parameterCount, parameterCount, lower, upper);
+	}
+
+	/**
+	 * Specifies that the argument takes {@code minParameterCount} to {@code maxParameterCount} number of parameters
+	 * of type long.
+	 *
+	 * @param minParameterCount Minimum number of parameters this argument requires
+	 * @param maxParameterCount Maximum number of parameters this argument accepts
+	 * @param lower Min value, inclusive
+	 * @param upper Max value, inclusive
+	 * @return The argument constructor
+	 */
+	public Constructor asLong(int minParameterCount, int maxParameterCount, long lower, long upper) {
+		return asLong(minParameterCount, maxParameterCount, lower, upper, NumberFormat.DECIMAL);
+	}
+
+	/**
+	 * Specifies that the argument takes {@code minParameterCount} to {@code maxParameterCount} number of parameters
+	 * of type long, written in any of the given formats.
+	 *
+	 * @param minParameterCount Minimum number of parameters this argument requires
+	 * @param maxParameterCount Maximum number of parameters this argument accepts
+	 * @param lower Min value, inclusive
+	 * @param upper Max value, inclusive
+	 * @param format The accepted formats, see {@code NumberFormat}
+	 * @return The argument constructor
+	 */
+	public Constructor asLong(int minParameterCount, int maxParameterCount, long lower, long upper, int format) {
+		myArg.setType(new LongType(minParameterCount, maxParameterCount, lower, upper, format));
+		myParser.definitionsChanged();
+		return new Constructor(myArg, myParser);
+	}
+
+	/**
+	 * Specifies that the argument takes {@code parameterCount} number of parameters
+	 * of type double.
+	 *
+	 * @param parameterCount Number of parameters this argument requires
+	 * @return The argument constructor
+	 */
+	public Constructor asDouble(int parameterCount) {
+		return asDouble(parameterCount, parameterCount, -Double.MAX_VALUE, Double.MAX_VALUE);
+	}
+
+	/**
+	 * Specifies that the argument takes {@code parameterCount} number of parameters
+	 * of type double.
+	 *
+	 * @param parameterCount Number of parameters this argument requires
+	 * @param lower Min value, inclusive
+	 * @param upper Max value, inclusive
+	 * @return The argument constructor
+	 */
+	public Constructor asDouble(int parameterCount, double lower, double upper) {
+		return asDouble(parameterCount, parameterCount, lower, upper);
+	}
+
+	/**
+	 * Specifies that the argument takes {@code minParameterCount} to {@code maxParameterCount} number of parameters
+	 * of type double.
+	 *
+	 * @param minParameterCount Minimum number of parameters this argument requires
+	 * @param maxParameterCount Maximum number of parameters this argument accepts
+	 * @param lower Min value, inclusive
+	 * @param upper Max value, inclusive
+	 * @return The argument constructor
+	 */
+	public Constructor asDouble(int minParameterCount, int maxParameterCount, double lower, double upper) {
+		myArg.setType(new DoubleType(minParameterCount, maxParameterCount, lower, upper));
+		myParser.definitionsChanged();
+		return new Constructor(myArg, myParser);
+	}
+
+	/**
+	 * Specifies that the argument takes {@code parameterCount} number of parameters
+	 * of type float.
+	 *
+	 * @param parameterCount Number of parameters this argument requires
+	 * @return The argument constructor
+	 */
+	public Constructor asFloat(int parameterCount) {
+		return asFloat(parameterCount, parameterCount, -Float.MAX_VALUE, Float.MAX_VALUE);
+	}
+
+	/**
+	 * Specifies that the argument takes {@code parameterCount} number of parameters
+	 * of type float.
+	 *
+	 * @param parameterCount Number of parameters this argument requires
+	 * @param lower Min value, inclusive
+	 * @param upper Max value, inclusive
+	 * @return The argument constructor
+	 */
+	public Constructor asFloat(int parameterCount, float lower, float upper) {
+		return asFloat(parameterCount, parameterCount, lower, upper);
+	}
+
+	/**
+	 * Specifies that the argument takes {@code minParameterCount} to {@code maxParameterCount} number of parameters
+	 * of type float.
+	 *
+	 * @param minParameterCount Minimum number of parameters this argument requires
+	 * @param maxParameterCount Maximum number of parameters this argument accepts
+	 * @param lower Min value, inclusive
+	 * @param upper Max value, inclusive
+	 * @return The argument constructor
+	 */
+	public Constructor asFloat(int minParameterCount, int maxParameterCount, float lower, float upper) {
+		myArg.setType(new FloatType(minParameterCount, maxParameterCount, lower, upper));
+		myParser.definitionsChanged();
+		return new Constructor(myArg, myParser);
 	}
 }
@@ -0,0 +1,194 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Keeps rendered usage texts so that the arguments only have to be formatted once.
+ * <p/>
+ * A text is kept per formatter class and settings, together with the fingerprint of the specification
+ * it was made from (see {@code ParserSpec.getFingerprint()}); a text made from other definitions is never returned.
+ * <p/>
+ * The texts can also be kept in a file, so that a new process can print the usage without formatting anything.
+ * The file is only a cache: if it can't be read or written, the usage is formatted as if there was no file.
+ */
+public class UsageCache {
+	private final File myFile;
+	private final HashMap<String, CachedUsage> myTexts = new HashMap<String, CachedUsage>();
+	private boolean myIsLoaded = false;
+
+	private static class CachedUsage {
+		final long fingerprint;
+		final String text;
+
+		CachedUsage(long fingerprint, String text) {
+			this.fingerprint = fingerprint;
+			this.text = text;
+		}
+	}
+
+	/**
+	 * Creates a cache kept in memory only.
+	 */
+	public UsageCache() {
+		this(null);
+	}
+
+	/**
+	 * @param file The file to keep the texts in, or null to keep them in memory only
+	 */
+	public UsageCache(File file) {
+		myFile = file;
+	}
+
+	/**
+	 * Creates a cache kept in a file next to the jar file, or class folder, that {@code anchor} was loaded from.
+	 * If that location can't be determined, the cache is kept in memory only.
+	 *
+	 * @param anchor   A class of the application
+	 * @param fileName The name of the file
+	 * @return The cache
+	 */
+	public static UsageCache nextTo(Class<?> anchor, String fileName) {
+		File file = null;
+
+		try {
+			URL location = anchor.getProtectionDomain().getCodeSource().getLocation();
+			File source = new File(location.toURI());
+			File dir = source.isDirectory() ? source : source.getParentFile();
+			if (dir != null) {
+				file = new File(dir, fileName);
+			}
+		} catch (Exception e) {
+			// No known location, e.g. a class without code source
+			file = null;
+		}
+
+		return new UsageCache(file);
+	}
+
+	/**
+	 * Gets the usage text of the specification. The text is only cached if the formatter implements
+	 * {@code IUsageKey}, since otherwise there is no telling which settings it was made with.
+	 *
+	 * @param spec  The specification
+	 * @param usage A formatter that no arguments have been prepared for. Only used if the text isn't cached.
+	 * @return The usage text
+	 */
+	public String getUsage(ParserSpec spec, IUsageFormatter usage) {
+		String res;
+
+		if (usage instanceof IUsageKey) {
+			res = getUsage(spec, usage, ((IUsageKey) usage).getUsageKey());
+		} else {
+			spec.getUsage(usage);
+			res = usage.toString();
+		}
+
+		return res;
+	}
+
+	/**
+	 * Gets the usage text of the specification.
+	 *
+	 * @param spec     The specification
+	 * @param usage    A formatter that no arguments have been prepared for. Only used if the text isn't cached.
+	 * @param settings Describes the settings of the formatter that affect the text, such as its header and width.
+	 *                 Formatters of the same class with the same settings must produce the same text.
+	 * @return The usage text
+	 */
+	public synchronized String getUsage(ParserSpec spec, IUsageFormatter usage, String settings) {
+		load();
+
+		String key = usage.getClass().getName() + "|" + settings;
+		long fingerprint = spec.getFingerprint();
+		CachedUsage cached = myTexts.get(key);
+
+		if (cached == null || cached.fingerprint != fingerprint) {
+			spec.getUsage(usage);
+			cached = new CachedUsage(fingerprint, usage.toString());
+			// Replaces any text made from earlier definitions
+			myTexts.put(key, cached);
+			save();
+		}
+
+		return cached.text;
+	}
+
+	/**
+	 * Reads the file, the first time the cache is used.
+	 */
+	private void load() {
+		if (!myIsLoaded && myFile != null && myFile.isFile()) {
+			Properties p = new Properties();
+
+			try {
+				Reader in = new InputStreamReader(new FileInputStream(myFile), "UTF-8");
+				try {
+					p.load(in);
+				} finally {
+					in.close();
+				}
+
+				for (Map.Entry<Object, Object> e : p.entrySet()) {
+					String value = e.getValue().toString();
+					int separator = value.indexOf(':');
+					if (separator > 0) {
+						long fingerprint = Long.parseLong(value.substring(0, separator), 16);
+						myTexts.put(e.getKey().toString(), new CachedUsage(fingerprint, value.substring(separator + 1)));
+					}
+				}
+			} catch (Exception e) {
+				// A broken file is the same as no file
+				myTexts.clear();
+			}
+		}
+
+		myIsLoaded = true;
+	}
+
+	/**
+	 * Writes all texts to the file, through a temporary file so that a concurrent reader never sees a partial file.
+	 */
+	private void save() {
+		if (myFile != null) {
+			Properties p = new Properties();
+			for (Map.Entry<String, CachedUsage> e : myTexts.entrySet()) {
+				p.setProperty(e.getKey(), Long.toString(e.getValue().fingerprint, 16) + ":" + e.getValue().text);
+			}
+
+			File tmp = new File(myFile.getPath() + ".tmp");
+
+			try {
+				Writer out = new OutputStreamWriter(new FileOutputStream(tmp), "UTF-8");
+				try {
+					p.store(out, "Usage texts cached by cmdparser4j.UsageCache");
+				} finally {
+					out.close();
+				}
+
+				if (!tmp.renameTo(myFile)) {
+					// Not atomic, but renameTo doesn't replace existing files on all platforms
+					myFile.delete();
+					tmp.renameTo(myFile);
+				}
+			} catch (IOException e) {
+				// The file is only a cache, so the text is still returned
+				tmp.delete();
+			}
+		}
+	}
+}
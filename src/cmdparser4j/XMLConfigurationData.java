@@ -0,0 +1,136 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import cmdparser4j.XMLConfigurationReader.NodeMatcher;
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Loaded XML data, the document parsed from it and the values found in it so far.
+ * The document is parsed the first time it is needed, except for memory-mapped files which are parsed when loaded.
+ * As the data never changes, the values selected by each matcher are kept. An instance may be shared between
+ * readers, see {@code ConfigurationCache}.
+ */
+class XMLConfigurationData {
+	// Files larger than this many bytes are memory-mapped when loaded.
+	static final long MAPPING_THRESHOLD = 1024 * 1024;
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private final int mySize;
+	// Guarded by this. Dropped once the document is parsed.
+	private ByteBuffer myData;
+	// Guarded by this
+	private Document myDocument = null;
+	private final IdentityHashMap<NodeMatcher, List<String>> myValues = new IdentityHashMap<NodeMatcher, List<String>>();
+
+	private XMLConfigurationData(ByteBuffer data) {
+		myData = data.asReadOnlyBuffer();
+		mySize = data.capacity();
+	}
+
+	XMLConfigurationData(String xmlData) {
+		this(ByteBuffer.wrap(xmlData.getBytes(UTF8)));
+	}
+
+	/**
+	 * Loads the data from a file. Files larger than {@code MAPPING_THRESHOLD} are memory-mapped rather than
+	 * read onto the heap, and are parsed directly from the mapping. That is done before returning, so that
+	 * the mapping isn't kept while the data is cached: the file could be rewritten under it, and on some
+	 * platforms a mapped file can't be replaced.
+	 *
+	 * @return The data, or null if the file is empty.
+	 * @throws IOException if the file can't be read, or a mapped file can't be parsed
+	 */
+	static XMLConfigurationData load(File file) throws IOException {
+		XMLConfigurationData res = null;
+		FileInputStream input = new FileInputStream(file);
+
+		try {
+			FileChannel channel = input.getChannel();
+			long size = channel.size();
+
+			if (size > 0) {
+				if (size > MAPPING_THRESHOLD) {
+					res = new XMLConfigurationData(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+					try {
+						// Drops the last reference to the mapping, which is released once collected
+						res.getDocument();
+					} catch (IOException e) {
+						throw e;
+					} catch (Exception e) {
+						throw new IOException("Failed to parse " + file, e);
+					}
+				} else {
+					ByteBuffer data = ByteBuffer.allocate((int) size);
+					// A read may return fewer bytes than requested, so read until the buffer is full.
+					while (data.hasRemaining() && channel.read(data) >= 0) {
+						// Keep reading
+					}
+					data.flip();
+					res = new XMLConfigurationData(data);
+				}
+			}
+		} finally {
+			input.close();
+		}
+
+		return res;
+	}
+
+	/**
+	 * Gets the values selected by the matcher.
+	 *
+	 * @param matcher    The matcher
+	 * @param expression The compiled path of the matcher
+	 * @return The values
+	 */
+	synchronized List<String> select(NodeMatcher matcher, XPathExpression expression) throws Exception {
+		List<String> res = myValues.get(matcher);
+
+		if (res == null) {
+			// Select the nodes in the XML tree
+			NodeList nodes = (NodeList) expression.evaluate(getDocument(), XPathConstants.NODESET);
+			res = new ArrayList<String>();
+
+			// Loop each found node and let the matcher decide if it is a match.
+			for (int i = 0; i < nodes.getLength(); ++i) {
+				matcher.Match(nodes.item(i), res);
+			}
+
+			myValues.put(matcher, res);
+		}
+
+		return res;
+	}
+
+	private synchronized Document getDocument() throws Exception {
+		if (myDocument == null) {
+			InputSource source = new InputSource(new ByteBufferInputStream(myData));
+			source.setEncoding(UTF8.name());
+			myDocument = XMLFactories.newDocumentBuilder().parse(source);
+			// The document holds everything that is needed from now on
+			myData = null;
+		}
+
+		return myDocument;
+	}
+
+	int size() {
+		return mySize;
+	}
+}
@@ -5,22 +5,24 @@ package cmdparser4j;
 
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
 
 import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.StringReader;
-import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 
-public class XMLConfigurationReader implements IConfigurationReader {
+/**
+ * Reads argument values from XML data, selecting nodes with XPath.
+ * The data is parsed once per load and each matcher path is compiled once. Files are loaded through a
+ * {@code ConfigurationCache}, so readers loading the same unchanged file share the data and the parsed document.
+ * Once its matchers are set and its data is loaded, a reader may be shared by concurrent parses.
+ */
+public class XMLConfigurationReader implements IConfigurationReader, IValueSource {
 
 	public static class NodeMatcher {
 
@@ -90,19 +92,50 @@ public class XMLConfigurationReader implements IConfigurationReader {
 			return mySearchPath;
 		}
 
+		String getValueName() {
+			return myValueName;
+		}
+
+		String getMatchAttribute() {
+			return myMatchAttribute;
+		}
+
+		String getMatchAttributeValue() {
+			return myMatchAttributeValue;
+		}
+
 		private String mySearchPath;
 		private String myValueName = "";
 		private String myMatchAttribute = "";
 		private String myMatchAttributeValue = "";
 	}
 
+	/**
+	 * Creates a reader that loads files through the shared {@code ConfigurationCache}.
+	 */
 	public XMLConfigurationReader(IParseResult parseResult) {
+		this(parseResult, ConfigurationCache.getShared());
+	}
+
+	/**
+	 * @param cache The cache to load files through, or null to always read them.
+	 */
+	public XMLConfigurationReader(IParseResult parseResult, ConfigurationCache cache) {
 		myResult = parseResult;
+		myCache = cache;
 	}
 
 	public XMLConfigurationReader(String xmlData, IParseResult parseResult) {
-		myData = xmlData.getBytes();
+		myData = new XMLConfigurationData(xmlData);
 		myResult = parseResult;
+		myCache = null;
+	}
+
+	/**
+	 * Gets the cache that files are loaded through, or null if there is none.
+	 */
+	ConfigurationCache getCache() {
+		return myCache;
 	}
 
 	public void setMatcher(String primaryArgumentName, NodeMatcher matcher) {
@@ -110,38 +143,27 @@ public class XMLConfigurationReader implements IConfigurationReader {
 	}
 
 	@Override
-	public boolean fillFromConfiguration(Argument argument) {
+	public boolean fillFromConfiguration(ParseSession session, Argument argument) {
 		boolean res = true;
 
-		if (myData == null) {
+		XMLConfigurationData xmlData = myData;
+
+		if (xmlData == null) {
 			// Can't do anything if we have no data.
 			res = false;
 		} else {
 			NodeMatcher matcher = myMatcher.get(argument.getPrimaryName());
 			if (matcher != null) {
-				List<String> data = new ArrayList<String>();
-				// The name of the argument must be the first item in array of items to parse
-				data.add(argument.getPrimaryName());
-
-				try {
-					// Select the node in the XML tree
-					XPath path = myXPathFactory.newXPath();
-					NodeList nodes = (NodeList) path.evaluate(matcher.getPath(), new InputSource(new StringReader(new String(myData, "UTF-8"))), XPathConstants.NODESET);
-
-					// Loop each found node and let the matcher decide if it is a match.
-					for (int i = 0; i < nodes.getLength(); ++i) {
-						Node n = nodes.item(i);
-						matcher.Match(n, data);
-					}
-
-					res = argument.parse(data);
+				List<String> values = getValues(xmlData, matcher);
 
-				} catch (XPathExpressionException ex) {
-					myResult.exception(ex);
-					res = false;
-				} catch (UnsupportedEncodingException ex) {
-					myResult.exception(ex);
+				if (values == null) {
 					res = false;
+				} else {
+					List<String> data = new ArrayList<String>(values.size() + 1);
+					// The name of the argument must be the first item in array of items to parse
+					data.add(argument.getPrimaryName());
+					data.addAll(values);
+					res = argument.parse(session, data);
 				}
 			}
 		}
@@ -149,18 +171,69 @@ public class XMLConfigurationReader implements IConfigurationReader {
 		return res;
 	}
 
+	@Override
+	public List<String> getValues(String primaryArgumentName) {
+		List<String> res = null;
+		XMLConfigurationData xmlData = myData;
+		NodeMatcher matcher = myMatcher.get(primaryArgumentName);
+
+		if (xmlData != null && matcher != null) {
+			res = getValues(xmlData, matcher);
+		}
+
+		return res == null ? null : Collections.unmodifiableList(res);
+	}
+
+	/**
+	 * Gets the values selected by the matcher. The data is parsed into a document the first time it is used
+	 * and the values of each matcher are kept, so that every argument doesn't parse the data again.
+	 *
+	 * @return The values, or null if the data or the path of the matcher could not be parsed.
+	 */
+	private synchronized List<String> getValues(XMLConfigurationData xmlData, NodeMatcher matcher) {
+		List<String> res = null;
+
+		try {
+			res = xmlData.select(matcher, getExpression(matcher));
+		} catch (Exception ex) {
+			myResult.exception(ex);
+			res = null;
+		}
+
+		return res;
+	}
+
+	/**
+	 * Gets the compiled path of the matcher. Paths don't depend on the data so they are kept across loads.
+	 * The XPath support is only loaded when the first path is compiled.
+	 */
+	private XPathExpression getExpression(NodeMatcher matcher) throws XPathExpressionException {
+		XPathExpression res = myExpressions.get(matcher);
+
+		if (res == null) {
+			if (myXPath == null) {
+				myXPath = XMLFactories.newXPath();
+			}
+			res = myXPath.compile(matcher.getPath());
+			myExpressions.put(matcher, res);
+		}
+
+		return res;
+	}
+
+	/**
+	 * Loads the data from a file, through the cache if there is one.
+	 * Large files are memory-mapped rather than read onto the heap.
+	 */
 	@Override
 	public boolean loadFromFile(String pathToFile) {
 		boolean res = false;
 
-		FileInputStream input = null;
-
 		try {
 			File file = new File(pathToFile);
 			if (file.exists()) {
-				input = new FileInputStream(pathToFile);
-				byte[] data = new byte[(int) file.length()];
-				if (input.read(data) > 0) {
+				XMLConfigurationData data = myCache == null ? XMLConfigurationData.load(file) : myCache.get(file);
+				if (data != null) {
 					myData = data;
 					res = true;
 				}
@@ -168,22 +241,17 @@ public class XMLConfigurationReader implements IConfigurationReader {
 		} catch (Exception e) {
 			myResult.exception(e);
 			res = false;
-		} finally {
-			if (input != null) {
-				try {
-					input.close();
-				} catch (Exception ex) {
-					myResult.exception(ex);
-				}
-			}
 		}
 
 		return res;
 	}
 
 	private final HashMap<String, NodeMatcher> myMatcher = new HashMap<String, NodeMatcher>();
-	private final XPathFactory myXPathFactory = XPathFactory.newInstance();
-	private byte[] myData = null;
+	// Replaced as a whole on load so that concurrent parses see either the old or the new data.
+	private volatile XMLConfigurationData myData = null;
+	private final ConfigurationCache myCache;
+	private final IdentityHashMap<NodeMatcher, XPathExpression> myExpressions = new IdentityHashMap<NodeMatcher, XPathExpression>();
+	private XPath myXPath = null;
 	private final IParseResult myResult;
 
 }
@@ -0,0 +1,66 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathFactory;
+
+/**
+ * The JAXP factories used by the XML readers. Looking up a factory goes through the service loader and
+ * loads much of the XML implementation, so each factory is only created when first needed and then kept
+ * per thread, as the factories aren't thread safe.
+ * <p/>
+ * Kept apart from the readers so that creating a reader loads none of the XML implementation.
+ */
+final class XMLFactories {
+	private static final ThreadLocal<XPathFactory> ourXPathFactory = new ThreadLocal<XPathFactory>() {
+		@Override
+		protected XPathFactory initialValue() {
+			return XPathFactory.newInstance();
+		}
+	};
+
+	private static final ThreadLocal<DocumentBuilderFactory> ourDocumentBuilderFactory = new ThreadLocal<DocumentBuilderFactory>() {
+		@Override
+		protected DocumentBuilderFactory initialValue() {
+			DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+			factory.setNamespaceAware(true);
+			return factory;
+		}
+	};
+
+	private static final ThreadLocal<XMLInputFactory> ourInputFactory = new ThreadLocal<XMLInputFactory>() {
+		@Override
+		protected XMLInputFactory initialValue() {
+			XMLInputFactory factory = XMLInputFactory.newInstance();
+			factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+			return factory;
+		}
+	};
+
+	private XMLFactories() {
+	}
+
+	static XPath newXPath() {
+		return ourXPathFactory.get().newXPath();
+	}
+
+	/**
+	 * Creates a namespace aware document builder.
+	 */
+	static DocumentBuilder newDocumentBuilder() throws ParserConfigurationException {
+		return ourDocumentBuilderFactory.get().newDocumentBuilder();
+	}
+
+	/**
+	 * Gets the coalescing stream input factory of the current thread.
+	 */
+	static XMLInputFactory getInputFactory() {
+		return ourInputFactory.get();
+	}
+}
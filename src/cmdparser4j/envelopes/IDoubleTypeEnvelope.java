@@ -0,0 +1,8 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j.envelopes;
+
+public interface IDoubleTypeEnvelope {
+	double get(String primaryName, int index, double defaultValue);
+}
@@ -0,0 +1,565 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j.processor;
+
+import cmdparser4j.GenerateParser;
+import cmdparser4j.Option;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Annotation processor generating a dedicated parser for each class marked with {@code GenerateParser}.
+ * <p/>
+ * For an options class {@code Options}, the class {@code OptionsParser} is generated in the same package, with
+ * <ul>
+ * <li>{@code parse(Options target, IParseResult messageParser, String... args)}, which parses the command line
+ * directly into the fields of {@code target} and</li>
+ * <li>{@code define(CmdParser4J parser)}, which defines the same arguments on a {@code CmdParser4J}, e.g. for usage output.</li>
+ * </ul>
+ * The generated parser finds arguments with a switch on the hash code of each token and parses parameters into primitive
+ * fields, reporting the same problems through the same {@code IParseResult} callbacks as {@code CmdParser4J} does
+ * for the equivalent definitions. No reflection or maps are involved.
+ * <p/>
+ * Fields are mapped as follows; arrays take one or more parameters, so only one of them can be given last on the command line.
+ * <ul>
+ * <li>boolean: {@code asSingleBoolean()}</li>
+ * <li>int, long, double, float, String: {@code asInteger(1)}, {@code asLong(1)} and so on</li>
+ * <li>int[], long[], double[], float[], String[]: one to {@code Constructor.NO_PARAMETER_LIMIT} parameters</li>
+ * </ul>
+ * Option fields must not be private, static or final.
+ */
+@SupportedAnnotationTypes("cmdparser4j.GenerateParser")
+public class ParserGenerator extends AbstractProcessor {
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for (Element e : roundEnv.getElementsAnnotatedWith(GenerateParser.class)) {
+			if (e.getKind() == ElementKind.CLASS) {
+				generate((TypeElement) e);
+			} else {
+				error(e, "@GenerateParser is only allowed on classes");
+			}
+		}
+
+		return true;
+	}
+
+	private void generate(TypeElement type) {
+		List<OptionModel> options = new ArrayList<OptionModel>();
+		boolean ok = true;
+
+		PackageElement parserPackage = getPackage(type);
+
+		// Inherited fields are included, in the same order as OptionBinder finds them
+		for (TypeElement t = type; t != null; t = getSuperclass(t)) {
+			for (VariableElement field : ElementFilter.fieldsIn(t.getEnclosedElements())) {
+				Option option = field.getAnnotation(Option.class);
+				if (option != null) {
+					OptionModel model = null;
+					if (t != type && !field.getModifiers().contains(Modifier.PUBLIC) && !getPackage(t).equals(parserPackage)) {
+						error(type, "Inherited option field " + t.getQualifiedName() + "." + field.getSimpleName() + " must be public to be set from package " + parserPackage.getQualifiedName());
+					} else {
+						model = createModel(field, option, options.size());
+					}
+
+					ok &= model != null;
+					if (model != null) {
+						options.add(model);
+					}
+				}
+			}
+		}
+
+		Set<String> names = new LinkedHashSet<String>();
+		for (OptionModel o : options) {
+			if (!names.add(o.myName)) {
+				error(type, "Argument '" + o.myName + "' is defined more than once");
+				ok = false;
+			}
+		}
+
+		if (ok) {
+			String packageName = parserPackage.getQualifiedName().toString();
+			String parserName = getParserName(type);
+			String qualifiedName = packageName.length() == 0 ? parserName : packageName + "." + parserName;
+
+			try {
+				Writer w = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter();
+				try {
+					w.write(new ParserSource(packageName, parserName, type.getQualifiedName().toString(), options).toString());
+				} finally {
+					w.close();
+				}
+			} catch (IOException e) {
+				error(type, "Failed to write " + qualifiedName + ": " + e.getMessage());
+			}
+		}
+	}
+
+	private OptionModel createModel(VariableElement field, Option option, int index) {
+		OptionModel res = null;
+		Set<Modifier> modifiers = field.getModifiers();
+
+		if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.FINAL)) {
+			error(field, "Option fields must not be private, static or final");
+		} else {
+			TypeMirror t = field.asType();
+			boolean array = t.getKind() == TypeKind.ARRAY;
+			if (array) {
+				t = ((ArrayType) t).getComponentType();
+			}
+
+			Kind kind = Kind.of(t);
+			if (kind == null || (array && kind == Kind.BOOLEAN)) {
+				error(field, "Unsupported option field type " + field.asType());
+			} else {
+				String fieldName = field.getSimpleName().toString();
+				String name = option.value().length() == 0 ? "-" + fieldName : option.value();
+				res = new OptionModel(index, fieldName, name, kind, array, option.mandatory());
+			}
+		}
+
+		return res;
+	}
+
+	private static PackageElement getPackage(Element e) {
+		while (e.getKind() != ElementKind.PACKAGE) {
+			e = e.getEnclosingElement();
+		}
+		return (PackageElement) e;
+	}
+
+	/**
+	 * Gets the superclass of the type, or null when it is {@code Object}.
+	 */
+	private static TypeElement getSuperclass(TypeElement type) {
+		TypeElement res = null;
+		TypeMirror superclass = type.getSuperclass();
+
+		if (superclass.getKind() == TypeKind.DECLARED) {
+			res = (TypeElement) ((DeclaredType) superclass).asElement();
+			if (res.getQualifiedName().contentEquals(Object.class.getName())) {
+				res = null;
+			}
+		}
+
+		return res;
+	}
+
+	/**
+	 * The name of the parser; for nested classes the names of the enclosing classes are included, e.g. Outer_OptionsParser.
+	 */
+	private static String getParserName(TypeElement type) {
+		StringBuilder name = new StringBuilder(type.getSimpleName());
+		for (Element e = type.getEnclosingElement(); e.getKind() != ElementKind.PACKAGE; e = e.getEnclosingElement()) {
+			name.insert(0, '_').insert(0, e.getSimpleName());
+		}
+		return name.append("Parser").toString();
+	}
+
+	private void error(Element e, String message) {
+		processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, e);
+	}
+
+	/**
+	 * The supported field types.
+	 */
+	enum Kind {
+		BOOLEAN("boolean", null, null),
+		INT("int", "Integer", "asInteger(1, Constructor.NO_PARAMETER_LIMIT, new UnboundIntegerLimit())"),
+		LONG("long", "Long", "asLong(1, Constructor.NO_PARAMETER_LIMIT, Long.MIN_VALUE, Long.MAX_VALUE)"),
+		DOUBLE("double", "Double", "asDouble(1, Constructor.NO_PARAMETER_LIMIT, -Double.MAX_VALUE, Double.MAX_VALUE)"),
+		FLOAT("float", "Float", "asFloat(1, Constructor.NO_PARAMETER_LIMIT, -Float.MAX_VALUE, Float.MAX_VALUE)"),
+		STRING("String", "String", "asString(1, Constructor.NO_PARAMETER_LIMIT)");
+
+		private final String myJavaType;
+		private final String myTypeName;
+		private final String myMultipleDefinition;
+
+		Kind(String javaType, String typeName, String multipleDefinition) {
+			myJavaType = javaType;
+			myTypeName = typeName;
+			myMultipleDefinition = multipleDefinition;
+		}
+
+		static Kind of(TypeMirror t) {
+			Kind res = null;
+
+			switch (t.getKind()) {
+				case BOOLEAN:
+					res = BOOLEAN;
+					break;
+				case INT:
+					res = INT;
+					break;
+				case LONG:
+					res = LONG;
+					break;
+				case DOUBLE:
+					res = DOUBLE;
+					break;
+				case FLOAT:
+					res = FLOAT;
+					break;
+				case DECLARED:
+					if (t.toString().equals("java.lang.String")) {
+						res = STRING;
+					}
+					break;
+				default:
+					break;
+			}
+
+			return res;
+		}
+
+		String getJavaType() {
+			return myJavaType;
+		}
+
+		/**
+		 * The name used in the methods of {@code TypeConstructor} and {@code ParserSupport}, e.g. Integer.
+		 */
+		String getTypeName() {
+			return myTypeName;
+		}
+
+		String getDefinition(boolean array) {
+			String res;
+			if (this == BOOLEAN) {
+				res = "asSingleBoolean()";
+			} else if (array) {
+				res = myMultipleDefinition;
+			} else {
+				res = "as" + myTypeName + "(1)";
+			}
+			return res;
+		}
+	}
+
+	static final class OptionModel {
+		final int myIndex;
+		final String myField;
+		final String myName;
+		final Kind myKind;
+		final boolean myIsArray;
+		final boolean myIsMandatory;
+
+		OptionModel(int index, String field, String name, Kind kind, boolean isArray, boolean isMandatory) {
+			myIndex = index;
+			myField = field;
+			myName = name;
+			myKind = kind;
+			myIsArray = isArray;
+			myIsMandatory = isMandatory;
+		}
+	}
+
+	/**
+	 * Builds the source of a generated parser.
+	 */
+	static final class ParserSource {
+		private final StringBuilder mySource = new StringBuilder();
+		private final String myTarget;
+		private final List<OptionModel> myOptions;
+
+		ParserSource(String packageName, String parserName, String target, List<OptionModel> options) {
+			myTarget = target;
+			myOptions = options;
+
+			line(0, "// Generated by cmdparser4j.processor.ParserGenerator from " + target + ", do not edit.");
+			if (packageName.length() > 0) {
+				line(0, "package " + packageName + ";");
+			}
+			line(0, "");
+			line(0, "import cmdparser4j.CmdParser4J;");
+			line(0, "import cmdparser4j.Constructor;");
+			line(0, "import cmdparser4j.IParseResult;");
+			line(0, "import cmdparser4j.ParserSupport;");
+			line(0, "import cmdparser4j.limits.UnboundIntegerLimit;");
+			line(0, "");
+			line(0, "import java.util.Arrays;");
+			line(0, "");
+			line(0, "public final class " + parserName + " {");
+			writeNames();
+			line(1, "private " + parserName + "() {");
+			line(1, "}");
+			line(0, "");
+			writeDefine();
+			writeParse();
+			writeFind();
+			writeParseArgument();
+			line(0, "}");
+		}
+
+		private void writeNames() {
+			StringBuilder names = new StringBuilder();
+			for (OptionModel o : myOptions) {
+				names.append(names.length() == 0 ? "" : ", ").append(quote(o.myName));
+			}
+			line(1, "private static final String[] NAMES = {" + names + "};");
+			line(0, "");
+		}
+
+		private void writeDefine() {
+			line(1, "/**");
+			line(1, " * Defines the arguments of this parser on {@code parser}.");
+			line(1, " */");
+			line(1, "public static void define(CmdParser4J parser) {");
+			for (OptionModel o : myOptions) {
+				line(2, "parser.accept(" + quote(o.myName) + ")." + o.myKind.getDefinition(o.myIsArray)
+						+ (o.myIsMandatory ? ".setMandatory()" : "") + ";");
+			}
+			line(1, "}");
+			line(0, "");
+		}
+
+		private void writeParse() {
+			int count = myOptions.size();
+			line(1, "/**");
+			line(1, " * Parses the command line into {@code target}. If the parse fails, {@code target} may be partly filled.");
+			line(1, " *");
+			line(1, " * @return true on success, false on failure");
+			line(1, " */");
+			line(1, "public static boolean parse(" + myTarget + " target, IParseResult messageParser, String... arguments) {");
+			line(2, "String[] args = ParserSupport.removeEmptyArguments(arguments);");
+			line(2, "int[] positions = new int[" + count + "];");
+			line(2, "int[] found = new int[" + count + "];");
+			line(2, "int[] hitCount = new int[" + count + "];");
+			line(2, "int foundCount = 0;");
+			line(0, "");
+			line(2, "for (int i = 0; i < args.length; ++i) {");
+			line(3, "int a = find(args[i]);");
+			line(3, "if (a >= 0 && hitCount[a]++ == 0) {");
+			line(4, "positions[foundCount] = i;");
+			line(4, "found[foundCount++] = a;");
+			line(3, "}");
+			line(2, "}");
+			line(0, "");
+			line(2, "boolean result = true;");
+			line(2, "for (int i = 0; i < foundCount; ++i) {");
+			line(3, "if (hitCount[found[i]] > 1) {");
+			line(4, "result = false;");
+			line(4, "messageParser.argumentSpecifiedMultipleTimes(NAMES[found[i]]);");
+			line(3, "}");
+			line(2, "}");
+			line(0, "");
+			line(2, "if (foundCount == 0 && args.length > 0) {");
+			line(3, "ParserSupport.unknownArguments(messageParser, Arrays.asList(args), 0, args.length);");
+			line(3, "result = false;");
+			line(2, "} else if (foundCount > 0 && positions[0] > 0) {");
+			line(3, "ParserSupport.unknownArguments(messageParser, Arrays.asList(args), 0, positions[0]);");
+			line(3, "result = false;");
+			line(2, "} else {");
+			line(3, "ParserSupport support = new ParserSupport();");
+			line(0, "");
+			line(3, "for (int i = 0; result && i < foundCount; ++i) {");
+			line(4, "int end = i == foundCount - 1 ? args.length : positions[i + 1];");
+			line(4, "int parsedUntil = parseArgument(target, found[i], args, positions[i], end, messageParser, support);");
+			line(4, "result = parsedUntil >= 0;");
+			line(0, "");
+			line(4, "if (result && parsedUntil < end) {");
+			line(5, "ParserSupport.unknownArguments(messageParser, Arrays.asList(args), parsedUntil, end);");
+			line(5, "result = false;");
+			line(4, "}");
+			line(3, "}");
+
+			boolean hasMandatory = false;
+			for (OptionModel o : myOptions) {
+				hasMandatory |= o.myIsMandatory;
+			}
+
+			if (hasMandatory) {
+				line(0, "");
+				line(3, "if (result) {");
+				for (OptionModel o : myOptions) {
+					if (o.myIsMandatory) {
+						line(4, "if (hitCount[" + o.myIndex + "] == 0) {");
+						line(5, "messageParser.missingMandatoryArgument(NAMES[" + o.myIndex + "]);");
+						line(5, "result = false;");
+						line(4, "}");
+					}
+				}
+				line(3, "}");
+			}
+
+			line(2, "}");
+			line(0, "");
+			line(2, "return result;");
+			line(1, "}");
+			line(0, "");
+		}
+
+		private void writeFind() {
+			// Group the names by hash code, to handle collisions
+			Map<Integer, List<OptionModel>> byHash = new TreeMap<Integer, List<OptionModel>>();
+			for (OptionModel o : myOptions) {
+				List<OptionModel> l = byHash.get(o.myName.hashCode());
+				if (l == null) {
+					l = new ArrayList<OptionModel>();
+					byHash.put(o.myName.hashCode(), l);
+				}
+				l.add(o);
+			}
+
+			line(1, "/**");
+			line(1, " * Gets the index of the argument named {@code token}, or -1 if there is none.");
+			line(1, " */");
+			line(1, "private static int find(String token) {");
+			line(2, "int res = -1;");
+			line(0, "");
+			line(2, "switch (token.hashCode()) {");
+			for (Map.Entry<Integer, List<OptionModel>> e : byHash.entrySet()) {
+				line(3, "case " + e.getKey() + ":");
+				String prefix = "";
+				for (OptionModel o : e.getValue()) {
+					line(4, prefix + "if (token.equals(" + quote(o.myName) + ")) {");
+					line(5, "res = " + o.myIndex + ";");
+					prefix = "} else ";
+				}
+				line(4, "}");
+				line(4, "break;");
+			}
+			line(3, "default:");
+			line(4, "break;");
+			line(2, "}");
+			line(0, "");
+			line(2, "return res;");
+			line(1, "}");
+			line(0, "");
+		}
+
+		private void writeParseArgument() {
+			line(1, "/**");
+			line(1, " * Parses the parameters of the argument at {@code argumentIx}, up to {@code end}.");
+			line(1, " *");
+			line(1, " * @return The position after the last parameter taken, or -1 if the parse failed.");
+			line(1, " */");
+			line(1, "private static int parseArgument(" + myTarget + " target, int argument, String[] args, int argumentIx, int end,");
+			line(3, "IParseResult messageParser, ParserSupport support) {");
+			line(2, "int parameterIx = argumentIx + 1;");
+			line(2, "boolean res = true;");
+			line(0, "");
+			line(2, "switch (argument) {");
+			for (OptionModel o : myOptions) {
+				line(3, "case " + o.myIndex + ": {");
+				if (o.myKind == Kind.BOOLEAN) {
+					line(4, "target." + o.myField + " = true;");
+				} else {
+					line(4, "if (end - parameterIx >= 1) {");
+					if (o.myIsArray) {
+						line(5, o.myKind.getJavaType() + "[] values = new " + o.myKind.getJavaType() + "[end - parameterIx];");
+						line(5, "int count = 0;");
+						line(5, "while (res && parameterIx < end) {");
+						writeValueParse(6, o, "values[count++]");
+						line(5, "}");
+						line(5, "if (res) {");
+						line(6, "target." + o.myField + " = Arrays.copyOf(values, count);");
+						line(5, "}");
+					} else {
+						writeValueParse(5, o, "target." + o.myField);
+					}
+					line(4, "} else {");
+					line(5, "messageParser.notEnoughParameters(args[argumentIx], 1);");
+					line(5, "res = false;");
+					line(4, "}");
+				}
+				line(4, "break;");
+				line(3, "}");
+			}
+			line(3, "default:");
+			line(4, "res = false;");
+			line(4, "break;");
+			line(2, "}");
+			line(0, "");
+			line(2, "if (!res) {");
+			line(3, "messageParser.failedToParseArgument(args[argumentIx]);");
+			line(2, "}");
+			line(0, "");
+			line(2, "return res ? parameterIx : -1;");
+			line(1, "}");
+		}
+
+		/**
+		 * Writes the parse of a single parameter, storing the value in {@code receiver} on success.
+		 */
+		private void writeValueParse(int indent, OptionModel o, String receiver) {
+			if (o.myKind == Kind.STRING) {
+				line(indent, "String parameter = args[parameterIx++];");
+				line(indent, "res = parameter.length() > 0;");
+				line(indent, "if (res) {");
+				line(indent + 1, receiver + " = parameter;");
+				line(indent, "}");
+			} else {
+				String typeName = o.myKind.getTypeName();
+				String getter = typeName.equals("Integer") ? "getInt" : "get" + typeName;
+				line(indent, "res = support.parse" + typeName + "(NAMES[" + o.myIndex + "], args[parameterIx++], messageParser);");
+				line(indent, "if (res) {");
+				line(indent + 1, receiver + " = support." + getter + "();");
+				line(indent, "}");
+			}
+		}
+
+		private void line(int indent, String text) {
+			if (text.length() > 0) {
+				for (int i = 0; i < indent; ++i) {
+					mySource.append('\t');
+				}
+				mySource.append(text);
+			}
+			mySource.append('\n');
+		}
+
+		private static String quote(String s) {
+			StringBuilder res = new StringBuilder("\"");
+			for (int i = 0; i < s.length(); ++i) {
+				char c = s.charAt(i);
+				if (c == '"' || c == '\\') {
+					res.append('\\').append(c);
+				} else if (c < 0x20 || c == 0x7f) {
+					// Octal, as unicode escapes are translated before the source is lexed, so an escaped line feed would end the line
+					res.append(String.format("\\%03o", (int) c));
+				} else if (c > 0x7f) {
+					res.append(String.format("\\u%04x", (int) c));
+				} else {
+					res.append(c);
+				}
+			}
+			return res.append('"').toString();
+		}
+
+		@Override
+		public String toString() {
+			return mySource.toString();
+		}
+	}
+}
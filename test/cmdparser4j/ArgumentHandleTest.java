@@ -0,0 +1,81 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ArgumentHandleTest {
+
+	@Test
+	public void testHandles() {
+		CmdParser4J p = new CmdParser4J(new SystemOutputParseResult());
+		IntArg port = p.accept("-port").asInteger(1).setMandatory().intArg();
+		LongArg size = p.accept("-size").asLong(1, 2, 0L, Long.MAX_VALUE).longArg();
+		DoubleArg ratio = p.accept("-ratio").asDouble(1).doubleArg();
+		FloatArg scale = p.accept("-scale").asFloat(1).floatArg();
+		StringArg name = p.accept("-name").asString(1, 2).withAlias("-n").stringArg();
+		BoolArg verbose = p.accept("-v").asSingleBoolean().boolArg();
+		BoolArg flags = p.accept("-flags").asBoolean(2).boolArg();
+
+		ParserSpec spec = p.compile();
+		IParseResult msg = new SystemOutputParseResult();
+		ParseSession s = spec.parse(msg, "-port", "8080", "-size", "1", "5000000000", "-ratio", "0.5",
+				"-n", "a", "b", "-v", "-flags", "false", "true");
+		assertTrue(msg.getParseResult(), s.isSuccessFullyParsed());
+
+		assertEquals(8080, port.get(s));
+		assertArrayEquals(new long[]{1L, 5000000000L}, size.getAll(s));
+		assertEquals(5000000000L, size.get(s, 1, 0L));
+		assertEquals(0.5, ratio.get(s), 0.0);
+		assertFalse(scale.isSet(s));
+		assertEquals(2.0f, scale.get(s, 0, 2.0f), 0.0f);
+		assertEquals("a", name.get(s));
+		assertEquals("b", name.get(s, 1, null));
+		assertEquals("x", name.get(s, 2, "x"));
+		assertEquals(2, name.count(s));
+		assertTrue(verbose.get(s));
+		assertFalse(flags.get(s));
+		assertTrue(flags.get(s, 1, false));
+
+		// The parser's own latest parse
+		assertTrue(p.parse("-port", "1"));
+		assertEquals(1, port.get(p.getSession()));
+		assertFalse(verbose.get(p.getSession()));
+	}
+
+	@Test
+	public void testHandlesSurviveLaterDefinitions() {
+		CmdParser4J p = new CmdParser4J(new SystemOutputParseResult());
+		IntArg first = p.accept("-first").asInteger(1).intArg();
+		p.accept("-second").asString(1);
+		StringArg second = p.accept("-second").asString(1).stringArg();
+		p.accept("-third").asInteger(1);
+
+		assertTrue(p.parse("-first", "3", "-second", "x", "-third", "4"));
+		assertEquals(3, first.get(p.getSession()));
+		assertEquals("x", second.get(p.getSession()));
+	}
+
+	@Test
+	public void testHandleFromAnotherParser() {
+		CmdParser4J p = new CmdParser4J(new SystemOutputParseResult());
+		IntArg value = p.accept("-value").asInteger(1).intArg();
+
+		CmdParser4J other = new CmdParser4J(new SystemOutputParseResult());
+		other.accept("-other").asInteger(1);
+		other.accept("-value").asInteger(1);
+		assertTrue(other.parse("-other", "1", "-value", "2"));
+
+		// Slots differ, so the handle falls back to the name
+		assertEquals(2, value.get(other.getSession()));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testWrongType() {
+		CmdParser4J p = new CmdParser4J(new SystemOutputParseResult());
+		p.accept("-value").asString(1).intArg();
+	}
+}
@@ -5,6 +5,7 @@ package cmdparser4j;
 
 import cmdparser4j.limits.NumericLimit;
 import cmdparser4j.limits.StringLengthLimit;
+import cmdparser4j.limits.UnboundIntegerLimit;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -111,6 +112,74 @@ public class CmdParser4JTest {
 		assertEquals(8, p.getInteger("-a") + p.getInteger("-b", 0) + p.getInteger("-b", 1, 1000) + p.getInteger("-b", 10, 0));
 	}
 
+	@Test
+	public void testGetIntegers() {
+		IParseResult msg = new SystemOutputParseResult();
+		CmdParser4J p = new CmdParser4J(msg);
+		p.accept("-ids").asInteger(1, Constructor.NO_PARAMETER_LIMIT, new UnboundIntegerLimit());
+		p.accept("-s").asString(1);
+
+		String[] args = new String[10001];
+		args[0] = "-ids";
+		for (int i = 1; i < args.length; ++i) {
+			args[i] = Integer.toString(i * 3 - 5000);
+		}
+
+		assertTrue(p.parse(args));
+		int[] ids = p.getIntegers("-ids");
+		assertEquals(10000, ids.length);
+		assertEquals(-4997, ids[0]);
+		assertEquals(25000, ids[9999]);
+		assertEquals(25000, p.getInteger("-ids", 9999));
+		assertEquals(0, p.getIntegers("-s").length);
+		assertEquals(0, p.getIntegers("-nope").length);
+	}
+
+	@Test
+	public void testLong() {
+		IParseResult msg = new SystemOutputParseResult();
+		CmdParser4J p = new CmdParser4J(msg);
+		p.accept("-big").asLong(1, 3, Long.MIN_VALUE, Long.MAX_VALUE);
+		p.accept("-hex").asLong(1, 1, 0L, 0xFFFFFFFFFFL, NumberFormat.HEXADECIMAL);
+		p.accept("-small").asLong(1, -10L, 10L);
+
+		assertTrue(p.parse("-big", "9223372036854775807", "-9223372036854775808", "-hex", "0xFFFFFFFFFF"));
+		assertEquals(Long.MAX_VALUE, p.getLong("-big"));
+		assertEquals(Long.MIN_VALUE, p.getLong("-big", 1));
+		assertEquals(7L, p.getLong("-big", 2, 7L));
+		assertEquals(0xFFFFFFFFFFL, p.getLong("-hex"));
+		assertEquals(2, p.getAvailableLongParameterCount("-big"));
+		assertArrayEquals(new long[]{Long.MAX_VALUE, Long.MIN_VALUE}, p.getLongs("-big"));
+		assertEquals(0, p.getLongs("-small").length);
+
+		assertFalse(p.parse("-big", "9223372036854775808"));
+		assertFalse(p.parse("-small", "11"));
+		assertTrue(msg.getParseResult().contains("outside allowed limits of -10 - 10"));
+	}
+
+	@Test
+	public void testDoubleAndFloat() {
+		IParseResult msg = new SystemOutputParseResult();
+		CmdParser4J p = new CmdParser4J(msg);
+		p.accept("-d").asDouble(1, 2, -1.0, 1.0);
+		p.accept("-f").asFloat(1);
+
+		assertTrue(p.parse("-d", "-1", "0.25", "-f", "1.5e3"));
+		assertEquals(-1.0, p.getDouble("-d"), 0.0);
+		assertEquals(0.25, p.getDouble("-d", 1), 0.0);
+		assertEquals(1500f, p.getFloat("-f"), 0f);
+		assertEquals(2, p.getAvailableDoubleParameterCount("-d"));
+		assertEquals(1, p.getAvailableFloatParameterCount("-f"));
+		assertArrayEquals(new double[]{-1.0, 0.25}, p.getDoubles("-d"), 0.0);
+		assertArrayEquals(new float[]{1500f}, p.getFloats("-f"), 0f);
+
+		assertFalse(p.parse("-d", "1.01"));
+		assertFalse(p.parse("-d", "NaN"));
+		assertFalse(p.parse("-d", "0x1p3"));
+		assertFalse(p.parse("-f", "1e39"));
+		assertFalse(p.parse("-f", "1e"));
+	}
+
 	@Test
 	public void testIntegerInvalidData() {
 		IParseResult msg = new SystemOutputParseResult();
@@ -337,6 +406,43 @@ public class CmdParser4JTest {
 		assertTrue(error.contains("doesnotexist"));
 	}
 
+	@Test
+	public void testManyRules() {
+		IParseResult msg = new SystemOutputParseResult();
+		CmdParser4J p = new CmdParser4J(msg);
+
+		// Each even argument depends on the following odd one, and every odd argument blocks all other odd ones
+		int count = 400;
+		for (int i = 0; i < count; ++i) {
+			Constructor c = p.accept("-a" + i).asSingleBoolean();
+			if (i % 2 == 0) {
+				c.dependsOn("-a" + (i + 1));
+			} else {
+				for (int n = 1; n < count; n += 2) {
+					if (n != i) {
+						c.blockedBy("-a" + n);
+					}
+				}
+			}
+		}
+
+		assertTrue(p.parse("-a10", "-a11"));
+		assertTrue(p.parse("-a399"));
+		assertFalse(p.parse("-a11", "-a12", "-a13"));
+		assertTrue(msg.getParseResult().contains("mutually exclusive"));
+
+		assertFalse(p.parse("-a10"));
+		assertTrue(msg.getParseResult().contains("-a11"));
+
+		msg = new SystemOutputParseResult();
+		p = new CmdParser4J(msg);
+		p.accept("-x").asSingleBoolean().blockedBy("-y");
+		p.accept("-y").asSingleBoolean().dependsOn("-x");
+		assertFalse(p.parse("-x", "-y"));
+		assertTrue(msg.getParseResult().contains("mutually exclusive"));
+		assertFalse(p.parse("-y"));
+	}
+
 	@Test
 	public void testHiddenArgument() {
 		IParseResult msg = new SystemOutputParseResult();
@@ -598,6 +704,83 @@ public class CmdParser4JTest {
 		}
 	}
 
+	@Test
+	public void testReadConfigFromConfiguration_reloaded() throws IOException {
+		IParseResult msg = new SystemOutputParseResult();
+		CmdParser4J p = new CmdParser4J(msg);
+		p.accept("-first").asInteger(1);
+		p.accept("-second").asString(1);
+		p.accept("-config").asString(1).setMandatory();
+
+		XMLConfigurationReader cfg = new XMLConfigurationReader(msg);
+		cfg.setMatcher("-first", new XMLConfigurationReader.NodeMatcher("/Settings/First"));
+		cfg.setMatcher("-second", new XMLConfigurationReader.NodeMatcher("/Settings/Second", "Value"));
+
+		File f = File.createTempFile("cmdparser4j", ".xml");
+		f.deleteOnExit();
+
+		FileOutputStream fs = new FileOutputStream(f);
+		try {
+			fs.write("<Settings><First>1</First><Second Value=\"a\"/></Settings>".getBytes());
+		} finally {
+			fs.close();
+		}
+
+		assertTrue(p.parse("-config", cfg, "-config", f.getPath()));
+		assertEquals(1, p.getInteger("-first"));
+		assertEquals("a", p.getString("-second"));
+
+		// Same data, values come from the already parsed document
+		assertTrue(p.parse("-config", cfg, "-config", f.getPath(), "-second", "b"));
+		assertEquals(1, p.getInteger("-first"));
+		assertEquals("b", p.getString("-second"));
+
+		fs = new FileOutputStream(f);
+		try {
+			// A different size, so that the change is seen even if the modification time is the same
+			fs.write("<Settings><First>22</First><Second Value=\"c\"/></Settings>".getBytes());
+		} finally {
+			fs.close();
+		}
+
+		assertTrue(p.parse("-config", cfg, "-config", f.getPath()));
+		assertEquals(22, p.getInteger("-first"));
+		assertEquals("c", p.getString("-second"));
+	}
+
+	@Test
+	public void testReadConfigFromConfiguration_large_file() throws IOException {
+		IParseResult msg = new SystemOutputParseResult();
+		CmdParser4J p = new CmdParser4J(msg);
+		p.accept("-first").asString(2);
+		p.accept("-config").asString(1).setMandatory();
+
+		XMLConfigurationReader cfg = new XMLConfigurationReader(msg);
+		cfg.setMatcher("-first", new XMLConfigurationReader.NodeMatcher("/Settings/First"));
+
+		File f = File.createTempFile("cmdparser4j", ".xml");
+		f.deleteOnExit();
+
+		// Large enough to be memory-mapped
+		StringBuilder sb = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?><Settings><First>\u00e5\u00e4\u00f6</First>");
+		while (sb.length() <= XMLConfigurationData.MAPPING_THRESHOLD) {
+			sb.append("<Padding>0123456789012345678901234567890123456789</Padding>");
+		}
+		sb.append("<First>last</First></Settings>");
+
+		FileOutputStream fs = new FileOutputStream(f);
+		try {
+			fs.write(sb.toString().getBytes("UTF-8"));
+		} finally {
+			fs.close();
+		}
+
+		assertTrue(f.length() > XMLConfigurationData.MAPPING_THRESHOLD);
+		assertTrue(msg.getParseResult(), p.parse("-config", cfg, "-config", f.getPath()));
+		assertEquals("\u00e5\u00e4\u00f6", p.getString("-first"));
+		assertEquals("last", p.getString("-first", 1));
+	}
+
 	@Test
 	public void testReadConfigFromConfiguration_config_file_missing() {
 		IParseResult msg = new SystemOutputParseResult();
@@ -783,4 +966,31 @@ public class CmdParser4JTest {
 
 		assertTrue( p.parse("-h") );
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testManyArguments() {
+		IParseResult msg = new SystemOutputParseResult();
+		CmdParser4J p = new CmdParser4J(msg);
+		for (int i = 0; i < 2000; ++i) {
+			p.accept("--arg" + i).asInteger(1).withAlias("-a" + i);
+		}
+
+		assertTrue(p.parse("-a1999", "1999", "--arg7", "7", "-a42", "42"));
+		assertEquals(1999, p.getInteger("--arg1999"));
+		assertEquals(7, p.getInteger("--arg7"));
+		assertEquals(42, p.getInteger("--arg42"));
+		assertEquals(0, p.getAvailableIntegerParameterCount("--arg8"));
+	}
+
+	@Test
+	public void testAliasAddedAfterParse() {
+		IParseResult msg = new SystemOutputParseResult();
+		CmdParser4J p = new CmdParser4J(msg);
+		Constructor c = p.accept("-q").asString(1);
+		assertFalse(p.parse("-Q", "Foo"));
+
+		c.withAlias("-Q");
+		assertTrue(p.parse("-Q", "Foo"));
+		assertEquals("Foo", p.getString("-q"));
+	}
+}
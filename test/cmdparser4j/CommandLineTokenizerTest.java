@@ -0,0 +1,57 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CommandLineTokenizerTest {
+
+	private List<String> tokenize(String line) {
+		List<String> res = new ArrayList<String>();
+		for (CharSequence token : CommandLineTokenizer.tokenize(line)) {
+			res.add(token.toString());
+		}
+		return res;
+	}
+
+	@Test
+	public void testWhitespace() {
+		assertEquals("[-a, 1, -b]", tokenize("  -a\t1   -b ").toString());
+		assertTrue(tokenize("").isEmpty());
+		assertTrue(tokenize("   ").isEmpty());
+	}
+
+	@Test
+	public void testQuotes() {
+		assertEquals("[-m, a b, c  d]", tokenize("-m \"a b\" 'c  d'").toString());
+		assertEquals("[--name=a b]", tokenize("--name=\"a b\"").toString());
+		assertEquals("[it's]", tokenize("\"it's\"").toString());
+		assertEquals("[say \"hi\"]", tokenize("'say \"hi\"'").toString());
+		// Empty quotes give an empty token, which is dropped.
+		assertEquals("[-a]", tokenize("-a \"\"").toString());
+		// Missing closing quote
+		assertEquals("[-a, b c]", tokenize("-a \"b c").toString());
+	}
+
+	@Test
+	public void testEscapes() {
+		assertEquals("[a b, c]", tokenize("a\\ b c").toString());
+		assertEquals("[\"q\"]", tokenize("\"\\\"q\\\"\"").toString());
+		assertEquals("[\\n]", tokenize("'\\n'").toString());
+		assertEquals("[x\\]", tokenize("x\\").toString());
+	}
+
+	@Test
+	public void testTokensAreSlices() {
+		List<CharSequence> tokens = CommandLineTokenizer.tokenize("-a \"b c\" d\\ e");
+		assertTrue(tokens.get(0) instanceof CharSlice);
+		assertTrue(tokens.get(1) instanceof CharSlice);
+		assertTrue(tokens.get(2) instanceof String);
+	}
+}
@@ -0,0 +1,126 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import cmdparser4j.limits.UnboundIntegerLimit;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Stress test for concurrent parses using a single shared specification.
+ * The throughput is measured by {@code ConcurrentParseBenchmark}.
+ */
+public class ConcurrentParseTest {
+	private static final int PARSES_PER_THREAD = 3000;
+
+	private ParserSpec createSpec() {
+		CmdParser4J p = new CmdParser4J(new SystemOutputParseResult());
+		p.accept("--id").asInteger(1).setMandatory();
+		p.accept("--name").asString(1).withAlias("-n");
+		p.accept("--values").asInteger(1, Constructor.NO_PARAMETER_LIMIT, new UnboundIntegerLimit());
+		p.accept("--verbose").asSingleBoolean().blockedBy("--quiet");
+		p.accept("--quiet").asSingleBoolean();
+		p.accept("--flags").asBoolean(2).dependsOn("--name");
+		return p.compile();
+	}
+
+	/**
+	 * Parses from {@code threadCount} threads at once, verifying every result.
+	 */
+	private void run(final ParserSpec spec, final XMLConfigurationReader cfg, int threadCount) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		final CountDownLatch start = new CountDownLatch(1);
+		final AtomicInteger failures = new AtomicInteger(0);
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+
+		try {
+			for (int t = 0; t < threadCount; ++t) {
+				final int thread = t;
+				futures.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						start.await();
+						for (int i = 0; i < PARSES_PER_THREAD; ++i) {
+							int id = thread * PARSES_PER_THREAD + i;
+							if (!parseAndVerify(spec, cfg, id)) {
+								failures.incrementAndGet();
+							}
+						}
+						return null;
+					}
+				}));
+			}
+
+			start.countDown();
+			for (Future<?> f : futures) {
+				f.get();
+			}
+
+			assertEquals(0, failures.get());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private boolean parseAndVerify(ParserSpec spec, XMLConfigurationReader cfg, int id) {
+		String idStr = Integer.toString(id);
+		boolean ok;
+
+		switch (id % 3) {
+			case 0: {
+				IParseResult msg = new SystemOutputParseResult();
+				ParseSession s = spec.parse(msg, "--id", idStr, "-n", "name" + idStr, "--flags", "1", "false", "--values", "1", "2", idStr);
+				ok = s.isSuccessFullyParsed()
+						&& s.getInteger("--id") == id
+						&& ("name" + idStr).equals(s.getString("--name"))
+						&& s.getBool("--flags", 0) && !s.getBool("--flags", 1)
+						&& s.getAvailableIntegerParameterCount("--values") == 3
+						&& s.getInteger("--values", 2) == id
+						&& msg.getParseResult().isEmpty();
+				break;
+			}
+			case 1: {
+				// Expected to fail, with the errors going to this call's sink only.
+				IParseResult msg = new SystemOutputParseResult();
+				ParseSession s = spec.parse(msg, "--id", idStr, "--verbose", "--quiet");
+				ok = !s.isSuccessFullyParsed()
+						&& msg.getParseResult().contains("mutually exclusive")
+						&& !msg.getParseResult().contains("depends on");
+				break;
+			}
+			default: {
+				IParseResult msg = new SystemOutputParseResult();
+				ParseSession s = spec.parse(msg, cfg, "--id", idStr, "--verbose");
+				ok = s.isSuccessFullyParsed()
+						&& s.getInteger("--id") == id
+						&& "fromConfig".equals(s.getString("--name"))
+						&& s.getBool("--verbose")
+						&& !s.getBool("--quiet");
+				break;
+			}
+		}
+
+		return ok;
+	}
+
+	@Test
+	public void testConcurrentParsesOnSharedSpec() throws Exception {
+		ParserSpec spec = createSpec();
+
+		XMLConfigurationReader cfg = new XMLConfigurationReader("<Settings><Name>fromConfig</Name></Settings>", new SystemOutputParseResult());
+		cfg.setMatcher("--name", new XMLConfigurationReader.NodeMatcher("/Settings/Name"));
+
+		// Always use a few threads, even on a single core, to get some interleaving of the parses.
+		int maxThreads = Math.max(4, Runtime.getRuntime().availableProcessors());
+		for (int threads = 1; threads <= maxThreads; threads *= 2) {
+			run(spec, cfg, threads);
+		}
+	}
+}
@@ -0,0 +1,132 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class ConfigurationCacheTest {
+
+	private static File createFile(String content) throws IOException {
+		File f = File.createTempFile("cmdparser4j", ".xml");
+		f.deleteOnExit();
+		write(f, content);
+		return f;
+	}
+
+	private static void write(File f, String content) throws IOException {
+		FileOutputStream fs = new FileOutputStream(f);
+		try {
+			fs.write(content.getBytes("UTF-8"));
+		} finally {
+			fs.close();
+		}
+	}
+
+	@Test
+	public void testHitsAndMisses() throws IOException {
+		ConfigurationCache cache = new ConfigurationCache(4);
+		File f = createFile("<Settings><First>1</First></Settings>");
+
+		XMLConfigurationData first = cache.get(f);
+		assertNotNull(first);
+		assertEquals(0, cache.getHits());
+		assertEquals(1, cache.getMisses());
+
+		// Another path to the same file
+		assertSame(first, cache.get(new File(f.getParentFile(), "./" + f.getName())));
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+
+		write(f, "<Settings><First>12</First></Settings>");
+		XMLConfigurationData changed = cache.get(f);
+		assertNotSame(first, changed);
+		assertEquals(2, cache.getMisses());
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedIsEvicted() throws IOException {
+		ConfigurationCache cache = new ConfigurationCache(2);
+		File a = createFile("<A/>");
+		File b = createFile("<B/>");
+		File c = createFile("<C/>");
+
+		XMLConfigurationData dataA = cache.get(a);
+		XMLConfigurationData dataB = cache.get(b);
+		// Use 'a' so that 'b' is the least recently used
+		assertSame(dataA, cache.get(a));
+		cache.get(c);
+		assertEquals(2, cache.size());
+
+		assertSame(dataA, cache.get(a));
+		assertNotSame(dataB, cache.get(b));
+		assertEquals(2, cache.getHits());
+		assertEquals(4, cache.getMisses());
+	}
+
+	@Test
+	public void testEmptyFileIsNotCached() throws IOException {
+		ConfigurationCache cache = new ConfigurationCache(2);
+		assertNull(cache.get(createFile("")));
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void testReadersShareLoadedFile() throws IOException {
+		ConfigurationCache cache = new ConfigurationCache(2);
+		File f = createFile("<Settings><First>1</First><First>2</First></Settings>");
+
+		for (int i = 0; i < 3; ++i) {
+			IParseResult msg = new SystemOutputParseResult();
+			CmdParser4J p = new CmdParser4J(msg);
+			p.accept("-first").asInteger(2);
+			p.accept("-config").asString(1);
+
+			XMLConfigurationReader cfg = new XMLConfigurationReader(msg, cache);
+			cfg.setMatcher("-first", new XMLConfigurationReader.NodeMatcher("/Settings/First"));
+
+			assertTrue(msg.getParseResult(), p.parse("-config", cfg, "-config", f.getPath()));
+			assertEquals(2, p.getInteger("-first", 1));
+		}
+
+		assertEquals(2, cache.getHits());
+		assertEquals(1, cache.getMisses());
+	}
+
+	private static String createLargeXml(String first) {
+		StringBuilder sb = new StringBuilder("<Settings><First>").append(first).append("</First>");
+		while (sb.length() <= XMLConfigurationData.MAPPING_THRESHOLD) {
+			sb.append("<Padding>0123456789012345678901234567890123456789</Padding>");
+		}
+		return sb.append("</Settings>").toString();
+	}
+
+	@Test
+	public void testMappedFileIsParsedWhenLoaded() throws Exception {
+		ConfigurationCache cache = new ConfigurationCache(2);
+		File f = createFile(createLargeXml("original"));
+		long lastModified = f.lastModified();
+
+		XMLConfigurationData data = cache.get(f);
+
+		// Rewritten in place, with the same size and time, before anything is read from the data
+		write(f, createLargeXml("replaced"));
+		assertTrue(f.setLastModified(lastModified));
+		assertSame(data, cache.get(f));
+
+		XMLConfigurationReader.NodeMatcher matcher = new XMLConfigurationReader.NodeMatcher("/Settings/First");
+		assertEquals("original", data.select(matcher, XMLFactories.newXPath().compile(matcher.getPath())).get(0));
+	}
+
+	@Test(expected = IOException.class)
+	public void testMalformedMappedFileFailsToLoad() throws IOException {
+		new ConfigurationCache(2).get(createFile(createLargeXml("unterminated").replace("</Settings>", "")));
+	}
+}
@@ -0,0 +1,269 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ConfigurationWatcherTest {
+
+	private static void write(File f, String content, long lastModified) throws IOException {
+		FileOutputStream fs = new FileOutputStream(f);
+		try {
+			fs.write(content.getBytes("UTF-8"));
+		} finally {
+			fs.close();
+		}
+		assertTrue(f.setLastModified(lastModified));
+	}
+
+	private static String config(String first, String second) {
+		return "<Settings><First>" + first + "</First><Second>" + second + "</Second></Settings>";
+	}
+
+	private static ParserSpec createSpec() {
+		CmdParser4J p = new CmdParser4J(new SystemOutputParseResult());
+		p.accept("-first").asInteger(1).setMandatory();
+		p.accept("-second").asString(1);
+		p.accept("-third").asString(1);
+		p.accept("-config").asString(1);
+		return p.compile();
+	}
+
+	private static XMLConfigurationReader createReader(IParseResult msg) {
+		XMLConfigurationReader cfg = new XMLConfigurationReader(msg, null);
+		cfg.setMatcher("-first", new XMLConfigurationReader.NodeMatcher("/Settings/First"));
+		cfg.setMatcher("-second", new XMLConfigurationReader.NodeMatcher("/Settings/Second"));
+		cfg.setMatcher("-third", new XMLConfigurationReader.NodeMatcher("/Settings/Second"));
+		return cfg;
+	}
+
+	@Test
+	public void testReload() throws IOException {
+		File f = File.createTempFile("cmdparser4j", ".xml");
+		f.deleteOnExit();
+		long time = f.lastModified() - 100000;
+		write(f, config("1", "a"), time);
+
+		IParseResult msg = new SystemOutputParseResult();
+		ConfigurationWatcher watcher = new ConfigurationWatcher(createSpec(), msg, "-config", createReader(msg),
+				"-config", f.getPath(), "-third", "cmd");
+
+		final List<String> changed = new ArrayList<String>();
+		watcher.setListener(new ConfigurationWatcher.IListener() {
+			@Override
+			public void configurationChanged(ParseSession session, List<String> changedArguments) {
+				changed.addAll(changedArguments);
+			}
+		});
+
+		ParseSession first = watcher.getSession();
+		assertTrue(msg.getParseResult(), first.isSuccessFullyParsed());
+		assertEquals(1, first.getInteger("-first"));
+		assertEquals("a", first.getString("-second"));
+		assertFalse(watcher.checkNow());
+
+		write(f, config("22", "a"), time + 2000);
+		assertTrue(watcher.checkNow());
+		ParseSession second = watcher.getSession();
+		assertEquals(22, second.getInteger("-first"));
+		assertEquals("a", second.getString("-second"));
+		// Given on the command line, so not taken from the configuration
+		assertEquals("cmd", second.getString("-third"));
+		assertEquals(1, changed.size());
+		assertEquals("-first", changed.get(0));
+		// The previous session is unchanged
+		assertEquals(1, first.getInteger("-first"));
+
+		// Touched but with the same values
+		write(f, config("22", "a"), time + 4000);
+		assertFalse(watcher.checkNow());
+		assertSame(second, watcher.getSession());
+
+		// Invalid values are reported and the current session is kept
+		write(f, config("x", "b"), time + 6000);
+		assertFalse(watcher.checkNow());
+		assertSame(second, watcher.getSession());
+		assertTrue(msg.getParseResult().contains("-first"));
+	}
+
+	@Test
+	public void testBackgroundReload() throws Exception {
+		File f = File.createTempFile("cmdparser4j", ".xml");
+		f.deleteOnExit();
+		long time = f.lastModified() - 100000;
+		write(f, config("1", "a"), time);
+
+		IParseResult msg = new SystemOutputParseResult();
+		ConfigurationWatcher watcher = new ConfigurationWatcher(createSpec(), msg, "-config", createReader(msg),
+				"-config", f.getPath());
+		watcher.start(10);
+
+		try {
+			write(f, config("333", "b"), time + 2000);
+
+			long end = System.currentTimeMillis() + 10000;
+			while (watcher.getSession().getInteger("-first") != 333 && System.currentTimeMillis() < end) {
+				Thread.sleep(10);
+			}
+
+			ParseSession s = watcher.getSession();
+			assertEquals(333, s.getInteger("-first"));
+			assertEquals("b", s.getString("-second"));
+			assertEquals("b", s.getString("-third"));
+		} finally {
+			watcher.stop();
+		}
+	}
+
+	@Test
+	public void testSameSizeAndTime() throws IOException {
+		File f = File.createTempFile("cmdparser4j", ".xml");
+		f.deleteOnExit();
+		// Whole seconds, as on file systems with a coarse resolution
+		long time = System.currentTimeMillis() / 1000 * 1000;
+		write(f, config("1", "a"), time);
+
+		IParseResult msg = new SystemOutputParseResult();
+		ConfigurationWatcher watcher = new ConfigurationWatcher(createSpec(), msg, "-config", createReader(msg),
+				"-config", f.getPath());
+		assertFalse(watcher.checkNow());
+
+		write(f, config("2", "b"), time);
+		assertTrue(watcher.checkNow());
+		assertEquals(2, watcher.getSession().getInteger("-first"));
+		assertEquals("b", watcher.getSession().getString("-second"));
+	}
+
+	@Test
+	public void testOnlyChangedArgumentsAreFilled() throws IOException {
+		File f = File.createTempFile("cmdparser4j", ".xml");
+		f.deleteOnExit();
+		long time = f.lastModified() - 100000;
+		write(f, config("1", "a"), time);
+
+		ParserSpec spec = createSpec();
+		IParseResult msg = new SystemOutputParseResult();
+		ConfigurationWatcher watcher = new ConfigurationWatcher(spec, msg, "-config", createReader(msg),
+				"-config", f.getPath());
+		ParseSession first = watcher.getSession();
+
+		write(f, config("2", "a"), time + 2000);
+		assertTrue(watcher.checkNow());
+		ParseSession second = watcher.getSession();
+
+		Argument changed = spec.getArguments().get("-first");
+		Argument unchanged = spec.getArguments().get("-second");
+		assertNotSame(first.getResult(changed), second.getResult(changed));
+		// Taken from the previous session rather than filled again
+		assertSame(first.getResult(unchanged), second.getResult(unchanged));
+		assertSame(first.getResult(spec.getArguments().get("-third")), second.getResult(spec.getArguments().get("-third")));
+	}
+
+	@Test
+	public void testSameSizeAndTimeThroughSharedCache() throws IOException {
+		File f = File.createTempFile("cmdparser4j", ".xml");
+		f.deleteOnExit();
+		long time = System.currentTimeMillis() / 1000 * 1000;
+		write(f, config("1", "a"), time);
+
+		IParseResult msg = new SystemOutputParseResult();
+		// Loads through the shared cache
+		XMLConfigurationReader cfg = new XMLConfigurationReader(msg);
+		cfg.setMatcher("-first", new XMLConfigurationReader.NodeMatcher("/Settings/First"));
+		ConfigurationWatcher watcher = new ConfigurationWatcher(createSpec(), msg, "-config", cfg, "-config", f.getPath());
+		assertEquals(1, watcher.getSession().getInteger("-first"));
+
+		write(f, config("2", "a"), time);
+		assertTrue(watcher.checkNow());
+		assertEquals(2, watcher.getSession().getInteger("-first"));
+	}
+
+	@Test
+	public void testResultIsClearedBeforeReload() throws IOException {
+		File f = File.createTempFile("cmdparser4j", ".xml");
+		f.deleteOnExit();
+		long time = f.lastModified() - 100000;
+		write(f, config("1", "a"), time);
+
+		SystemOutputParseResult msg = new SystemOutputParseResult();
+		ConfigurationWatcher watcher = new ConfigurationWatcher(createSpec(), msg, "-config", createReader(msg),
+				"-config", f.getPath());
+
+		for (int i = 1; i <= 3; ++i) {
+			write(f, config("x" + i, "a"), time + i * 2000);
+			assertFalse(watcher.checkNow());
+			assertEquals(msg.getParseResult(), 1, msg.getErrorCount());
+			assertTrue(msg.getParseResult(), msg.getParseResult().contains("-first"));
+		}
+	}
+
+	@Test
+	public void testBackgroundThreadSurvivesExceptions() throws Exception {
+		File f = File.createTempFile("cmdparser4j", ".xml");
+		f.deleteOnExit();
+		long time = f.lastModified() - 100000;
+		write(f, config("1", "a"), time);
+
+		final List<Exception> exceptions = new ArrayList<Exception>();
+		IParseResult msg = new SystemOutputParseResult() {
+			@Override
+			public void exception(Exception e) {
+				synchronized (exceptions) {
+					exceptions.add(e);
+				}
+			}
+		};
+
+		final XMLConfigurationReader reader = createReader(msg);
+		IConfigurationReader failOnce = new IConfigurationReader() {
+			private int myLoads = 0;
+
+			@Override
+			public boolean fillFromConfiguration(ParseSession session, Argument argument) {
+				return reader.fillFromConfiguration(session, argument);
+			}
+
+			@Override
+			public boolean loadFromFile(String pathToFile) {
+				if (++myLoads == 2) {
+					throw new IllegalStateException("Broken reader");
+				}
+				return reader.loadFromFile(pathToFile);
+			}
+		};
+
+		ConfigurationWatcher watcher = new ConfigurationWatcher(createSpec(), msg, "-config", failOnce, "-config", f.getPath());
+		watcher.start(10);
+
+		try {
+			write(f, config("2", "a"), time + 2000);
+			long end = System.currentTimeMillis() + 10000;
+			while (exceptions.isEmpty() && System.currentTimeMillis() < end) {
+				Thread.sleep(10);
+			}
+
+			// Changed again, and picked up by the same thread
+			write(f, config("3", "a"), time + 4000);
+			while (watcher.getSession().getInteger("-first") != 3 && System.currentTimeMillis() < end) {
+				Thread.sleep(10);
+			}
+
+			assertEquals(3, watcher.getSession().getInteger("-first"));
+			synchronized (exceptions) {
+				assertEquals(1, exceptions.size());
+				assertEquals("Broken reader", exceptions.get(0).getMessage());
+			}
+		} finally {
+			watcher.stop();
+		}
+	}
+}
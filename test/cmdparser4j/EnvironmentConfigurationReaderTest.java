@@ -0,0 +1,61 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+public class EnvironmentConfigurationReaderTest {
+
+	@Test
+	public void testKeys() {
+		assertEquals("MYAPP_LISTEN_PORT", EnvironmentConfigurationReader.getEnvironmentKey("MyApp", "--listen-port"));
+		assertEquals("MYAPP_LISTEN_PORT", EnvironmentConfigurationReader.getEnvironmentKey("MyApp", "--listenPort"));
+		assertEquals("myapp.listen.port", EnvironmentConfigurationReader.getPropertyKey("MyApp", "/listen_port"));
+		assertEquals("DRY_RUN2", EnvironmentConfigurationReader.getEnvironmentKey("", "--dryRun2"));
+		assertEquals("X", EnvironmentConfigurationReader.getEnvironmentKey("", "-x"));
+	}
+
+	@Test
+	public void testFallback() {
+		CmdParser4J p = new CmdParser4J(new SystemOutputParseResult());
+		p.accept("--listen-port").asInteger(1);
+		p.accept("--host").asString(1);
+		p.accept("--names").asString(1, 3);
+		p.accept("--missing").asString(1);
+		ParserSpec spec = p.compile();
+
+		Map<String, String> env = new HashMap<String, String>();
+		env.put("MYAPP_LISTEN_PORT", "8080");
+		env.put("MYAPP_HOST", "from env");
+		env.put("MYAPP_NAMES", "a, b,c");
+		Properties props = new Properties();
+		props.setProperty("myapp.host", "from property");
+
+		EnvironmentConfigurationReader cfg = new EnvironmentConfigurationReader("MyApp", spec, env, props);
+
+		IParseResult msg = new SystemOutputParseResult();
+		ParseSession s = spec.parse(msg, cfg);
+		assertTrue(msg.getParseResult(), s.isSuccessFullyParsed());
+		assertEquals(8080, s.getInteger("--listen-port"));
+		assertEquals("from property", s.getString("--host"));
+		assertEquals(3, s.getAvailableStringParameterCount("--names"));
+		assertEquals("c", s.getString("--names", 2));
+		assertNull(s.getString("--missing"));
+
+		// Command line takes precedence
+		s = spec.parse(msg, cfg, "--listen-port", "1");
+		assertEquals(1, s.getInteger("--listen-port"));
+
+		env.put("MYAPP_LISTEN_PORT", "invalid");
+		cfg = new EnvironmentConfigurationReader("MyApp", spec, env, props);
+		assertFalse(spec.parse(msg, cfg).isSuccessFullyParsed());
+		assertFalse(cfg.loadFromFile("any"));
+	}
+}
@@ -0,0 +1,168 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class JsonConfigurationReaderTest {
+
+	private static final String CONFIG = "{\n" +
+			"  \"server\": { \"host\": \"local\\\"host\\u00e5\", \"port\": 8080, \"ratio\": -1.5e2, \"debug\": true },\n" +
+			"  \"ignored\": { \"server\": { \"port\": 1 }, \"list\": [1, [2, 3], {\"a\": null}] },\n" +
+			"  \"names\": [\"a\", \"b\", null, \"c\"],\n" +
+			"  \"a/b\": { \"m~n\": \"escaped\" },\n" +
+			"  \"matrix\": [[1, 2], [3, 4]]\n" +
+			"}";
+
+	@Test
+	public void testValues() {
+		IParseResult msg = new SystemOutputParseResult();
+		CmdParser4J p = new CmdParser4J(msg);
+		p.accept("-host").asString(1);
+		p.accept("-port").asInteger(1);
+		p.accept("-ratio").asDouble(1);
+		p.accept("-debug").asBoolean(1);
+		p.accept("-names").asString(1, Constructor.NO_PARAMETER_LIMIT);
+		p.accept("-second").asString(1);
+		p.accept("-escaped").asString(1);
+		p.accept("-row").asInteger(2);
+		p.accept("-cell").asInteger(1);
+
+		JsonConfigurationReader cfg = new JsonConfigurationReader(CONFIG, msg);
+		cfg.setPointer("-host", "/server/host");
+		cfg.setPointer("-port", "/server/port");
+		cfg.setPointer("-ratio", "/server/ratio");
+		cfg.setPointer("-debug", "/server/debug");
+		cfg.setPointer("-names", "/names");
+		cfg.setPointer("-second", "/names/1");
+		cfg.setPointer("-escaped", "/a~1b/m~0n");
+		cfg.setPointer("-row", "/matrix/1");
+		cfg.setPointer("-cell", "/matrix/0/1");
+
+		assertTrue(msg.getParseResult(), p.parse(cfg));
+		assertEquals("local\"host\u00e5", p.getString("-host"));
+		assertEquals(8080, p.getInteger("-port"));
+		assertEquals(-150.0, p.getDouble("-ratio"), 0.0);
+		assertTrue(p.getBool("-debug"));
+		assertEquals(3, p.getAvailableStringParameterCount("-names"));
+		assertEquals("c", p.getString("-names", 2));
+		assertEquals("b", p.getString("-second"));
+		assertEquals("escaped", p.getString("-escaped"));
+		assertEquals(3, p.getInteger("-row"));
+		assertEquals(4, p.getInteger("-row", 1));
+		assertEquals(2, p.getInteger("-cell"));
+
+		// Command line takes precedence
+		assertTrue(p.parse(cfg, "-port", "1"));
+		assertEquals(1, p.getInteger("-port"));
+	}
+
+	@Test
+	public void testMissingAndObjectValues() {
+		IParseResult msg = new SystemOutputParseResult();
+		CmdParser4J p = new CmdParser4J(msg);
+		p.accept("-missing").asString(1);
+
+		JsonConfigurationReader cfg = new JsonConfigurationReader(CONFIG, msg);
+		cfg.setPointer("-missing", "/server/nothing");
+		assertFalse(p.parse(cfg));
+
+		cfg.setPointer("-missing", "/server");
+		assertFalse(p.parse(cfg));
+
+		cfg.setPointer("-missing", "/names/2");
+		assertFalse(p.parse(cfg));
+	}
+
+	@Test
+	public void testInvalidData() {
+		String[] invalid = {"", "{", "{\"a\" 1}", "{\"a\": tru}", "[1, 2", "{\"a\": 1} x", "{\"a\": \"\\x\"}", "{\"a\": 1.2.3}", "{\"a\": -}"};
+
+		for (String json : invalid) {
+			IParseResult msg = new SystemOutputParseResult();
+			CmdParser4J p = new CmdParser4J(msg);
+			p.accept("-a").asString(1);
+
+			JsonConfigurationReader cfg = new JsonConfigurationReader(json, msg);
+			cfg.setPointer("-a", "/a");
+			assertFalse(json, p.parse(cfg));
+		}
+	}
+
+	/**
+	 * Parses the JSON, reading -a from the member a.
+	 *
+	 * @return The value of -a, or null if the parse failed
+	 */
+	private static String parseMemberA(String json) {
+		IParseResult msg = new SystemOutputParseResult();
+		CmdParser4J p = new CmdParser4J(msg);
+		p.accept("-a").asString(1);
+
+		JsonConfigurationReader cfg = new JsonConfigurationReader(json, msg);
+		cfg.setPointer("-a", "/a");
+		return p.parse(cfg) ? p.getString("-a") : null;
+	}
+
+	@Test
+	public void testNumbers() {
+		String[] invalid = {"", "-", "1.", "01", "-01", "1.e5", "1e", "1e+", "1+2", "1-", "--1", "-.5", "0x1", "1.5e2.5"};
+		for (String number : invalid) {
+			assertFalse(number, JsonStreamReader.isNumber(number));
+			assertNull(number, parseMemberA("{\"a\": " + number + "}"));
+		}
+
+		// A leading '+' or '.' is not the start of any value
+		assertNull(parseMemberA("{\"a\": +1}"));
+		assertNull(parseMemberA("{\"a\": .5}"));
+
+		String[] valid = {"0", "-0", "7", "-12", "0.5", "-0.5", "10.25", "1e5", "1E5", "1e+5", "2.5E-3", "0e0"};
+		for (String number : valid) {
+			assertTrue(number, JsonStreamReader.isNumber(number));
+			assertEquals(number, parseMemberA("{\"a\": " + number + "}"));
+		}
+	}
+
+	@Test
+	public void testInvalidPointer() {
+		IParseResult msg = new SystemOutputParseResult();
+		CmdParser4J p = new CmdParser4J(msg);
+		p.accept("-port").asInteger(1);
+
+		JsonConfigurationReader cfg = new JsonConfigurationReader(CONFIG, msg);
+		cfg.setPointer("-port", "server/port");
+		assertFalse(p.parse(cfg));
+	}
+
+	@Test
+	public void testLoadFromFile() throws IOException {
+		IParseResult msg = new SystemOutputParseResult();
+		CmdParser4J p = new CmdParser4J(msg);
+		p.accept("-host").asString(1);
+		p.accept("-config").asString(1).setMandatory();
+
+		File f = File.createTempFile("cmdparser4j", ".json");
+		f.deleteOnExit();
+		FileOutputStream fs = new FileOutputStream(f);
+		try {
+			fs.write(CONFIG.getBytes("UTF-8"));
+		} finally {
+			fs.close();
+		}
+
+		JsonConfigurationReader cfg = new JsonConfigurationReader(msg);
+		cfg.setPointer("-host", "/server/host");
+
+		assertTrue(p.parse("-config", cfg, "-config", f.getPath()));
+		assertEquals("local\"host\u00e5", p.getString("-host"));
+
+		assertFalse(p.parse("-config", cfg, "-config", "non-existingFile.json"));
+	}
+}
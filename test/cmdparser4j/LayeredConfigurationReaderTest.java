@@ -0,0 +1,200 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+public class LayeredConfigurationReaderTest {
+
+	/**
+	 * A layer that is not an {@code IValueSource}, counting how often it is asked.
+	 */
+	private static class DefaultsReader implements IConfigurationReader {
+		int myCalls = 0;
+
+		@Override
+		public boolean fillFromConfiguration(ParseSession session, Argument argument) {
+			++myCalls;
+			boolean res = true;
+			if (argument.getPrimaryName().equals("--timeout")) {
+				res = argument.parse(session, Arrays.asList("--timeout", "30"));
+			}
+			return res;
+		}
+
+		@Override
+		public boolean loadFromFile(String pathToFile) {
+			return false;
+		}
+	}
+
+	@Test
+	public void testPriorities() {
+		CmdParser4J p = new CmdParser4J(new SystemOutputParseResult());
+		p.accept("--port").asInteger(1);
+		p.accept("--host").asString(1);
+		p.accept("--user").asString(1);
+		p.accept("--timeout").asInteger(1);
+		p.accept("--missing").asString(1);
+		ParserSpec spec = p.compile();
+
+		Map<String, String> env = new HashMap<String, String>();
+		env.put("APP_PORT", "1");
+		IParseResult msg = new SystemOutputParseResult();
+
+		JsonConfigurationReader user = new JsonConfigurationReader("{\"port\": 2, \"host\": \"user\"}", msg);
+		user.setPointer("--port", "/port");
+		user.setPointer("--host", "/host");
+
+		XMLConfigurationReader system = new XMLConfigurationReader("<S><Port>3</Port><Host>system</Host><User>admin</User></S>", msg);
+		system.setMatcher("--port", new XMLConfigurationReader.NodeMatcher("/S/Port"));
+		system.setMatcher("--host", new XMLConfigurationReader.NodeMatcher("/S/Host"));
+		system.setMatcher("--user", new XMLConfigurationReader.NodeMatcher("/S/User"));
+		system.setMatcher("--missing", new XMLConfigurationReader.NodeMatcher("/S/Missing"));
+
+		DefaultsReader defaults = new DefaultsReader();
+
+		LayeredConfigurationReader cfg = new LayeredConfigurationReader()
+				.addLayer("environment", new EnvironmentConfigurationReader("App", spec, env, new Properties()))
+				.addLayer("user", user)
+				.addLayer("system", system)
+				.addLayer("defaults", defaults);
+
+		ParseSession s = spec.parse(msg, cfg, "--host", "cmd");
+		assertTrue(msg.getParseResult(), s.isSuccessFullyParsed());
+		assertEquals(1, s.getInteger("--port"));
+		assertEquals("cmd", s.getString("--host"));
+		assertEquals("admin", s.getString("--user"));
+		assertEquals(30, s.getInteger("--timeout"));
+		assertNull(s.getString("--missing"));
+
+		assertEquals("environment", cfg.getSource("--port"));
+		assertNull(cfg.getSource("--host"));
+		assertEquals("system", cfg.getSource("--user"));
+		assertEquals("defaults", cfg.getSource("--timeout"));
+		assertNull(cfg.getSource("--missing"));
+		// Asked for --timeout and --missing
+		assertEquals(2, defaults.myCalls);
+
+		s = spec.parse(msg, cfg);
+		assertTrue(msg.getParseResult(), s.isSuccessFullyParsed());
+		assertEquals("user", s.getString("--host"));
+		assertEquals("user", cfg.getSource("--host"));
+		assertEquals(30, s.getInteger("--timeout"));
+		// --missing is known to be missing, only --timeout is filled again
+		assertEquals(3, defaults.myCalls);
+
+		// Resolved values are kept until invalidated
+		user.setPointer("--host", "/nothing");
+		assertEquals("user", spec.parse(msg, cfg).getString("--host"));
+		cfg.invalidate();
+		assertEquals("system", spec.parse(msg, cfg).getString("--host"));
+	}
+
+	@Test
+	public void testInvalidValue() {
+		CmdParser4J p = new CmdParser4J(new SystemOutputParseResult());
+		p.accept("--port").asInteger(1);
+		ParserSpec spec = p.compile();
+
+		IParseResult msg = new SystemOutputParseResult();
+		JsonConfigurationReader user = new JsonConfigurationReader("{\"port\": \"x\"}", msg);
+		user.setPointer("--port", "/port");
+		JsonConfigurationReader system = new JsonConfigurationReader("{\"port\": 3}", msg);
+		system.setPointer("--port", "/port");
+
+		LayeredConfigurationReader cfg = new LayeredConfigurationReader().addLayer("user", user).addLayer("system", system);
+
+		// The value of the first layer is used, even if invalid
+		assertFalse(spec.parse(msg, cfg).isSuccessFullyParsed());
+		assertEquals("user", cfg.getSource("--port"));
+	}
+
+	/**
+	 * A layer that is not an {@code IValueSource} and has an invalid value for --timeout.
+	 */
+	private static class FailingReader implements IConfigurationReader {
+		@Override
+		public boolean fillFromConfiguration(ParseSession session, Argument argument) {
+			return !argument.getPrimaryName().equals("--timeout") || argument.parse(session, Arrays.asList("--timeout", "x"));
+		}
+
+		@Override
+		public boolean loadFromFile(String pathToFile) {
+			return false;
+		}
+	}
+
+	@Test
+	public void testFailingLayerFallsThrough() {
+		CmdParser4J p = new CmdParser4J(new SystemOutputParseResult());
+		p.accept("--timeout").asInteger(1);
+		p.accept("--other").asInteger(1);
+		ParserSpec spec = p.compile();
+
+		DefaultsReader defaults = new DefaultsReader();
+		LayeredConfigurationReader cfg = new LayeredConfigurationReader()
+				.addLayer("broken", new FailingReader())
+				.addLayer("defaults", defaults);
+
+		IParseResult msg = new SystemOutputParseResult();
+		ParseSession s = spec.parse(msg, cfg);
+		assertTrue(msg.getParseResult(), s.isSuccessFullyParsed());
+		assertEquals(30, s.getInteger("--timeout"));
+		assertEquals("defaults", cfg.getSource("--timeout"));
+
+		// Without a lower layer supplying the argument, the failure is the outcome
+		cfg = new LayeredConfigurationReader().addLayer("broken", new FailingReader());
+		assertFalse(spec.parse(new SystemOutputParseResult(), cfg).isSuccessFullyParsed());
+	}
+
+	@Test
+	public void testKeptPerSpecification() {
+		CmdParser4J p = new CmdParser4J(new SystemOutputParseResult());
+		p.accept("--timeout").asInteger(1);
+		ParserSpec first = p.compile();
+
+		p = new CmdParser4J(new SystemOutputParseResult());
+		p.accept("--timeout").asInteger(1);
+		ParserSpec second = p.compile();
+
+		// Only asked while the layers are queried, as it never supplies --timeout
+		final int[] emptyCalls = {0};
+		IConfigurationReader empty = new IConfigurationReader() {
+			@Override
+			public boolean fillFromConfiguration(ParseSession session, Argument argument) {
+				++emptyCalls[0];
+				return true;
+			}
+
+			@Override
+			public boolean loadFromFile(String pathToFile) {
+				return false;
+			}
+		};
+
+		DefaultsReader defaults = new DefaultsReader();
+		LayeredConfigurationReader cfg = new LayeredConfigurationReader().addLayer("empty", empty).addLayer("defaults", defaults);
+
+		assertEquals(30, first.parse(new SystemOutputParseResult(), cfg).getInteger("--timeout"));
+		assertEquals(1, defaults.myCalls);
+		assertEquals(30, second.parse(new SystemOutputParseResult(), cfg).getInteger("--timeout"));
+		assertEquals(2, defaults.myCalls);
+		assertEquals("defaults", cfg.getSource("--timeout"));
+
+		// Parsing by another specification doesn't forget the values of the first
+		assertEquals(30, first.parse(new SystemOutputParseResult(), cfg).getInteger("--timeout"));
+		assertEquals(30, second.parse(new SystemOutputParseResult(), cfg).getInteger("--timeout"));
+		assertEquals(2, emptyCalls[0]);
+		assertEquals(4, defaults.myCalls);
+		assertEquals("defaults", cfg.getSource(first, "--timeout"));
+	}
+}
@@ -0,0 +1,104 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import cmdparser4j.limits.NumericLimit;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class NumberParserTest {
+
+	private int parse(String s, int format, IntList out) {
+		return NumberParser.parse(s, format, Integer.MIN_VALUE, Integer.MAX_VALUE, out);
+	}
+
+	@Test
+	public void testDecimal() {
+		IntList out = new IntList();
+		assertEquals(NumberParser.OK, parse("0", NumberFormat.DECIMAL, out));
+		assertEquals(NumberParser.OK, parse("+42", NumberFormat.DECIMAL, out));
+		assertEquals(NumberParser.OK, parse("-2147483648", NumberFormat.DECIMAL, out));
+		assertEquals(NumberParser.OK, parse("2147483647", NumberFormat.DECIMAL, out));
+		assertEquals(4, out.size());
+		assertEquals(0, out.getInt(0));
+		assertEquals(42, out.getInt(1));
+		assertEquals(Integer.MIN_VALUE, out.getInt(2));
+		assertEquals(Integer.MAX_VALUE, out.getInt(3));
+	}
+
+	@Test
+	public void testInvalid() {
+		IntList out = new IntList();
+		String[] invalid = {"", "-", "+", "1a", "a1", "1.0", " 1", "0x10", "1_0", "--1", "99999999999999999999"};
+		for (String s : invalid) {
+			assertEquals(s, NumberParser.INVALID, parse(s, NumberFormat.DECIMAL, out));
+		}
+		assertEquals(0, out.size());
+	}
+
+	@Test
+	public void testOutsideLimits() {
+		IntList out = new IntList();
+		assertEquals(NumberParser.OUTSIDE_LIMITS, parse("2147483648", NumberFormat.DECIMAL, out));
+		assertEquals(NumberParser.OUTSIDE_LIMITS, parse("-2147483649", NumberFormat.DECIMAL, out));
+		assertEquals(NumberParser.OUTSIDE_LIMITS, NumberParser.parse("6", NumberFormat.DECIMAL, 4, 5, out));
+		assertEquals(NumberParser.OK, NumberParser.parse("5", NumberFormat.DECIMAL, 4, 5, out));
+		assertEquals(1, out.size());
+	}
+
+	@Test
+	public void testHexadecimalAndUnderscores() {
+		IntList out = new IntList();
+		int format = NumberFormat.HEXADECIMAL | NumberFormat.UNDERSCORES;
+		assertEquals(NumberParser.OK, parse("0x1F", format, out));
+		assertEquals(NumberParser.OK, parse("-0Xff", format, out));
+		assertEquals(NumberParser.OK, parse("1_000_000", format, out));
+		assertEquals(NumberParser.OK, parse("0x7fff_ffff", format, out));
+		assertEquals(31, out.getInt(0));
+		assertEquals(-255, out.getInt(1));
+		assertEquals(1000000, out.getInt(2));
+		assertEquals(Integer.MAX_VALUE, out.getInt(3));
+
+		assertEquals(NumberParser.INVALID, parse("0x", format, out));
+		assertEquals(NumberParser.INVALID, parse("0xg", format, out));
+		assertEquals(NumberParser.INVALID, parse("_1", format, out));
+		assertEquals(NumberParser.INVALID, parse("1_", format, out));
+		assertEquals(NumberParser.INVALID, parse("1__0", format, out));
+		assertEquals(NumberParser.INVALID, parse("0x_1", format, out));
+		assertEquals(NumberParser.INVALID, parse("0x1F", NumberFormat.UNDERSCORES, out));
+		assertEquals(NumberParser.OUTSIDE_LIMITS, parse("0xFFFFFFFF", format, out));
+	}
+
+	@Test
+	public void testIntegerArgumentWithFormat() {
+		IParseResult msg = new SystemOutputParseResult();
+		CmdParser4J p = new CmdParser4J(msg);
+		p.accept("-mask").asInteger(1, 2, new NumericLimit<Integer>(0, 0xFFFF), NumberFormat.HEXADECIMAL);
+		assertTrue(p.parse("-mask", "0xff00", "12"));
+		assertEquals(0xff00, p.getInteger("-mask"));
+		assertEquals(12, p.getInteger("-mask", 1));
+
+		assertFalse(p.parse("-mask", "0x10000"));
+		assertTrue(msg.getParseResult().contains("is outside allowed limits of 0 - 65535"));
+	}
+
+	@Test
+	public void testIsDecimal() {
+		assertTrue(NumberParser.isDecimal("0"));
+		assertTrue(NumberParser.isDecimal("-1.5"));
+		assertTrue(NumberParser.isDecimal("+.5"));
+		assertTrue(NumberParser.isDecimal("5."));
+		assertTrue(NumberParser.isDecimal("1e-3"));
+		assertTrue(NumberParser.isDecimal("2.5E+10"));
+		assertFalse(NumberParser.isDecimal(""));
+		assertFalse(NumberParser.isDecimal("-"));
+		assertFalse(NumberParser.isDecimal("."));
+		assertFalse(NumberParser.isDecimal("e5"));
+		assertFalse(NumberParser.isDecimal("1e"));
+		assertFalse(NumberParser.isDecimal("1.0f"));
+		assertFalse(NumberParser.isDecimal("NaN"));
+		assertFalse(NumberParser.isDecimal("Infinity"));
+	}
+}
@@ -0,0 +1,161 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class OptionBinderTest {
+
+	static class BaseOptions {
+		@Option
+		boolean verbose;
+	}
+
+	static class Options extends BaseOptions {
+		@Option("--port")
+		int port = 80;
+		@Option
+		long size;
+		@Option
+		double ratio = 1.5;
+		@Option
+		float scale;
+		@Option("-n")
+		String name;
+		@Option
+		String[] files;
+		@Option
+		int[] ids;
+		@Option
+		boolean[] flags;
+		// Not bound
+		String other = "untouched";
+	}
+
+	private CmdParser4J createParser() {
+		CmdParser4J p = new CmdParser4J(new SystemOutputParseResult());
+		p.accept("-verbose").asSingleBoolean();
+		p.accept("--port").asInteger(1);
+		p.accept("-size").asLong(1);
+		p.accept("-ratio").asDouble(1);
+		p.accept("-scale").asFloat(1);
+		p.accept("-n").asString(1);
+		p.accept("-files").asString(1, Constructor.NO_PARAMETER_LIMIT);
+		p.accept("-ids").asInteger(1, 3, new cmdparser4j.limits.UnboundIntegerLimit());
+		p.accept("-flags").asBoolean(2);
+		return p;
+	}
+
+	@Test
+	public void testBind() {
+		ParserSpec spec = createParser().compile();
+		IParseResult msg = new SystemOutputParseResult();
+		ParseSession s = spec.parse(msg, "-verbose", "--port", "8080", "-size", "5000000000", "-scale", "0.5",
+				"-n", "name", "-ids", "1", "2", "-flags", "true", "false", "-files", "a", "b", "c");
+		assertTrue(msg.getParseResult(), s.isSuccessFullyParsed());
+
+		Options o = OptionBinder.of(Options.class).bind(s, new Options());
+		assertTrue(o.verbose);
+		assertEquals(8080, o.port);
+		assertEquals(5000000000L, o.size);
+		assertEquals(1.5, o.ratio, 0.0);
+		assertEquals(0.5f, o.scale, 0.0f);
+		assertEquals("name", o.name);
+		assertArrayEquals(new String[]{"a", "b", "c"}, o.files);
+		assertArrayEquals(new int[]{1, 2}, o.ids);
+		assertTrue(o.flags[0]);
+		assertFalse(o.flags[1]);
+		assertEquals("untouched", o.other);
+
+		// Defaults are kept for arguments that got no value
+		o = OptionBinder.of(Options.class).bind(spec.parse(new SystemOutputParseResult(), "-n", "x"), new Options());
+		assertEquals(80, o.port);
+		assertEquals("x", o.name);
+		assertNull(o.files);
+		assertFalse(o.verbose);
+	}
+
+	@Test
+	public void testBinderIsShared() {
+		assertSame(OptionBinder.of(Options.class), OptionBinder.of(Options.class));
+	}
+
+	static class Unknown {
+		@Option
+		int missing;
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testUnknownArgument() {
+		CmdParser4J p = createParser();
+		assertTrue(p.parse("--port", "1"));
+		OptionBinder.of(Unknown.class).bind(p.getSession(), new Unknown());
+	}
+
+	static class WrongType {
+		@Option("--port")
+		String port;
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testWrongType() {
+		CmdParser4J p = createParser();
+		assertTrue(p.parse("--port", "1"));
+		OptionBinder.of(WrongType.class).bind(p.getSession(), new WrongType());
+	}
+
+	static class Unsupported {
+		@Option
+		Object value;
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnsupportedField() {
+		OptionBinder.of(Unsupported.class);
+	}
+
+	static class PortOptions {
+		@Option("--port")
+		int port;
+	}
+
+	@Test
+	public void testBindFromAnotherSpecification() {
+		CmdParser4J p = new CmdParser4J(new SystemOutputParseResult());
+		p.accept("--port").asInteger(1);
+		ParserSpec spec = p.compile();
+		assertEquals(1, OptionBinder.of(PortOptions.class).bind(spec.parse(new SystemOutputParseResult(), "--port", "1"), new PortOptions()).port);
+
+		// Another slot
+		p = new CmdParser4J(new SystemOutputParseResult());
+		p.accept("-x").asString(1);
+		p.accept("--port").asInteger(1);
+		spec = p.compile();
+		assertEquals(2, OptionBinder.of(PortOptions.class).bind(spec.parse(new SystemOutputParseResult(), "-x", "a", "--port", "2"), new PortOptions()).port);
+
+		// Another type
+		p = new CmdParser4J(new SystemOutputParseResult());
+		p.accept("--port").asString(1);
+		spec = p.compile();
+		try {
+			OptionBinder.of(PortOptions.class).bind(spec.parse(new SystemOutputParseResult(), "--port", "3"), new PortOptions());
+			fail();
+		} catch (IllegalStateException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("does not match the type"));
+		}
+
+		// Missing
+		p = new CmdParser4J(new SystemOutputParseResult());
+		p.accept("-x").asString(1);
+		spec = p.compile();
+		try {
+			OptionBinder.of(PortOptions.class).bind(spec.parse(new SystemOutputParseResult(), "-x", "a"), new PortOptions());
+			fail();
+		} catch (IllegalStateException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("no such argument is defined"));
+		}
+	}
+}
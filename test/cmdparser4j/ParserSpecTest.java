@@ -0,0 +1,209 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import cmdparser4j.limits.NumericLimit;
+import cmdparser4j.limits.StringLengthLimit;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ParserSpecTest {
+
+	private ParserSpec createSpec() {
+		CmdParser4J p = new CmdParser4J(new SystemOutputParseResult());
+		p.accept("-m").asString(1, 3);
+		p.accept("-i").asInteger(1).setMandatory();
+		p.accept("-b").asSingleBoolean().blockedBy("-c");
+		p.accept("-c").asSingleBoolean();
+		return p.compile();
+	}
+
+	@Test
+	public void testSessionsAreIndependent() {
+		ParserSpec spec = createSpec();
+
+		IParseResult firstMsg = new SystemOutputParseResult();
+		ParseSession first = spec.parse(firstMsg, "-i", "1", "-m", "a", "b");
+		IParseResult secondMsg = new SystemOutputParseResult();
+		ParseSession second = spec.parse(secondMsg, "-i", "2", "-b");
+
+		assertTrue(first.isSuccessFullyParsed());
+		assertTrue(second.isSuccessFullyParsed());
+		assertEquals(1, first.getInteger("-i"));
+		assertEquals(2, second.getInteger("-i"));
+		assertEquals(2, first.getAvailableStringParameterCount("-m"));
+		assertEquals(0, second.getAvailableStringParameterCount("-m"));
+		assertFalse(first.getBool("-b"));
+		assertTrue(second.getBool("-b"));
+		assertEquals("", firstMsg.getParseResult());
+		assertEquals("", secondMsg.getParseResult());
+	}
+
+	@Test
+	public void testFailedSessionDoesNotAffectOthers() {
+		ParserSpec spec = createSpec();
+
+		IParseResult msg = new SystemOutputParseResult();
+		ParseSession failed = spec.parse(msg, "-i", "1", "-b", "-c");
+		assertFalse(failed.isSuccessFullyParsed());
+		assertTrue(msg.getParseResult().contains("mutually exclusive"));
+		assertSame(msg, failed.getMessageParser());
+
+		ParseSession ok = spec.parse(new SystemOutputParseResult(), "-i", "1", "-c");
+		assertTrue(ok.isSuccessFullyParsed());
+		assertTrue(ok.getBool("-c"));
+	}
+
+	@Test
+	public void testSpecIsNotAffectedByLaterDefinitions() {
+		IParseResult msg = new SystemOutputParseResult();
+		CmdParser4J p = new CmdParser4J(msg);
+		Constructor c = p.accept("-a").asString(1);
+		ParserSpec spec = p.compile();
+		assertSame(spec, p.compile());
+
+		c.setMandatory().withAlias("-A");
+		p.accept("-b").asString(1);
+
+		assertNotSame(spec, p.compile());
+		assertTrue(spec.parse(new SystemOutputParseResult(), "-a", "x").isSuccessFullyParsed());
+		assertFalse(spec.parse(new SystemOutputParseResult(), "-A", "x").isSuccessFullyParsed());
+		assertFalse(spec.parse(new SystemOutputParseResult(), "-b", "x").isSuccessFullyParsed());
+		assertTrue(p.parse("-A", "x", "-b", "y"));
+	}
+
+	@Test
+	public void testParseLine() {
+		ParserSpec spec = createSpec();
+
+		IParseResult msg = new SystemOutputParseResult();
+		ParseSession s = spec.parseLine(msg, "  -i 42 -m \"first value\" 'second' -c ");
+		assertTrue(msg.getParseResult(), s.isSuccessFullyParsed());
+		assertEquals(42, s.getInteger("-i"));
+		assertEquals("first value", s.getString("-m"));
+		assertEquals("second", s.getString("-m", 1));
+		assertTrue(s.getBool("-c"));
+
+		msg = new SystemOutputParseResult();
+		char[] buffer = "xx -i 7 -m abc yy".toCharArray();
+		s = spec.parseLine(msg, buffer, 3, 11);
+		assertTrue(msg.getParseResult(), s.isSuccessFullyParsed());
+		assertEquals(7, s.getInteger("-i"));
+		assertEquals("abc", s.getString("-m"));
+
+		msg = new SystemOutputParseResult();
+		assertFalse(spec.parseLine(msg, "-i 1 -m a b c d").isSuccessFullyParsed());
+		assertTrue(msg.getParseResult().contains("Unknown arguments on the command line: [d]"));
+	}
+
+	@Test
+	public void testDefinitionErrors() {
+		CmdParser4J p = new CmdParser4J(new SystemOutputParseResult());
+		p.accept("-untyped");
+		p.accept("-a").asSingleBoolean().dependsOn("-nothing").blockedBy("-none");
+		ParserSpec spec = p.compile();
+		assertFalse(spec.isValid());
+
+		// The errors found when compiled are reported once to the result of every parse
+		for (int i = 0; i < 2; ++i) {
+			SystemOutputParseResult msg = new SystemOutputParseResult();
+			assertFalse(spec.parse(msg).isSuccessFullyParsed());
+			assertEquals(3, msg.getErrorCount());
+			String s = msg.getParseResult();
+			assertTrue(s, s.contains("'-untyped' is missing type information"));
+			assertTrue(s, s.contains("Argument '-a' depends on '-nothing', but no such argument is defined"));
+			assertTrue(s, s.contains("Argument '-a' is mutually exclusive to '-none', but no such argument is defined"));
+		}
+	}
+
+	@Test
+	public void testUnusableArguments() {
+		CmdParser4J p = new CmdParser4J(new SystemOutputParseResult());
+		p.accept("-a").asSingleBoolean().dependsOn("-b").blockedBy("-b");
+		p.accept("-b").asSingleBoolean();
+		p.accept("-c").asSingleBoolean().dependsOn("-d");
+		p.accept("-d").asSingleBoolean().dependsOn("-e");
+		p.accept("-e").asSingleBoolean().blockedBy("-c");
+		p.accept("-f").asSingleBoolean().blockedBy("-f");
+
+		IParseResult msg = new SystemOutputParseResult();
+		assertFalse(p.compile().checkDefinitions(msg));
+		String s = msg.getParseResult();
+		assertTrue(s, s.contains("Argument '-a' can never be used as it requires both '-a' and '-b'"));
+		assertTrue(s, s.contains("Argument '-c' can never be used as it requires both '-e' and '-c'"));
+		assertTrue(s, s.contains("Argument '-f' can never be used as it requires both '-f' and '-f'"));
+		assertFalse(s, s.contains("Argument '-b'"));
+		assertFalse(s, s.contains("Argument '-d'"));
+		assertFalse(s, s.contains("Argument '-e'"));
+	}
+
+	@Test
+	public void testDependencyCyclesAreValid() {
+		CmdParser4J p = new CmdParser4J(new SystemOutputParseResult());
+		p.accept("-a").asSingleBoolean().dependsOn("-b");
+		p.accept("-b").asSingleBoolean().dependsOn("-c");
+		p.accept("-c").asSingleBoolean().dependsOn("-a");
+		p.accept("-x").asSingleBoolean().blockedBy("-a");
+		ParserSpec spec = p.compile();
+		assertTrue(spec.isValid());
+
+		assertTrue(spec.parse(new SystemOutputParseResult(), "-a", "-b", "-c").isSuccessFullyParsed());
+		assertFalse(spec.parse(new SystemOutputParseResult(), "-a", "-b").isSuccessFullyParsed());
+	}
+
+	@Test
+	public void testDependencyCycleWithMutuallyExclusiveMembers() {
+		CmdParser4J p = new CmdParser4J(new SystemOutputParseResult());
+		p.accept("-a").asSingleBoolean().dependsOn("-b");
+		p.accept("-b").asSingleBoolean().dependsOn("-c");
+		p.accept("-c").asSingleBoolean().dependsOn("-a").blockedBy("-a");
+
+		IParseResult msg = new SystemOutputParseResult();
+		assertFalse(p.compile().checkDefinitions(msg));
+		String s = msg.getParseResult();
+		assertTrue(s, s.contains("Argument '-a' can never be used as it requires both '-c' and '-a'"));
+		assertTrue(s, s.contains("Argument '-b' can never be used as it requires both '-c' and '-a'"));
+		assertTrue(s, s.contains("Argument '-c' can never be used as it requires both '-c' and '-a'"));
+	}
+
+	@Test
+	public void testUnusableArgumentWithoutDefinitionResult() {
+		CmdParser4J p = new CmdParser4J(new SystemOutputParseResult());
+		p.accept("-a").asSingleBoolean().dependsOn("-b").blockedBy("-b");
+		p.accept("-b").asSingleBoolean();
+
+		final StringBuilder exclusive = new StringBuilder();
+		IParseResult msg = new ParseResultAdapter() {
+			@Override
+			public void argumentsAreMutuallyExclusive(String first, String second) {
+				exclusive.append(first).append(" ").append(second);
+			}
+		};
+
+		assertFalse(p.compile().checkDefinitions(msg));
+		assertEquals("-a -b", exclusive.toString());
+	}
+
+	/**
+	 * An implementation that only knows about {@link IParseResult}.
+	 */
+	private static class ParseResultAdapter implements IParseResult {
+		public void unknownArguments(String unknownArguments) {}
+		public void argumentSpecifiedMultipleTimes(String primaryName) {}
+		public void missingMandatoryArgument(String primaryName) {}
+		public String getParseResult() { return ""; }
+		public void noSuchArgumentDefined(String argument, String dependsOn) {}
+		public void missingDependentArgument(String primaryName, String dependsOn) {}
+		public void noSuchMutuallyExclusiveArgumentDefined(String primaryName, String blocker) {}
+		public void argumentsAreMutuallyExclusive(String first, String second) {}
+		public void notEnoughParameters(String argumentName, int myMinParameterCount) {}
+		public void failedToParseArgument(String argumentName) {}
+		public void argumentMissingType(String primaryName) {}
+		public void failedToLoadConfiguration(String fileNameArgument) {}
+		public void outsideLimits(String primaryName, NumericLimit tNumericLimit) {}
+		public void outsideLimits(String primaryName, StringLengthLimit tNumericLimit) {}
+		public void exception(Exception e) {}
+	}
+}
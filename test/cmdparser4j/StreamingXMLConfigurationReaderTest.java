@@ -0,0 +1,172 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import cmdparser4j.XMLConfigurationReader.NodeMatcher;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class StreamingXMLConfigurationReaderTest {
+
+	private static final String CONFIG = "<Settings>" +
+			"<First><![CDATA[40]]></First>" +
+			"<First>4<!-- comment -->1</First>" +
+			"<Second Key=\"A\" Value=\"1234\"/>" +
+			"<Second Key=\"B\" Value=\"5678\">text</Second>" +
+			"<Group><Third Value=\"x\"/></Group>" +
+			"<Other><Third Value=\"y\"/></Other>" +
+			"</Settings>";
+
+	@Test
+	public void testAllMatchersInOnePass() {
+		IParseResult msg = new SystemOutputParseResult();
+		CmdParser4J p = new CmdParser4J(msg);
+		p.accept("-first").asInteger(2);
+		p.accept("-second").asInteger(1);
+		p.accept("-text").asString(1);
+		p.accept("-third").asString(1, 2);
+
+		StreamingXMLConfigurationReader cfg = new StreamingXMLConfigurationReader(CONFIG, msg);
+		cfg.setMatcher("-first", new NodeMatcher("/Settings/First"));
+		cfg.setMatcher("-second", new NodeMatcher("/Settings/Second", "Value", "Key", "B"));
+		cfg.setMatcher("-text", new NodeMatcher("/Settings/Second", "Key", "B"));
+		cfg.setMatcher("-third", new NodeMatcher("/Settings/*/Third", "Value"));
+
+		assertTrue(msg.getParseResult(), p.parse(cfg));
+		assertEquals(40, p.getInteger("-first"));
+		assertEquals(41, p.getInteger("-first", 1));
+		assertEquals(5678, p.getInteger("-second"));
+		assertEquals("text", p.getString("-text"));
+		assertEquals("x", p.getString("-third"));
+		assertEquals("y", p.getString("-third", 1));
+
+		// Command line takes precedence
+		assertTrue(p.parse(cfg, "-second", "1"));
+		assertEquals(1, p.getInteger("-second"));
+	}
+
+	@Test
+	public void testSameResultAsXMLConfigurationReader() {
+		IParseResult msg = new SystemOutputParseResult();
+		CmdParser4J p = new CmdParser4J(msg);
+		p.accept("-first").asString(1, 2);
+		p.accept("-second").asString(1, 2);
+
+		XMLConfigurationReader dom = new XMLConfigurationReader(CONFIG, msg);
+		StreamingXMLConfigurationReader streaming = new StreamingXMLConfigurationReader(CONFIG, msg);
+		NodeMatcher first = new NodeMatcher("/Settings/First");
+		NodeMatcher second = new NodeMatcher("/Settings/Second", "Value");
+		dom.setMatcher("-first", first);
+		dom.setMatcher("-second", second);
+		streaming.setMatcher("-first", first);
+		streaming.setMatcher("-second", second);
+
+		ParserSpec spec = p.compile();
+		ParseSession a = spec.parse(msg, dom);
+		ParseSession b = spec.parse(msg, streaming);
+		assertTrue(a.isSuccessFullyParsed());
+		assertTrue(b.isSuccessFullyParsed());
+
+		for (String name : new String[]{"-first", "-second"}) {
+			for (int i = 0; i < 2; ++i) {
+				assertEquals(a.getString(name, i), b.getString(name, i));
+			}
+		}
+	}
+
+	@Test
+	public void testUnsupportedPath() {
+		IParseResult msg = new SystemOutputParseResult();
+		CmdParser4J p = new CmdParser4J(msg);
+		p.accept("-first").asInteger(1);
+
+		StreamingXMLConfigurationReader cfg = new StreamingXMLConfigurationReader(CONFIG, msg);
+		cfg.setMatcher("-first", new NodeMatcher("//First[1]"));
+		assertFalse(p.parse(cfg));
+	}
+
+	@Test
+	public void testInvalidData() {
+		IParseResult msg = new SystemOutputParseResult();
+		CmdParser4J p = new CmdParser4J(msg);
+		p.accept("-first").asInteger(1);
+
+		StreamingXMLConfigurationReader cfg = new StreamingXMLConfigurationReader("<Settings><First>1</First>", msg);
+		cfg.setMatcher("-first", new NodeMatcher("/Settings/First"));
+		assertFalse(p.parse(cfg));
+	}
+
+	@Test
+	public void testLoadFromFile() throws IOException {
+		IParseResult msg = new SystemOutputParseResult();
+		CmdParser4J p = new CmdParser4J(msg);
+		p.accept("-first").asInteger(2);
+		p.accept("-config").asString(1).setMandatory();
+
+		File f = File.createTempFile("cmdparser4j", ".xml");
+		f.deleteOnExit();
+		FileOutputStream fs = new FileOutputStream(f);
+		try {
+			fs.write(CONFIG.getBytes("UTF-8"));
+		} finally {
+			fs.close();
+		}
+
+		StreamingXMLConfigurationReader cfg = new StreamingXMLConfigurationReader(msg);
+		cfg.setMatcher("-first", new NodeMatcher("/Settings/First"));
+
+		assertTrue(p.parse("-config", cfg, "-config", f.getPath()));
+		assertEquals(40, p.getInteger("-first"));
+		assertEquals(41, p.getInteger("-first", 1));
+
+		assertFalse(p.parse("-config", cfg, "-config", "non-existingFile.xml"));
+	}
+
+	@Test
+	public void testNestedMatchesInDocumentOrder() {
+		String xml = "<S>" +
+				"<A Value=\"a1\">1<B Value=\"b1\">2</B>3<B Value=\"b2\"></B></A>" +
+				"<C Value=\"c1\"><A Value=\"x\">4</A></C>" +
+				"<A Value=\"a2\"><B Value=\"b3\">5</B></A>" +
+				"</S>";
+
+		IParseResult msg = new SystemOutputParseResult();
+		CmdParser4J p = new CmdParser4J(msg);
+		String[] names = {"-outer", "-inner", "-any", "-anyValue", "-innerValue"};
+		NodeMatcher[] matchers = {
+				new NodeMatcher("/S/A"),
+				new NodeMatcher("/S/A/B"),
+				new NodeMatcher("/S/*"),
+				new NodeMatcher("/S/*", "Value"),
+				new NodeMatcher("/S/*/B", "Value")};
+
+		XMLConfigurationReader dom = new XMLConfigurationReader(xml, msg);
+		StreamingXMLConfigurationReader streaming = new StreamingXMLConfigurationReader(xml, msg);
+		for (int i = 0; i < names.length; ++i) {
+			p.accept(names[i]).asString(1, Constructor.NO_PARAMETER_LIMIT);
+			dom.setMatcher(names[i], matchers[i]);
+			streaming.setMatcher(names[i], matchers[i]);
+		}
+
+		ParserSpec spec = p.compile();
+		ParseSession a = spec.parse(msg, dom);
+		ParseSession b = spec.parse(msg, streaming);
+		assertTrue(msg.getParseResult(), a.isSuccessFullyParsed());
+		assertTrue(msg.getParseResult(), b.isSuccessFullyParsed());
+
+		for (String name : names) {
+			assertEquals(name, dom.getValues(name), streaming.getValues(name));
+		}
+
+		assertEquals(Arrays.asList("123", "4", "5"), streaming.getValues("-any"));
+		assertEquals(Arrays.asList("a1", "c1", "a2"), streaming.getValues("-anyValue"));
+		assertEquals(Arrays.asList("b1", "b2", "b3"), streaming.getValues("-innerValue"));
+	}
+}
@@ -0,0 +1,92 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import cmdparser4j.limits.NumericLimit;
+import cmdparser4j.limits.StringLengthLimit;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class SystemOutputParseResultTest {
+	private static final String NL = System.getProperty("line.separator");
+
+	@Test
+	public void testErrors() {
+		SystemOutputParseResult msg = new SystemOutputParseResult();
+		msg.missingMandatoryArgument("-a");
+		msg.notEnoughParameters("-b", 3);
+		msg.outsideLimits("-c", new NumericLimit<Double>(1.5, 2.5));
+
+		assertEquals(3, msg.getErrorCount());
+		assertEquals(ParseError.MISSING_MANDATORY_ARGUMENT, msg.getError(0));
+		assertEquals("-a", msg.getValue(0, 0));
+		assertEquals(ParseError.NOT_ENOUGH_PARAMETERS, msg.getError(1));
+		assertEquals("-b", msg.getValue(1, 0));
+		assertEquals(3, msg.getNumber(1, 0));
+		assertEquals(ParseError.OUTSIDE_LIMITS, msg.getError(2));
+		assertEquals(2.5, msg.getValue(2, 2));
+
+		try {
+			msg.getNumber(0, 0);
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+			// Expected, the error has no numbers
+		}
+	}
+
+	@Test
+	public void testText() {
+		SystemOutputParseResult msg = new SystemOutputParseResult();
+		msg.argumentMissingType("-a");
+		msg.notEnoughParameters("-b", 3);
+		msg.outsideLimits("-c", new StringLengthLimit(1, 5));
+
+		String expected = "'-a' is missing type information. This is a programming error - contact the author of the application" + NL +
+				"There are not enough parameters for the argument -b, 3 wanted" + NL +
+				"Parameter for argument '-c' is outside allowed lengths of 1 - 5" + NL;
+		assertEquals(expected, msg.getParseResult());
+
+		msg.failedToParseArgument("-d");
+		assertEquals(expected + "Parsing of argument '-d' failed" + NL, msg.getParseResult());
+	}
+
+	@Test
+	public void testClear() {
+		SystemOutputParseResult msg = new SystemOutputParseResult();
+		CmdParser4J p = new CmdParser4J(msg);
+		p.accept("-a").asInteger(1).setMandatory();
+		p.accept("-b").asString(1);
+		ParserSpec spec = p.compile();
+
+		for (int i = 0; i < 10; ++i) {
+			assertFalse(spec.parse(msg, "-b", "x").isSuccessFullyParsed());
+			assertEquals(1, msg.getErrorCount());
+			assertEquals("The mandatory argument '-a' is missing" + NL, msg.getParseResult());
+			msg.clear();
+		}
+
+		assertEquals(0, msg.getErrorCount());
+		assertEquals("", msg.getParseResult());
+	}
+
+	@Test
+	public void testUnknownArguments() {
+		SystemOutputParseResult msg = new SystemOutputParseResult();
+		CmdParser4J p = new CmdParser4J(msg);
+		p.accept("-a").asInteger(1);
+		ParserSpec spec = p.compile();
+
+		String[] args = {"x", "y", "-a", "1"};
+		assertFalse(spec.parse(msg, args).isSuccessFullyParsed());
+		// The tokens are copied, not the array
+		args[0] = "changed";
+
+		assertEquals(ParseError.UNKNOWN_ARGUMENTS, msg.getError(0));
+		assertEquals(Arrays.asList("x", "y"), msg.getValue(0, 0));
+		assertEquals("Unknown arguments on the command line: [x, y]" + NL, msg.getParseResult());
+	}
+}
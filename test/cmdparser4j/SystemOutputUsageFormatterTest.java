@@ -0,0 +1,73 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+public class SystemOutputUsageFormatterTest {
+	private static final String NL = System.getProperty("line.separator");
+
+	private CmdParser4J createParser() {
+		CmdParser4J p = new CmdParser4J(new SystemOutputParseResult());
+		p.accept("-b").asString(1).describedAs("Second");
+		p.accept("-a").asInteger(2).setMandatory().withAlias("-A").describedAs("First, with a description long enough to be wrapped");
+		p.accept("-c-with-a-name-longer-than-the-column").asSingleBoolean().dependsOn("-a").describedAs("Third");
+		return p;
+	}
+
+	@Test
+	public void testWriteTo() throws IOException {
+		SystemOutputUsageFormatter usage = new SystemOutputUsageFormatter("app");
+		createParser().getUsage(usage);
+
+		StringWriter out = new StringWriter();
+		usage.writeTo(out);
+		assertEquals(usage.toString(), out.toString());
+		assertEquals("app" + NL +
+				"Command:" + NL +
+				"  -a  (-A)   <arg2>                First, with a description long enough to be wrapped" + NL +
+				"Command:" + NL +
+				"  -b                               Second" + NL +
+				"Command:" + NL +
+				"  -c-with-a-name-longer-than-the-columnThird" + NL +
+				"      Dependencies:" + NL +
+				"      -a " + NL, out.toString());
+	}
+
+	@Test
+	public void testWrapping() {
+		SystemOutputUsageFormatter usage = new SystemOutputUsageFormatter("app", 50);
+		createParser().getUsage(usage);
+
+		assertEquals("app" + NL +
+				"Command:" + NL +
+				"  -a  (-A)   <arg2>                First, with a" + NL +
+				"                                   description" + NL +
+				"                                   long enough to" + NL +
+				"                                   be wrapped" + NL +
+				"Command:" + NL +
+				"  -b                               Second" + NL +
+				"Command:" + NL +
+				"  -c-with-a-name-longer-than-the-column" + NL +
+				"                                   Third" + NL +
+				"      Dependencies:" + NL +
+				"      -a " + NL, usage.toString());
+	}
+
+	@Test
+	public void testLongWordsAreSplit() {
+		SystemOutputUsageFormatter usage = new SystemOutputUsageFormatter("app", 40);
+		CmdParser4J p = new CmdParser4J(new SystemOutputParseResult());
+		p.accept("-a").asSingleBoolean().describedAs("abcdefghijkl");
+		p.getUsage(usage);
+
+		assertTrue(usage.toString(), usage.toString().contains("abcde" + NL + "                                   fghij" + NL
+				+ "                                   kl" + NL));
+	}
+}
@@ -0,0 +1,137 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class UsageCacheTest {
+
+	private static class CountingFormatter extends SystemOutputUsageFormatter {
+		int prepared = 0;
+
+		CountingFormatter() {
+			this("app");
+		}
+
+		CountingFormatter(String header) {
+			super(header);
+		}
+
+		@Override
+		public void prepareMandatory(String primaryName, boolean hasVariableParameterCount, int maxArgumentCount, List<String> aliases, List<String> dependencyNames, String description) {
+			++prepared;
+			super.prepareMandatory(primaryName, hasVariableParameterCount, maxArgumentCount, aliases, dependencyNames, description);
+		}
+
+		@Override
+		public void prepareNonMandatory(String primaryName, boolean hasVariableParameterCount, int maxArgumentCount, List<String> aliases, List<String> dependencyNames, String description) {
+			++prepared;
+			super.prepareNonMandatory(primaryName, hasVariableParameterCount, maxArgumentCount, aliases, dependencyNames, description);
+		}
+	}
+
+	private CmdParser4J createParser(String description) {
+		CmdParser4J p = new CmdParser4J(new SystemOutputParseResult());
+		p.accept("-a").asInteger(1).setMandatory().describedAs(description);
+		p.accept("-b").asSingleBoolean().dependsOn("-a");
+		return p;
+	}
+
+	@Test
+	public void testFingerprint() {
+		assertEquals(createParser("First").compile().getFingerprint(), createParser("First").compile().getFingerprint());
+		assertNotEquals(createParser("First").compile().getFingerprint(), createParser("Other").compile().getFingerprint());
+	}
+
+	@Test
+	public void testCachedInMemory() {
+		UsageCache cache = new UsageCache();
+		ParserSpec spec = createParser("First").compile();
+
+		CountingFormatter first = new CountingFormatter();
+		String text = cache.getUsage(spec, first);
+		assertEquals(2, first.prepared);
+
+		CountingFormatter second = new CountingFormatter();
+		assertEquals(text, cache.getUsage(spec, second));
+		assertEquals(0, second.prepared);
+
+		// Changed definitions replace the text
+		CountingFormatter third = new CountingFormatter();
+		String other = cache.getUsage(createParser("Other").compile(), third);
+		assertEquals(2, third.prepared);
+		assertTrue(other.contains("Other"));
+		assertFalse(other.equals(text));
+	}
+
+	@Test
+	public void testPersisted() throws Exception {
+		File file = File.createTempFile("usage", ".properties");
+		file.delete();
+
+		try {
+			ParserSpec spec = createParser("First").compile();
+			String text = new UsageCache(file).getUsage(spec, new CountingFormatter(), "wide");
+			assertTrue(file.isFile());
+
+			CountingFormatter f = new CountingFormatter();
+			assertEquals(text, new UsageCache(file).getUsage(spec, f, "wide"));
+			assertEquals(0, f.prepared);
+
+			// Other settings are kept separately
+			f = new CountingFormatter();
+			new UsageCache(file).getUsage(spec, f, "narrow");
+			assertEquals(2, f.prepared);
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testKeyedByFormatterSettings() {
+		UsageCache cache = new UsageCache();
+		ParserSpec spec = createParser("First").compile();
+
+		String first = cache.getUsage(spec, new CountingFormatter("first"));
+		assertTrue(first.startsWith("first"));
+
+		// Only the header differs
+		CountingFormatter f = new CountingFormatter("second");
+		String second = cache.getUsage(spec, f);
+		assertEquals(2, f.prepared);
+		assertTrue(second.startsWith("second"));
+
+		f = new CountingFormatter("first");
+		assertEquals(first, cache.getUsage(spec, f));
+		assertEquals(0, f.prepared);
+	}
+
+	@Test
+	public void testFormatterWithoutKeyIsNotCached() {
+		UsageCache cache = new UsageCache();
+		ParserSpec spec = createParser("First").compile();
+
+		for (int i = 0; i < 2; ++i) {
+			final int[] prepared = {0};
+			IUsageFormatter usage = new IUsageFormatter() {
+				@Override
+				public void prepareMandatory(String primaryName, boolean hasVariableParameterCount, int maxArgumentCount, List<String> aliases, List<String> dependencyNames, String description) {
+					++prepared[0];
+				}
+
+				@Override
+				public void prepareNonMandatory(String primaryName, boolean hasVariableParameterCount, int maxArgumentCount, List<String> aliases, List<String> dependencyNames, String description) {
+					++prepared[0];
+				}
+			};
+			cache.getUsage(spec, usage);
+			assertEquals(2, prepared[0]);
+		}
+	}
+}
@@ -0,0 +1,214 @@
+// Copyright (c) 2016 Per Malmberg
+// Licensed under MIT, see LICENSE file.
+
+package cmdparser4j.processor;
+
+import cmdparser4j.CmdParser4J;
+import cmdparser4j.IParseResult;
+import cmdparser4j.OptionBinder;
+import cmdparser4j.SystemOutputParseResult;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeNotNull;
+
+public class ParserGeneratorTest {
+	private static final String OPTIONS = "package gen;\n" +
+			"import cmdparser4j.*;\n" +
+			"@GenerateParser\n" +
+			"public class Options {\n" +
+			"	@Option(value = \"--port\", mandatory = true) int port = 80;\n" +
+			"	@Option long size;\n" +
+			"	@Option double ratio = 2.5;\n" +
+			"	@Option float scale;\n" +
+			"	@Option(\"-n\") String name;\n" +
+			"	@Option boolean verbose;\n" +
+			// Same hash code
+			"	@Option(\"Aa\") boolean aa;\n" +
+			"	@Option(\"BB\") boolean bb;\n" +
+			"	@Option int[] ids;\n" +
+			"	@Option String[] files;\n" +
+			"	@Option double[] values;\n" +
+			"	String other;\n" +
+			"	@GenerateParser\n" +
+			"	public static class Nested {\n" +
+			"		@Option(mandatory = true) String input;\n" +
+			"	}\n" +
+			"}\n";
+
+	private File myDir;
+
+	@Before
+	public void setUp() throws IOException {
+		myDir = File.createTempFile("generator", "");
+		assertTrue(myDir.delete());
+		assertTrue(myDir.mkdirs());
+	}
+
+	private boolean compile(String source, ByteArrayOutputStream diagnostics) throws IOException {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		assumeNotNull(compiler);
+
+		File src = new File(myDir, "gen");
+		assertTrue(src.mkdirs() || src.isDirectory());
+		File file = new File(src, "Options.java");
+		Writer w = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		try {
+			w.write(source);
+		} finally {
+			w.close();
+		}
+
+		return compiler.run(null, null, diagnostics, "-d", myDir.getPath(), "-s", myDir.getPath(),
+				"-classpath", System.getProperty("java.class.path"),
+				"-processor", ParserGenerator.class.getName(), file.getPath()) == 0;
+	}
+
+	@Test
+	public void testSameResultAsCmdParser4J() throws Exception {
+		ByteArrayOutputStream diagnostics = new ByteArrayOutputStream();
+		assertTrue(diagnostics.toString(), compile(OPTIONS, diagnostics));
+
+		ClassLoader loader = new URLClassLoader(new URL[]{myDir.toURI().toURL()}, getClass().getClassLoader());
+		Class<?> options = loader.loadClass("gen.Options");
+		Class<?> parser = loader.loadClass("gen.OptionsParser");
+		assertNotNull(loader.loadClass("gen.Options_NestedParser"));
+
+		String[][] commandLines = {
+				{},
+				{"--port", "1"},
+				{"--port", "1", "-size", "5000000000", "-ratio", "0.5", "-scale", "1e3", "-n", "x", "-verbose", "Aa", "BB", "-ids", "1", "2", "3"},
+				{"BB", "--port", "2", "-files", "a", "b", "c"},
+				{"--port", "1", "-values", "1.5", "-2"},
+				{"x", "--port", "1"},
+				{"unknown"},
+				{"--port", "1", "--port", "2", "-n", "a", "-n", "b"},
+				{"--port"},
+				{"--port", "abc"},
+				{"--port", "99999999999"},
+				{"--port", "1", "extra"},
+				{"--port", "1", "-n", ""},
+				{"-ratio", "1e999", "--port", "1"},
+				{"--port", "1", "-ids", "1", "x"},
+				{"-verbose", "x", "--port", "1"},
+				{"-size", "9223372036854775808", "--port", "1"},
+				{"-ids", "1", "-n", "a"},
+		};
+
+		assertSameResult(options, parser, commandLines);
+	}
+
+	/**
+	 * Parses each command line with the generated parser and with CmdParser4J, comparing the outcome and all option fields.
+	 */
+	private static void assertSameResult(Class<?> options, Class<?> parser, String[][] commandLines) throws Exception {
+		Method parse = parser.getMethod("parse", options, IParseResult.class, String[].class);
+		Method define = parser.getMethod("define", CmdParser4J.class);
+
+		for (String[] args : commandLines) {
+			IParseResult generatedMsg = new SystemOutputParseResult();
+			Object generated = options.newInstance();
+			boolean generatedOk = (Boolean) parse.invoke(null, generated, generatedMsg, args);
+
+			IParseResult msg = new SystemOutputParseResult();
+			CmdParser4J p = new CmdParser4J(msg);
+			define.invoke(null, p);
+			boolean ok = p.parse(args);
+
+			String description = Arrays.toString(args);
+			assertEquals(description, ok, generatedOk);
+			assertEquals(description, msg.getParseResult(), generatedMsg.getParseResult());
+
+			if (ok) {
+				Object bound = bind(options, p);
+				for (Class<?> c = options; c != Object.class; c = c.getSuperclass()) {
+					for (Field f : c.getDeclaredFields()) {
+						f.setAccessible(true);
+						assertTrue(description + " " + f.getName(),
+								Arrays.deepEquals(new Object[]{f.get(bound)}, new Object[]{f.get(generated)}));
+					}
+				}
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T bind(Class<T> type, CmdParser4J p) throws Exception {
+		return OptionBinder.of(type).bind(p.getSession(), type.newInstance());
+	}
+
+	@Test
+	public void testInvalidFields() throws Exception {
+		ByteArrayOutputStream diagnostics = new ByteArrayOutputStream();
+		assertFalse(compile("package gen;\n" +
+				"import cmdparser4j.*;\n" +
+				"@GenerateParser\n" +
+				"public class Options {\n" +
+				"	@Option private int hidden;\n" +
+				"	@Option Object value;\n" +
+				"	@Option(\"-x\") int x;\n" +
+				"	@Option(\"-x\") int y;\n" +
+				"}\n", diagnostics));
+
+		String s = diagnostics.toString();
+		assertTrue(s, s.contains("Option fields must not be private, static or final"));
+		assertTrue(s, s.contains("Unsupported option field type java.lang.Object"));
+		assertTrue(s, s.contains("Argument '-x' is defined more than once"));
+	}
+
+	@Test
+	public void testInheritedFields() throws Exception {
+		ByteArrayOutputStream diagnostics = new ByteArrayOutputStream();
+		assertTrue(diagnostics.toString(), compile("package gen;\n" +
+				"import cmdparser4j.*;\n" +
+				"class Base {\n" +
+				"	@Option(mandatory = true) String input;\n" +
+				"	@Option int count = 3;\n" +
+				"}\n" +
+				"@GenerateParser\n" +
+				"public class Options extends Base {\n" +
+				"	@Option boolean verbose;\n" +
+				"}\n", diagnostics));
+
+		ClassLoader loader = new URLClassLoader(new URL[]{myDir.toURI().toURL()}, getClass().getClassLoader());
+		assertSameResult(loader.loadClass("gen.Options"), loader.loadClass("gen.OptionsParser"), new String[][]{
+				{},
+				{"-verbose"},
+				{"-input", "a"},
+				{"-input", "a", "-count", "7", "-verbose"},
+				{"-count", "x", "-input", "a"},
+		});
+	}
+
+	@Test
+	public void testControlCharactersInNames() throws Exception {
+		ByteArrayOutputStream diagnostics = new ByteArrayOutputStream();
+		assertTrue(diagnostics.toString(), compile("package gen;\n" +
+				"import cmdparser4j.*;\n" +
+				"@GenerateParser\n" +
+				"public class Options {\n" +
+				"	@Option(\"-a\\n\\t\\r\\0\\u00e5\") int a;\n" +
+				"}\n", diagnostics));
+
+		ClassLoader loader = new URLClassLoader(new URL[]{myDir.toURI().toURL()}, getClass().getClassLoader());
+		assertSameResult(loader.loadClass("gen.Options"), loader.loadClass("gen.OptionsParser"), new String[][]{
+				{"-a\n\t\r\0\u00e5", "1"},
+				{"-a", "1"},
+		});
+	}
+}